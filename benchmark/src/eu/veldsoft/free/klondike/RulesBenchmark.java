@@ -0,0 +1,399 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Class: RulesBenchmark
+ * 
+ * Description: JMH benchmarks of the rules engine hot paths. Each benchmark
+ * reports throughput and, when started by the main method, the allocation
+ * rate from the GC profiler.
+ * 
+ * The benchmarks are not part of the game build. They are compiled together
+ * with the game sources, with jmh-core and jmh-generator-annprocess on the
+ * class path, so the annotation processor can generate the benchmark code:
+ * 
+ * javac -cp jmh-core.jar:jmh-generator-annprocess.jar:... -d bin src/... benchmark/src/...
+ * 
+ * java -cp bin:jmh-core.jar:... eu.veldsoft.free.klondike.RulesBenchmark
+ * 
+ * @author Todor Balabanov
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+
+	/**
+	 * Deal number used for all benchmarks on a fixed position.
+	 */
+	private static final long DEAL_NUMBER = 1L;
+
+	/**
+	 * Board with a fixed deal.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@State(Scope.Thread)
+	public static class BoardState {
+		/**
+		 * Board under test.
+		 */
+		SolitaireBoard board = new SolitaireBoard();
+
+		/**
+		 * Deal number of the next deal.
+		 */
+		long dealNumber = 0;
+
+		/**
+		 * Buffer for shuffled card numbers.
+		 */
+		int[] numbers = new int[HeadlessBoard.DECK_SIZE];
+
+		/**
+		 * Prepares the board.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		@Setup(Level.Trial)
+		public void setup() {
+			board.createBoard(null, 1);
+			board.setNewDrawCount(1);
+			board.newGame(GameState.GAME_LOST);
+			board.dealOutBoard(DEAL_NUMBER);
+		}
+	}
+
+	/**
+	 * Board with a fixed deal and a draw count parameter.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@State(Scope.Thread)
+	public static class DrawState {
+		/**
+		 * Number of cards drawn from the deal deck at once.
+		 */
+		@Param({ "1", "3" })
+		int drawCount;
+
+		/**
+		 * Board under test.
+		 */
+		SolitaireBoard board = new SolitaireBoard();
+
+		/**
+		 * Prepares the board.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		@Setup(Level.Trial)
+		public void setup() {
+			board.createBoard(null, 1);
+			board.setNewDrawCount(drawCount);
+			deal();
+		}
+
+		/**
+		 * Deals the fixed game again.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		void deal() {
+			board.newGame(GameState.GAME_LOST);
+			board.dealOutBoard(DEAL_NUMBER);
+		}
+	}
+
+	/**
+	 * Column with a black king on top and all cards of the deck.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@State(Scope.Thread)
+	public static class ColumnState {
+		/**
+		 * Column under test.
+		 */
+		Column column = new Column();
+
+		/**
+		 * All cards of the deck.
+		 */
+		Card[] cards = new Card[HeadlessBoard.DECK_SIZE];
+
+		/**
+		 * Prepares the column.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		@Setup(Level.Trial)
+		public void setup() {
+			for (int i = 0; i < cards.length; i++) {
+				cards[i] = Card.valueBy(i + 1);
+			}
+
+			column.addCard(Card.valueBy(HeadlessBoard.SUIT_SIZE));
+		}
+	}
+
+	/**
+	 * Empty ace pile and the cards of its suit.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@State(Scope.Thread)
+	public static class AcePileState {
+		/**
+		 * Ace pile under test.
+		 */
+		AcePile pile = new AcePile(CardSuit.SPADES);
+
+		/**
+		 * Cards from ace to king.
+		 */
+		Card[] cards = new Card[HeadlessBoard.SUIT_SIZE];
+
+		/**
+		 * Prepares the cards.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		@Setup(Level.Trial)
+		public void setup() {
+			for (int i = 0; i < cards.length; i++) {
+				cards[i] = Card.valueBy(i + 1);
+			}
+		}
+	}
+
+	/**
+	 * Creates a shuffled deck from the common PRNG.
+	 * 
+	 * @return Shuffled deck.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public List<Card> getFullShuffledDeck() {
+		return Deck.getFullShuffledDeck();
+	}
+
+	/**
+	 * Shuffles card numbers without allocation.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Top card of the deal.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public int shuffle(BoardState state) {
+		Deck.shuffle(state.dealNumber++, state.numbers);
+		return state.numbers[0];
+	}
+
+	/**
+	 * Clears the board and deals a new game.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Hash of the dealt position.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public long dealOutBoard(BoardState state) {
+		state.board.newGame(GameState.GAME_LOST);
+		state.board.dealOutBoard(state.dealNumber++);
+		return state.board.getHash();
+	}
+
+	/**
+	 * Checks all cards of the deck against a column.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Number of valid moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public int columnIsValidMove(ColumnState state) {
+		int count = 0;
+
+		for (int i = 0; i < state.cards.length; i++) {
+			if (state.column.isValidMove(state.cards[i]) == true) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Builds a full ace pile and takes it down again.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Last card taken from the pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public Card acePilePush(AcePileState state) {
+		for (int i = 0; i < state.cards.length; i++) {
+			state.pile.push(state.cards[i]);
+		}
+
+		Card card = null;
+		while (state.pile.isEmpty() == false) {
+			card = state.pile.pop();
+		}
+
+		return card;
+	}
+
+	/**
+	 * Draws from the deal deck. When the deck can not be redealt any more the
+	 * same game is dealt again, so the cost of the deal is amortized over all
+	 * draws of the game.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Top card of the discard pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public Card dealDeckPop(DrawState state) {
+		Card card = state.board.dealDeck.pop();
+
+		if (card == null && state.board.dealDeck.hasDealsLeft() == false) {
+			state.deal();
+		}
+
+		return card;
+	}
+
+	/**
+	 * Draws from the deal deck, records the move as the user interface does
+	 * and takes it back.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Number of cards in the deal deck.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public int undoMove(BoardState state) {
+		SolitaireBoard board = state.board;
+
+		int numCardsInDiscardView = board.discardPile.getNumViewableCards();
+		board.dealDeck.pop();
+		board.undoJournal.record(HeadlessBoard.DEAL_DECK,
+				HeadlessBoard.DISCARD_PILE,
+				board.discardPile.getNumViewableCards(), numCardsInDiscardView);
+
+		board.undoMove();
+
+		return board.dealDeck.length();
+	}
+
+	/**
+	 * Looks for a hint on a fixed position.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Hint structure.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public String[] getHint(BoardState state) {
+		return state.board.getHint();
+	}
+
+	/**
+	 * Finds all moves on a fixed position.
+	 * 
+	 * @param state
+	 *            Benchmark state.
+	 * 
+	 * @return Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Benchmark
+	public int generateMoves(BoardState state) {
+		return state.board.generateMoves().size();
+	}
+
+	/**
+	 * Runs all benchmarks with the GC profiler.
+	 * 
+	 * @param args
+	 *            Command line arguments.
+	 * 
+	 * @throws RunnerException
+	 *             If the benchmarks can not be run.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RulesBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build();
+
+		new Runner(options).run();
+	}
+}
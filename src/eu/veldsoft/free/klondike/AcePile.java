@@ -19,8 +19,6 @@
 
 package eu.veldsoft.free.klondike;
 
-import java.util.Vector;
-
 /**
  * Class: AcePile
  * 
@@ -33,7 +31,7 @@ class AcePile extends CardStack {
 	/**
 	 * Stack of cards.
 	 */
-	private Vector<Card> cards = new Vector<Card>();
+	private final CardArray cards = new CardArray();
 
 	/**
 	 * Pile suit.
@@ -60,7 +58,7 @@ class AcePile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public Vector<Card> getCards() {
+	public CardArray getCards() {
 		return cards;
 	}
 
@@ -86,8 +84,9 @@ class AcePile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void addCard(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		cards.add(card);
+		updateHash(card, cards.size() - 1);
 	}
 
 	/**
@@ -97,8 +96,9 @@ class AcePile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		Card card = peek();
+		updateHash(card, cards.size() - 1);
 		cards.remove(cards.size() - 1);
 
 		return card;
@@ -111,7 +111,7 @@ class AcePile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		if (cards.isEmpty()) {
 			return null;
 		}
@@ -151,7 +151,7 @@ class AcePile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		int i = cards.lastIndexOf(card);
 
 		if (i >= 0) {
@@ -199,9 +199,7 @@ class AcePile extends CardStack {
 			/*
 			 * Cards are not opposite colors or decreasing in value correctly.
 			 */
-			if (cards.get(i).getColor() == cards.get(i + 1).getColor()
-					|| cards.get(i).getRank()
-							.isLessByOneThan(cards.get(i + 1).getRank()) == false) {
+			if (CardRules.isValidOnColumn(cards.get(i + 1), cards.get(i)) == false) {
 				return false;
 			}
 		}
@@ -223,11 +221,12 @@ class AcePile extends CardStack {
 	 */
 	public CardStack getStack(Card card) {
 		CardStack temp = new AcePile(getSuit());
+		temp.setStates(states);
 		int index = search(card);
 
 		for (int i = 0; i < index; i++) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -247,11 +246,12 @@ class AcePile extends CardStack {
 	 */
 	public CardStack getStack(int numCards) {
 		CardStack temp = new AcePile(getSuit());
+		temp.setStates(states);
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -268,7 +268,7 @@ class AcePile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public Card push(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		if (isValidMove(card) == false) {
 			return null;
 		}
@@ -292,13 +292,11 @@ class AcePile extends CardStack {
 			return false;
 		}
 
-		if (isEmpty() && card.getRank().equals(CardRank.ACE)) {
-			return true;
-		} else if (card.getRank().isLessByOneThan(peek().getRank())) {
-			return true;
+		if (isEmpty() == true) {
+			return CardRules.isValidOnAcePile(card, null);
 		}
 
-		return false;
+		return CardRules.isValidOnAcePile(card, peek());
 	}
 
 	/**
@@ -360,7 +358,7 @@ class AcePile extends CardStack {
 	 */
 	void highlight(int index) {
 		if (isEmpty() == false) {
-			peek().highlight();
+			states.highlight(peek());
 		}
 	}
 }
@@ -156,6 +156,7 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	public void addCard(Card card) {
 		acePile.addCard(card);
 		CardComponent.cardsMapping.get(card).setBounds(0, 0, 72, 96);
+		CardComponent.cardsMapping.get(card).setStates(acePile.getStates());
 		add(CardComponent.cardsMapping.get(card), 0);
 	}
 
@@ -205,7 +206,8 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 
 		for (int i = 0; i < index; i++) {
 			temp.add(getCardAtLocation(acePile.getCards().size() - i - 1));
-			getCardAtLocation(acePile.getCards().size() - i - 1).highlight();
+			acePile.getStates().highlight(
+					getCardAtLocation(acePile.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -225,11 +227,13 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack getStack(int numCards) {
 		AcePile temp = new AcePile(acePile.getSuit());
+		temp.setStates(acePile.getStates());
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(acePile.getCards().size() - i - 1));
-			getCardAtLocation(acePile.getCards().size() - i - 1).highlight();
+			acePile.getStates().highlight(
+					getCardAtLocation(acePile.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -278,6 +282,7 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 		 * Temporary reverse pop of entire stack transfer.
 		 */
 		AcePile temp = new AcePile(acePile.getSuit());
+		temp.setStates(acePile.getStates());
 
 		while (!stack.isEmpty()) {
 			Card card = stack.pop();
@@ -360,6 +365,7 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack undoStack(int numCards) {
 		AcePile temp = new AcePile(acePile.getSuit());
+		temp.setStates(acePile.getStates());
 
 		for (int i = 0; i < numCards; i++) {
 			temp.push(pop());
@@ -432,12 +438,8 @@ class AcePileLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 		}
 
 		for (int i = 0; i < acePile.length(); i++) {
-			CardComponent.cardsMapping.get(acePile.getCardAtLocation(i))
-					.updateImage();
-			g.drawImage(
-					CardComponent.cardsMapping
-							.get(acePile.getCardAtLocation(i)).getImage(), 0,
-					0, null);
+			CardAtlas.draw(g, acePile.getStates(),
+					acePile.getCardAtLocation(i), 0, 0);
 		}
 	}
 }
\ No newline at end of file
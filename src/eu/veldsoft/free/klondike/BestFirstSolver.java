@@ -0,0 +1,617 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.Arrays;
+
+/**
+ * Class: BestFirstSolver
+ * 
+ * Description: The BestFirstSolver class looks for the shortest winning line
+ * of a deal. It is a weighted A* search over HeadlessBoard positions, where
+ * each move counts as one, draws from the deal deck included. The heuristic
+ * never overestimates the moves left, so with weight one the first solution
+ * found is a shortest one among the moves given by
+ * HeadlessBoard.generateMoves(). Bigger weights find longer lines faster.
+ * 
+ * The memory is bounded. For each node only its parent, its move and its cost
+ * are kept, and the positions are rebuilt from the root when expanded. When
+ * the open list is full the worst nodes are dropped and the solution is not
+ * proven optimal any more.
+ * 
+ * The solution is a list of packed HeadlessBoard moves. It can be replayed on
+ * a HeadlessBoard with replay() and on a game with SolitaireBoard.playMoves(),
+ * which selects the cards and calls moveToAces(), moveToColumns() or
+ * moveToCells() for each move.
+ * 
+ * @author Todor Balabanov
+ */
+class BestFirstSolver {
+
+	/**
+	 * Default number of nodes to be created before giving up.
+	 */
+	static final int DEFAULT_NODE_BUDGET = 500000;
+
+	/**
+	 * Default maximum size of the open list.
+	 */
+	static final int DEFAULT_OPEN_LIMIT = 200000;
+
+	/**
+	 * Upper bound of the estimated cost of a line.
+	 */
+	private static final int MAX_COST = 4096;
+
+	/**
+	 * Initial size of the node arrays and the open list buckets.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Nodes to be created before giving up.
+	 */
+	private final int nodeBudget;
+
+	/**
+	 * Maximum size of the open list.
+	 */
+	private final int openLimit;
+
+	/**
+	 * Weight of the heuristic, one for optimal solutions.
+	 */
+	private final int weight;
+
+	/**
+	 * Parent of each node, -1 for the root.
+	 */
+	private int parents[] = new int[0];
+
+	/**
+	 * Packed move which leads to each node.
+	 */
+	private int moves[] = new int[0];
+
+	/**
+	 * Number of moves from the root to each node.
+	 */
+	private int costs[] = new int[0];
+
+	/**
+	 * Number of created nodes.
+	 */
+	private int nodes = 0;
+
+	/**
+	 * Position hash codes of the best known costs. Zero marks an empty slot.
+	 */
+	private long keys[] = new long[0];
+
+	/**
+	 * Best known cost of each position in the keys array.
+	 */
+	private int values[] = new int[0];
+
+	/**
+	 * Open list nodes grouped by estimated cost.
+	 */
+	private final int buckets[][] = new int[MAX_COST][];
+
+	/**
+	 * Number of nodes in each bucket.
+	 */
+	private final int bucketSizes[] = new int[MAX_COST];
+
+	/**
+	 * Number of nodes in the open list.
+	 */
+	private int open = 0;
+
+	/**
+	 * Lowest bucket which may be non empty.
+	 */
+	private int lowest = MAX_COST;
+
+	/**
+	 * Highest bucket which may be non empty.
+	 */
+	private int highest = 0;
+
+	/**
+	 * True if the last solution is proven to be a shortest one.
+	 */
+	private boolean optimal = false;
+
+	/**
+	 * True if nodes were dropped or not created during the last search.
+	 */
+	private boolean dropped = false;
+
+	/**
+	 * Number of positions expanded during the last solve call.
+	 */
+	private long lastNodes = 0;
+
+	/**
+	 * Cache of the solver results or null.
+	 */
+	private SolverCache cache = null;
+
+	/**
+	 * Creates optimal solver with the default limits.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public BestFirstSolver() {
+		this(DEFAULT_NODE_BUDGET, DEFAULT_OPEN_LIMIT, 1);
+	}
+
+	/**
+	 * Creates solver.
+	 * 
+	 * @param nodeBudget
+	 *            Nodes to be created before giving up.
+	 * 
+	 * @param openLimit
+	 *            Maximum size of the open list.
+	 * 
+	 * @param weight
+	 *            Weight of the heuristic, one for optimal solutions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public BestFirstSolver(int nodeBudget, int openLimit, int weight) {
+		this.nodeBudget = Math.max(1, nodeBudget);
+		this.openLimit = Math.max(1, openLimit);
+		this.weight = Math.max(1, weight);
+	}
+
+	/**
+	 * Lower bound of the moves needed to solve a position. Each card out of
+	 * the ace piles needs a move. The cards in the deal deck need at least
+	 * one draw for each draw count of them. A card over a lower card of the
+	 * same suit in a column should be moved away before it can go to its ace
+	 * pile. Such cards in the same valid sequence may go away with a single
+	 * move, so one extra move is counted for each sequence.
+	 * 
+	 * @param board
+	 *            Position.
+	 * 
+	 * @return Minimum number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int heuristic(HeadlessBoard board) {
+		int result = HeadlessBoard.DECK_SIZE;
+
+		for (int i = 0; i < 4; i++) {
+			result -= board.length(HeadlessBoard.ACE_PILES + i);
+		}
+
+		int draw = board.getDrawCount();
+		result += (board.length(HeadlessBoard.DEAL_DECK) + draw - 1) / draw;
+
+		for (int pile = HeadlessBoard.COLUMNS; pile < HeadlessBoard.ACE_PILES; pile++) {
+			/*
+			 * Lowest rank of each suit below the current card, four bits for
+			 * each suit.
+			 */
+			int below = 0xFFFF;
+			boolean counted = false;
+			int previous = 0;
+
+			for (int i = 0; i < board.length(pile); i++) {
+				int card = board.getCardAtLocation(pile, i);
+				int shift = HeadlessBoard.suit(card) * 4;
+				int rank = HeadlessBoard.rank(card);
+
+				if (previous != 0
+						&& CardRules.isValidOnColumn(card, previous) == false) {
+					counted = false;
+				}
+
+				if (rank > (below >> shift & 0xF) && counted == false) {
+					result++;
+					counted = true;
+				}
+
+				if (rank < (below >> shift & 0xF)) {
+					below = below & ~(0xF << shift) | rank << shift;
+				}
+
+				previous = card;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Replays a solution.
+	 * 
+	 * @param board
+	 *            Position to start from. It is changed by the moves.
+	 * 
+	 * @param solution
+	 *            Packed moves.
+	 * 
+	 * @return True if all moves were done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean replay(HeadlessBoard board, int solution[]) {
+		for (int i = 0; i < solution.length; i++) {
+			if (board.move(HeadlessBoard.moveSource(solution[i]),
+					HeadlessBoard.moveDestination(solution[i]),
+					HeadlessBoard.moveCards(solution[i])) == false) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Looks for the shortest winning line of a played game. The game is not
+	 * changed.
+	 * 
+	 * @param board
+	 *            Played game.
+	 * 
+	 * @return Packed moves or null if no solution was found.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int[] solve(SolitaireBoard board) {
+		HeadlessBoard position = new HeadlessBoard();
+		position.copyFrom(board);
+
+		return solve(position);
+	}
+
+	/**
+	 * Looks for the shortest winning line of a position. The board is not
+	 * changed. A position known as unsolvable by the cache is not searched.
+	 * 
+	 * @param board
+	 *            Position to be solved.
+	 * 
+	 * @return Packed moves or null if no solution was found.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized int[] solve(HeadlessBoard board) {
+		if (cache == null) {
+			return search(board);
+		}
+
+		long key = SolverCache.key(board);
+		SolverResult known = cache.get(key);
+		if (known != null && known.getSolvability() == Solvability.UNSOLVABLE) {
+			optimal = false;
+			lastNodes = 0;
+			return null;
+		}
+
+		int solution[] = search(board);
+		if (solution != null) {
+			cache.put(key, new SolverResult(Solvability.SOLVABLE,
+					solution.length, lastNodes));
+		} else if (dropped == false) {
+			cache.put(key, new SolverResult(Solvability.UNSOLVABLE,
+					SolverResult.UNKNOWN_LENGTH, lastNodes));
+		}
+
+		return solution;
+	}
+
+	/**
+	 * Searches a position without the cache.
+	 * 
+	 * @param board
+	 *            Position to be solved.
+	 * 
+	 * @return Packed moves or null if no solution was found.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int[] search(HeadlessBoard board) {
+		HeadlessBoard root = new HeadlessBoard();
+		root.copyFrom(board);
+
+		HeadlessBoard position = new HeadlessBoard();
+		HeadlessBoard child = new HeadlessBoard();
+		int buffer[] = new int[HeadlessBoard.MAX_MOVES];
+		int line[] = new int[MAX_COST];
+
+		reset();
+		optimal = false;
+		dropped = false;
+		lastNodes = 0;
+
+		remember(root.hash(), 0);
+		push(create(-1, 0, 0), weight * heuristic(root));
+
+		while (open > 0) {
+			int node = pop();
+			int cost = costs[node];
+
+			/*
+			 * Rebuild the position from the root.
+			 */
+			for (int i = cost - 1, n = node; i >= 0; i--, n = parents[n]) {
+				line[i] = moves[n];
+			}
+			position.copyFrom(root);
+			replay(position, Arrays.copyOf(line, cost));
+
+			/*
+			 * The position was reached later with fewer moves.
+			 */
+			if (best(position.hash()) < cost) {
+				continue;
+			}
+
+			if (position.isSolved() == true) {
+				optimal = (weight == 1 && dropped == false);
+				return Arrays.copyOf(line, cost);
+			}
+
+			lastNodes++;
+			if (nodes + HeadlessBoard.MAX_MOVES > nodeBudget) {
+				dropped = true;
+				break;
+			}
+
+			int count = position.generateMoves(buffer);
+			for (int i = 0; i < count; i++) {
+				child.copyFrom(position);
+				if (child.move(HeadlessBoard.moveSource(buffer[i]),
+						HeadlessBoard.moveDestination(buffer[i]),
+						HeadlessBoard.moveCards(buffer[i])) == false) {
+					continue;
+				}
+
+				long hash = child.hash();
+				if (cost + 1 >= best(hash)) {
+					continue;
+				}
+
+				int estimate = cost + 1 + weight * heuristic(child);
+				if (estimate >= MAX_COST) {
+					dropped = true;
+					continue;
+				}
+
+				remember(hash, cost + 1);
+				push(create(node, buffer[i], cost + 1), estimate);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Sets the cache which is checked before each search and which keeps the
+	 * solution lengths.
+	 * 
+	 * @param cache
+	 *            Solver cache or null for no cache.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void setCache(SolverCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Checks if the last solution is proven to be a shortest one. It is true
+	 * only with weight one and when no nodes were dropped.
+	 * 
+	 * @return True if the last solution is optimal.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized boolean isOptimal() {
+		return optimal;
+	}
+
+	/**
+	 * Returns the number of positions expanded during the last solve call.
+	 * 
+	 * @return Number of positions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized long getLastNodes() {
+		return lastNodes;
+	}
+
+	/**
+	 * Clears the search state. The arrays are kept for the next search.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void reset() {
+		nodes = 0;
+		open = 0;
+		lowest = MAX_COST;
+		highest = 0;
+		Arrays.fill(bucketSizes, 0);
+
+		int size = Integer.highestOneBit(nodeBudget * 2 - 1) << 1;
+		if (keys.length != size) {
+			keys = new long[size];
+			values = new int[size];
+		} else {
+			Arrays.fill(keys, 0L);
+		}
+	}
+
+	/**
+	 * Creates a node.
+	 * 
+	 * @param parent
+	 *            Parent node or -1 for the root.
+	 * 
+	 * @param move
+	 *            Packed move from the parent.
+	 * 
+	 * @param cost
+	 *            Number of moves from the root.
+	 * 
+	 * @return Node index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int create(int parent, int move, int cost) {
+		if (nodes == parents.length) {
+			int size = Math.max(INITIAL_CAPACITY, parents.length * 2);
+			parents = Arrays.copyOf(parents, size);
+			moves = Arrays.copyOf(moves, size);
+			costs = Arrays.copyOf(costs, size);
+		}
+
+		parents[nodes] = parent;
+		moves[nodes] = move;
+		costs[nodes] = cost;
+
+		return nodes++;
+	}
+
+	/**
+	 * Slot of a position in the best costs table.
+	 * 
+	 * @param hash
+	 *            Position hash code.
+	 * 
+	 * @return Slot index, either with the hash code or empty.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int slot(long hash) {
+		int mask = keys.length - 1;
+		int index = (int) (hash ^ hash >>> 32) & mask;
+
+		while (keys[index] != 0 && keys[index] != hash) {
+			index = (index + 1) & mask;
+		}
+
+		return index;
+	}
+
+	/**
+	 * Returns the best known cost of a position.
+	 * 
+	 * @param hash
+	 *            Position hash code.
+	 * 
+	 * @return Number of moves or Integer.MAX_VALUE if the position is new.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int best(long hash) {
+		if (hash == 0) {
+			hash = 1;
+		}
+
+		int index = slot(hash);
+		if (keys[index] == 0) {
+			return Integer.MAX_VALUE;
+		}
+
+		return values[index];
+	}
+
+	/**
+	 * Stores the best known cost of a position.
+	 * 
+	 * @param hash
+	 *            Position hash code.
+	 * 
+	 * @param cost
+	 *            Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void remember(long hash, int cost) {
+		if (hash == 0) {
+			hash = 1;
+		}
+
+		int index = slot(hash);
+		keys[index] = hash;
+		values[index] = cost;
+	}
+
+	/**
+	 * Adds a node in the open list. When the list is full the node with the
+	 * highest estimate is dropped.
+	 * 
+	 * @param node
+	 *            Node index.
+	 * 
+	 * @param estimate
+	 *            Estimated cost of a line through the node.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void push(int node, int estimate) {
+		if (buckets[estimate] == null) {
+			buckets[estimate] = new int[INITIAL_CAPACITY];
+		} else if (bucketSizes[estimate] == buckets[estimate].length) {
+			buckets[estimate] = Arrays.copyOf(buckets[estimate],
+					buckets[estimate].length * 2);
+		}
+
+		buckets[estimate][bucketSizes[estimate]++] = node;
+		open++;
+		lowest = Math.min(lowest, estimate);
+		highest = Math.max(highest, estimate);
+
+		if (open > openLimit) {
+			while (bucketSizes[highest] == 0) {
+				highest--;
+			}
+
+			bucketSizes[highest]--;
+			open--;
+			dropped = true;
+		}
+	}
+
+	/**
+	 * Takes the node with the lowest estimate from the open list. The node
+	 * added last comes first from the nodes with the same estimate, so
+	 * deeper nodes are preferred.
+	 * 
+	 * @return Node index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int pop() {
+		while (bucketSizes[lowest] == 0) {
+			lowest++;
+		}
+
+		open--;
+		return buckets[lowest][--bucketSizes[lowest]];
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Class: BoardPool
+ * 
+ * Description: The BoardPool class keeps boards for reuse when many games are
+ * played at the same time, as in simulations or on a server. A board is owned
+ * by a single thread between acquire and release, so the board itself needs
+ * no locking. Boards do not share any mutable state, the cards are immutable
+ * and each board keeps its own card states, draw count and deck through limit.
+ * 
+ * @author Todor Balabanov
+ */
+class BoardPool {
+
+	/**
+	 * Boards waiting for reuse.
+	 */
+	private final ConcurrentLinkedQueue<SolitaireBoard> idle = new ConcurrentLinkedQueue<SolitaireBoard>();
+
+	/**
+	 * Draw count of the games dealt by the pool.
+	 */
+	private final int drawCount;
+
+	/**
+	 * Difficulty of the games dealt by the pool.
+	 */
+	private final GameDifficulty difficulty;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param drawCount
+	 *            Draw count of the games (1 or 3).
+	 * 
+	 * @param difficulty
+	 *            Difficulty of the games.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	BoardPool(int drawCount, GameDifficulty difficulty) {
+		this.drawCount = (drawCount == 3) ? 3 : 1;
+		this.difficulty = difficulty;
+	}
+
+	/**
+	 * Takes a board from the pool, or creates a new one if the pool is empty,
+	 * and deals a game on it. The board should be used by the calling thread
+	 * only until it is released.
+	 * 
+	 * @param dealNumber
+	 *            Deal number of the game.
+	 * 
+	 * @return Board with the dealt game.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	SolitaireBoard acquire(long dealNumber) {
+		SolitaireBoard board = idle.poll();
+
+		if (board == null) {
+			board = new SolitaireBoard();
+			board.createBoard(null, 1);
+		}
+
+		board.newGame(GameState.GAME_LOST);
+		board.setNewDrawCount(drawCount);
+		board.setNewDifficulty(difficulty);
+		board.dealOutBoard(dealNumber);
+
+		return board;
+	}
+
+	/**
+	 * Returns a board to the pool. The board should not be used after it is
+	 * released.
+	 * 
+	 * @param board
+	 *            Board taken with acquire.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void release(SolitaireBoard board) {
+		if (board == null) {
+			return;
+		}
+
+		idle.offer(board);
+	}
+
+	/**
+	 * Returns the number of boards waiting for reuse.
+	 * 
+	 * @return Number of idle boards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int size() {
+		return idle.size();
+	}
+}
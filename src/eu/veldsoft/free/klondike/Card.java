@@ -25,7 +25,8 @@ import java.util.logging.Logger;
  * Class: Card
  * 
  * Description: The Card class holds information pertaining to 1 out of the 52
- * cards per deck.
+ * cards per deck. Cards are immutable flyweights shared by all boards, the face
+ * and highlighting state of a card on a board is kept in CardStates.
  * 
  * @author Matt Stephen
  */
@@ -59,37 +60,22 @@ class Card {
 	/**
 	 * Card suit.
 	 */
-	private CardSuit suit;
+	private final CardSuit suit;
 
 	/**
 	 * Card number.
 	 */
-	private CardRank rank;
+	private final CardRank rank;
 
 	/**
 	 * Card color.
 	 */
-	private CardColor color;
+	private final CardColor color;
 
 	/**
 	 * 1 - 52
 	 */
-	private int fullCardNumber;
-
-	/**
-	 * Is the card currently set face-up.
-	 */
-	private boolean faceUp = false;
-
-	/**
-	 * Is the card currently highlighted.
-	 */
-	private boolean highlighted = false;
-
-	/**
-	 * To notify the discard pile of moves from the deck.
-	 */
-	private String location = "";
+	private final int fullCardNumber;
 
 	/**
 	 * It is used instead of constructor. Implement lazy initialization.
@@ -141,8 +127,7 @@ class Card {
 	}
 
 	/**
-	 * Card constructor Sets the card's suit, number, full number and back
-	 * image. Also sets it face-up.
+	 * Card constructor Sets the card's suit, number and full number.
 	 * 
 	 * @param suit
 	 *            Card suit to be set.
@@ -161,97 +146,11 @@ class Card {
 		this.fullCardNumber = fullNumber;
 		if (suit == CardSuit.SPADES || suit == CardSuit.CLUBS) {
 			this.color = CardColor.BLACK;
-		} else if (suit == CardSuit.DIAMONDS || suit == CardSuit.HEARTS) {
+		} else {
 			this.color = CardColor.RED;
 		}
 	}
 
-	/**
-	 * Sets the card's highlighted front image.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void highlight() {
-		if (isFaceUp() == true) {
-			highlighted = true;
-		}
-	}
-
-	/**
-	 * Unhighlights a highlighted card. Sets back its unhighlighted face image.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void unhighlight() {
-		if (isFaceUp() == true) {
-			highlighted = false;
-		}
-	}
-
-	/**
-	 * Checks if the card is highlighted and returns the result(true/false).
-	 * 
-	 * @return highlighted Whether the card is highlighted or not (true or
-	 *         false).
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public boolean isHighlighted() {
-		return highlighted;
-	}
-
-	/**
-	 * Checks if the card is unhighlighted and returns the result(true/false).
-	 * 
-	 * @return highlighted Whether the card is highlighted or not (true or
-	 *         false).
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public boolean isUnhighlighted() {
-		return (!highlighted);
-	}
-
-	/**
-	 * Sets the card face-up.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setFaceUp() {
-		faceUp = true;
-	}
-
-	/**
-	 * Sets the card face-down.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setFaceDown() {
-		faceUp = false;
-	}
-
-	/**
-	 * Checks if the card is facing up and returns the result(true/false).
-	 * 
-	 * @return faceUp Whether the card is set face-up or not (true or false).
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public boolean isFaceUp() {
-		return faceUp;
-	}
-
-	/**
-	 * Checks if the card is facing down and returns the result(true/false).
-	 * 
-	 * @return faceUp Whether the card is set face-up or not (true or false).
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public boolean isFaceDown() {
-		return (!faceUp);
-	}
-
 	/**
 	 * Returns the card's suit.
 	 * 
@@ -285,42 +184,6 @@ class Card {
 		return rank;
 	}
 
-	/**
-	 * Sets the card's rank.
-	 * 
-	 * @param rank
-	 *            Used to set the card's rank.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setRank(CardRank rank) {
-		this.rank = rank;
-	}
-
-	/**
-	 * Sets the card's suit.
-	 * 
-	 * @param suit
-	 *            Used to set the card's suit.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setSuit(CardSuit suit) {
-		this.suit = suit;
-	}
-
-	/**
-	 * Sets the card's color.
-	 * 
-	 * @param color
-	 *            Used to set the card's color.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setColor(CardColor color) {
-		this.color = color;
-	}
-
 	/**
 	 * Returns the card's full number.
 	 * 
@@ -333,32 +196,9 @@ class Card {
 	}
 
 	/**
-	 * Notifies the discard pile of moves from the deck.
-	 * 
-	 * @return location Current card location.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public String getSource() {
-		return location;
-	}
-
-	/**
-	 * Used to set the location of a moved card.
-	 * 
-	 * @param source
-	 *            Source to which the card has been moved.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setSource(String source) {
-		location = source;
-	}
-
-	/**
-	 * Clone a card, that includes the card's suit, number and full number.
+	 * Cards are immutable, so the clone of a card is the card itself.
 	 * 
-	 * @return this Copy of the card.
+	 * @return this The same card.
 	 * 
 	 * @author Todor Balabanov
 	 */
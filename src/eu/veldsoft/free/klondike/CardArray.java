@@ -0,0 +1,279 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Class: CardArray
+ * 
+ * Description: The CardArray class is the storage of the cards in a stack. It
+ * is a fixed array with room for a full deck and a primitive size, without
+ * any locking. A stack is used by one thread at a time (the board which owns
+ * it), so the monitors of a Vector are never needed. It keeps the Vector
+ * methods used by the stacks and their panes. The index of each card is kept
+ * up to date on every change, so a card is found in constant time, and the
+ * stacks of a board also report their cards to the board position index.
+ * 
+ * @author Todor Balabanov
+ */
+class CardArray extends AbstractList<Card> implements RandomAccess {
+
+	/**
+	 * Cards from the bottom to the top of the stack.
+	 */
+	private final Card cards[] = new Card[HeadlessBoard.DECK_SIZE];
+
+	/**
+	 * Number of cards.
+	 */
+	private int size = 0;
+
+	/**
+	 * Index plus one of each card by card number, zero for missing cards.
+	 */
+	private final byte indices[] = new byte[HeadlessBoard.DECK_SIZE + 1];
+
+	/**
+	 * Position index of the board or null for temporary stacks.
+	 */
+	private CardPositions positions = null;
+
+	/**
+	 * Stack which owns the array.
+	 */
+	private CardStack owner = null;
+
+	/**
+	 * Attaches the array to the position index of a board. The cards already
+	 * in the array are reported to the index.
+	 * 
+	 * @param positions
+	 *            Position index of the board.
+	 * 
+	 * @param owner
+	 *            Stack which owns the array.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setPositions(CardPositions positions, CardStack owner) {
+		this.positions = positions;
+		this.owner = owner;
+
+		for (int i = 0; i < size; i++) {
+			positions.place(cards[i], owner);
+		}
+	}
+
+	/**
+	 * Returns the card at a given index.
+	 * 
+	 * @param index
+	 *            Index of the card.
+	 * 
+	 * @return Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public Card get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		}
+
+		return cards[index];
+	}
+
+	/**
+	 * Returns the number of cards.
+	 * 
+	 * @return Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a card on the top.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public boolean add(Card card) {
+		if (size >= cards.length) {
+			throw new IllegalStateException("More than "
+					+ HeadlessBoard.DECK_SIZE + " cards in a stack!");
+		}
+
+		cards[size] = card;
+		size++;
+		indices[card.getFullNumber()] = (byte) size;
+		if (positions != null) {
+			positions.place(card, owner);
+		}
+		modCount++;
+
+		return true;
+	}
+
+	/**
+	 * Removes the card at a given index. Only the top card is removed in
+	 * constant time.
+	 * 
+	 * @param index
+	 *            Index of the card.
+	 * 
+	 * @return Removed card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public Card remove(int index) {
+		Card card = get(index);
+
+		System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+		size--;
+		cards[size] = null;
+		for (int i = index; i < size; i++) {
+			indices[cards[i].getFullNumber()] = (byte) (i + 1);
+		}
+
+		indices[card.getFullNumber()] = 0;
+		if (positions != null) {
+			positions.remove(card, owner);
+		}
+		modCount++;
+
+		return card;
+	}
+
+	/**
+	 * Removes all cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			indices[cards[i].getFullNumber()] = 0;
+			if (positions != null) {
+				positions.remove(cards[i], owner);
+			}
+			cards[i] = null;
+		}
+
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Returns the index of the topmost occurrence of a card.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Index or -1 if the card is not in the array.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public int lastIndexOf(Object card) {
+		if (card instanceof Card == false) {
+			return -1;
+		}
+
+		return indices[((Card) card).getFullNumber()] - 1;
+	}
+
+	/**
+	 * Returns the index of a card. A card is never twice in the same stack.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Index or -1 if the card is not in the array.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public int indexOf(Object card) {
+		return lastIndexOf(card);
+	}
+
+	/**
+	 * Checks if a card is in the array.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True if the card is in the array, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public boolean contains(Object card) {
+		return lastIndexOf(card) >= 0;
+	}
+
+	/**
+	 * Returns the card at a given index.
+	 * 
+	 * @param index
+	 *            Index of the card.
+	 * 
+	 * @return Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Card elementAt(int index) {
+		return get(index);
+	}
+
+	/**
+	 * Returns the bottom card.
+	 * 
+	 * @return Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Card firstElement() {
+		return get(0);
+	}
+
+	/**
+	 * Returns the top card.
+	 * 
+	 * @return Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Card lastElement() {
+		return get(size - 1);
+	}
+}
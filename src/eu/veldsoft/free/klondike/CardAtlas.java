@@ -0,0 +1,291 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class: CardAtlas
+ * 
+ * Description: The CardAtlas class packs all card faces, the highlighted
+ * faces and the card backs in a single sheet, compatible with the screen
+ * configuration. The PNG files are read only once and the cards are drawn as
+ * sub-rectangles of the sheet. Faces take the first four rows (one row per
+ * suit), the highlighted faces the next four rows and the backs the last
+ * row.
+ * 
+ * @author Todor Balabanov
+ */
+class CardAtlas {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(CardAtlas.class
+			.getName());
+
+	/**
+	 * Card width in pixels.
+	 */
+	static final int CARD_WIDTH = 72;
+
+	/**
+	 * Card height in pixels.
+	 */
+	static final int CARD_HEIGHT = 96;
+
+	/**
+	 * Number of suits.
+	 */
+	private static final int NUMBER_OF_SUITS = 4;
+
+	/**
+	 * Row of the first highlighted face.
+	 */
+	private static final int HIGHLIGHTED_ROW = NUMBER_OF_SUITS;
+
+	/**
+	 * Row of the card backs.
+	 */
+	private static final int BACKS_ROW = 2 * NUMBER_OF_SUITS;
+
+	/**
+	 * Rank names as used in the image file names.
+	 */
+	private static final String RANKS[] = { "Ace", "Two", "Three", "Four",
+			"Five", "Six", "Seven", "Eight", "Nine", "Ten", "Jack", "Queen",
+			"King" };
+
+	/**
+	 * Suit letters as used in the image file names, in order of the card
+	 * numbers.
+	 */
+	private static final String SUITS[] = { "s", "c", "d", "h" };
+
+	/**
+	 * Sheet with all card images.
+	 */
+	private static final BufferedImage SHEET = createSheet(
+			HeadlessBoard.SUIT_SIZE * CARD_WIDTH, (BACKS_ROW + 1)
+					* CARD_HEIGHT);
+
+	/**
+	 * Initialize static data.
+	 */
+	static {
+		Graphics2D g = SHEET.createGraphics();
+
+		for (int i = 0; i < HeadlessBoard.DECK_SIZE; i++) {
+			String name = SUITS[i / HeadlessBoard.SUIT_SIZE]
+					+ RANKS[i % HeadlessBoard.SUIT_SIZE];
+			int x = (i % HeadlessBoard.SUIT_SIZE) * CARD_WIDTH;
+			int y = (i / HeadlessBoard.SUIT_SIZE) * CARD_HEIGHT;
+
+			pack(g, SolitaireBoardFrame.IMAGES_PATH + "/cardfaces/" + name
+					+ ".png", x, y);
+			pack(g, SolitaireBoardFrame.IMAGES_PATH + "/highlightedfaces/"
+					+ name + "H.png", x, y + HIGHLIGHTED_ROW * CARD_HEIGHT);
+		}
+
+		for (int deck = 1; deck <= ChangeAppearance.NUM_DECKS; deck++) {
+			pack(g, SolitaireBoardFrame.IMAGES_PATH + "/cardbacks/cardback"
+					+ deck + ".png", (deck - 1) * CARD_WIDTH, BACKS_ROW
+					* CARD_HEIGHT);
+		}
+
+		g.dispose();
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private CardAtlas() {
+	}
+
+	/**
+	 * Creates an empty translucent sheet. When there is a screen the sheet is
+	 * created compatible with it, so it can be kept in video memory.
+	 * 
+	 * @param width
+	 *            Sheet width.
+	 * 
+	 * @param height
+	 *            Sheet height.
+	 * 
+	 * @return Sheet image.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static BufferedImage createSheet(int width, int height) {
+		if (GraphicsEnvironment.isHeadless() == true) {
+			return new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Reads an image from the resources and draws it in the sheet.
+	 * 
+	 * @param g
+	 *            Sheet graphic context.
+	 * 
+	 * @param path
+	 *            Resource path.
+	 * 
+	 * @param x
+	 *            Left of the cell in the sheet.
+	 * 
+	 * @param y
+	 *            Top of the cell in the sheet.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void pack(Graphics2D g, String path, int x, int y) {
+		URL url = CardAtlas.class.getResource(path);
+		if (url == null) {
+			LOGGER.info("Missing image " + path + "!");
+			return;
+		}
+
+		try {
+			BufferedImage image = ImageIO.read(url);
+			if (image != null) {
+				g.drawImage(image, x, y, CARD_WIDTH, CARD_HEIGHT, null);
+				image.flush();
+			}
+		} catch (IOException e) {
+			LOGGER.info("Invalid image " + path + "!");
+		}
+	}
+
+	/**
+	 * Left of the card cell in the sheet for the current state of a card.
+	 * 
+	 * @param states
+	 *            Card states of the board.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Left in pixels.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static int left(CardStates states, Card card) {
+		if (states.isFaceDown(card) == true) {
+			int deck = SolitaireBoardFrame.deckNumber;
+			if (deck < 1 || deck > ChangeAppearance.NUM_DECKS) {
+				deck = ChangeAppearance.FRS_DECK;
+			}
+
+			return (deck - 1) * CARD_WIDTH;
+		}
+
+		return ((card.getFullNumber() - 1) % HeadlessBoard.SUIT_SIZE)
+				* CARD_WIDTH;
+	}
+
+	/**
+	 * Top of the card cell in the sheet for the current state of a card.
+	 * 
+	 * @param states
+	 *            Card states of the board.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Top in pixels.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static int top(CardStates states, Card card) {
+		if (states.isFaceDown(card) == true) {
+			return BACKS_ROW * CARD_HEIGHT;
+		}
+
+		int row = (card.getFullNumber() - 1) / HeadlessBoard.SUIT_SIZE;
+		if (states.isHighlighted(card) == true) {
+			row += HIGHLIGHTED_ROW;
+		}
+
+		return row * CARD_HEIGHT;
+	}
+
+	/**
+	 * Draws the current state of a card (back, face or highlighted face).
+	 * 
+	 * @param g
+	 *            Graphic context.
+	 * 
+	 * @param states
+	 *            Card states of the board.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @param x
+	 *            Left of the card in the graphic context.
+	 * 
+	 * @param y
+	 *            Top of the card in the graphic context.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void draw(Graphics g, CardStates states, Card card, int x, int y) {
+		int left = left(states, card);
+		int top = top(states, card);
+
+		g.drawImage(SHEET, x, y, x + CARD_WIDTH, y + CARD_HEIGHT, left, top,
+				left + CARD_WIDTH, top + CARD_HEIGHT, null);
+	}
+
+	/**
+	 * Returns a view of the sheet with the current state of a card. The view
+	 * shares the sheet pixels.
+	 * 
+	 * @param states
+	 *            Card states of the board.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Card image.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static BufferedImage get(CardStates states, Card card) {
+		return SHEET.getSubimage(left(states, card), top(states, card),
+				CARD_WIDTH, CARD_HEIGHT);
+	}
+}
@@ -21,11 +21,9 @@ package eu.veldsoft.free.klondike;
 
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
 import javax.swing.JComponent;
 
 /**
@@ -63,29 +61,14 @@ class CardComponent extends JComponent {
 	}
 
 	/**
-	 * The back design.
-	 */
-	private String cardBack;
-
-	/**
-	 * The card front.
-	 */
-	private String cardImageString;
-
-	/**
-	 * The highlighted card front.
-	 */
-	private String cardHighlighted;
-
-	/**
-	 * Takes either card back or front.
+	 * Buffer.
 	 */
-	private BufferedImage image = null;
+	Card card = null;
 
 	/**
-	 * Buffer.
+	 * Card states of the board on which the card is shown.
 	 */
-	Card card = null;
+	private CardStates states = new CardStates();
 
 	/**
 	 * It is used instead of constructor. Implement lazy initialization.
@@ -118,9 +101,7 @@ class CardComponent extends JComponent {
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
 
-		updateImage();
-
-		g.drawImage(image, 0, 0, null);
+		CardAtlas.draw(g, states, card, 0, 0);
 	}
 
 	/**
@@ -139,59 +120,14 @@ class CardComponent extends JComponent {
 	 * @author Todor Balabanov
 	 */
 	private CardComponent(Card card) {
-		if (SolitaireBoardFrame.deckNumber >= 1
-				&& SolitaireBoardFrame.deckNumber <= ChangeAppearance.NUM_DECKS) {
-			cardBack = SolitaireBoardFrame.IMAGES_PATH + "/cardbacks/cardback"
-					+ SolitaireBoardFrame.deckNumber + ".png";
-		} else {
-			cardBack = SolitaireBoardFrame.IMAGES_PATH
-					+ "/cardbacks/cardback3.png";
-		}
-
 		this.card = card;
 
-		initializeCardImageString();
-
-		setFaceUp();
+		states.setFaceUp(card);
 
 		setBounds(0, 0, 72, 96);
 		cardsMapping.put(card, this);
 	}
 
-	/**
-	 * Update image pointer according internal card state.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void updateImage() {
-		if (card.isFaceUp()) {
-			if (card.isHighlighted()) {
-				try {
-					// TODO Load images only once.
-					image = ImageIO.read(this.getClass().getResource(
-							cardHighlighted));
-				} catch (NullPointerException e) {
-				} catch (IOException e) {
-				}
-			} else if (card.isUnhighlighted()) {
-				try {
-					// TODO Load images only once.
-					image = ImageIO.read(this.getClass().getResource(
-							cardImageString));
-				} catch (NullPointerException e) {
-				} catch (IOException e) {
-				}
-			}
-		} else if (card.isFaceDown()) {
-			try {
-				// TODO Load images only once.
-				image = ImageIO.read(this.getClass().getResource(cardBack));
-			} catch (NullPointerException e) {
-			} catch (IOException e) {
-			}
-		}
-	}
-
 	/**
 	 * Returns the card's buffered image (either back or front).
 	 * 
@@ -200,44 +136,19 @@ class CardComponent extends JComponent {
 	 * @author Todor Balabanov
 	 */
 	public BufferedImage getImage() {
-		return image;
-	}
-
-	/**
-	 * Sets the card's highlighted front image.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void highlight() {
-		card.highlight();
+		return CardAtlas.get(states, card);
 	}
 
 	/**
-	 * Unhighlights a highlighted card. Sets back its unhighlighted face image.
+	 * Sets the card states of the board on which the card is shown.
 	 * 
-	 * @author Todor Balabanov
-	 */
-	public void unhighlight() {
-		card.unhighlight();
-		setFaceUp();
-	}
-
-	/**
-	 * Sets the card face-up and sets its face image.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	public void setFaceUp() {
-		card.setFaceUp();
-	}
-
-	/**
-	 * Sets the card face-down and sets its back image.
+	 * @param states
+	 *            Card states of the board.
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public void setFaceDown() {
-		card.setFaceDown();
+	void setStates(CardStates states) {
+		this.states = states;
 	}
 
 	/**
@@ -251,80 +162,6 @@ class CardComponent extends JComponent {
 		return (card);
 	}
 
-	/**
-	 * Sets the card's face image and highlighted face image based on its suit
-	 * and rank.
-	 * 
-	 * @author Todor Balabanov
-	 */
-	private void initializeCardImageString() {
-		cardImageString = SolitaireBoardFrame.IMAGES_PATH + "/cardfaces/";
-		cardHighlighted = SolitaireBoardFrame.IMAGES_PATH
-				+ "/highlightedfaces/";
-
-		if (card.getSuit().equals(CardSuit.SPADES)) {
-			cardImageString += "s";
-			cardHighlighted += "s";
-			card.setColor(CardColor.BLACK);
-		} else if (card.getSuit().equals(CardSuit.CLUBS)) {
-			cardImageString += "c";
-			cardHighlighted += "c";
-			card.setColor(CardColor.BLACK);
-		} else if (card.getSuit().equals(CardSuit.DIAMONDS)) {
-			cardImageString += "d";
-			cardHighlighted += "d";
-			card.setColor(CardColor.RED);
-		} else if (card.getSuit().equals(CardSuit.HEARTS)) {
-			cardImageString += "h";
-			cardHighlighted += "h";
-			card.setColor(CardColor.RED);
-		}
-
-		if (card.getRank().equals(CardRank.ACE)) {
-			cardImageString += "Ace";
-			cardHighlighted += "Ace";
-		} else if (card.getRank().equals(CardRank.TWO)) {
-			cardImageString += "Two";
-			cardHighlighted += "Two";
-		} else if (card.getRank().equals(CardRank.THREE)) {
-			cardImageString += "Three";
-			cardHighlighted += "Three";
-		} else if (card.getRank().equals(CardRank.FOUR)) {
-			cardImageString += "Four";
-			cardHighlighted += "Four";
-		} else if (card.getRank().equals(CardRank.FIVE)) {
-			cardImageString += "Five";
-			cardHighlighted += "Five";
-		} else if (card.getRank().equals(CardRank.SIX)) {
-			cardImageString += "Six";
-			cardHighlighted += "Six";
-		} else if (card.getRank().equals(CardRank.SEVEN)) {
-			cardImageString += "Seven";
-			cardHighlighted += "Seven";
-		} else if (card.getRank().equals(CardRank.EIGHT)) {
-			cardImageString += "Eight";
-			cardHighlighted += "Eight";
-		} else if (card.getRank().equals(CardRank.NINE)) {
-			cardImageString += "Nine";
-			cardHighlighted += "Nine";
-		} else if (card.getRank().equals(CardRank.TEN)) {
-			cardImageString += "Ten";
-			cardHighlighted += "Ten";
-		} else if (card.getRank().equals(CardRank.JACK)) {
-			cardImageString += "Jack";
-			cardHighlighted += "Jack";
-		} else if (card.getRank().equals(CardRank.QUEEN)) {
-			cardImageString += "Queen";
-			cardHighlighted += "Queen";
-		} else if (card.getRank().equals(CardRank.KING)) {
-			cardImageString += "King";
-			cardHighlighted += "King";
-		}
-
-		cardImageString += ".png";
-		cardHighlighted += "H.png";
-	}
-
 	/**
 	 * Clone a card, that includes the card's suit, number and full number.
 	 * 
@@ -0,0 +1,104 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: CardPositions
+ * 
+ * Description: Per board index of the stack holding each card. It is kept up
+ * to date by the stacks on every push and pop, so the stack of a card and its
+ * index within the stack are found in constant time.
+ * 
+ * @author Todor Balabanov
+ */
+class CardPositions {
+
+	/**
+	 * Stack holding each card by card number.
+	 */
+	private final CardStack stacks[] = new CardStack[HeadlessBoard.DECK_SIZE + 1];
+
+	/**
+	 * Records that a card is placed in a stack.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @param stack
+	 *            Stack.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void place(Card card, CardStack stack) {
+		stacks[card.getFullNumber()] = stack;
+	}
+
+	/**
+	 * Records that a card is removed from a stack. If the card is already
+	 * placed in another stack nothing is changed.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @param stack
+	 *            Stack.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void remove(Card card, CardStack stack) {
+		if (stacks[card.getFullNumber()] == stack) {
+			stacks[card.getFullNumber()] = null;
+		}
+	}
+
+	/**
+	 * Returns the stack holding a card.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Stack or null if the card is not on the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	CardStack stackOf(Card card) {
+		return stacks[card.getFullNumber()];
+	}
+
+	/**
+	 * Returns the index of a card within its stack.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Index from the bottom of the stack or -1 if the card is not on
+	 *         the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int indexOf(Card card) {
+		CardStack stack = stacks[card.getFullNumber()];
+
+		if (stack == null) {
+			return -1;
+		}
+
+		return stack.getCards().indexOf(card);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: CardRules
+ * 
+ * Description: Precomputed tables of the card placing rules. Each row is a 52
+ * bit set indexed by card full number, so each rule check is a single bit
+ * test instead of comparisons of colors and ranks.
+ * 
+ * @author Todor Balabanov
+ */
+class CardRules {
+
+	/**
+	 * Cards which can be placed on top of a card in a column. Row zero is for
+	 * an empty column.
+	 */
+	private static final long ON_COLUMN[] = new long[HeadlessBoard.DECK_SIZE + 1];
+
+	/**
+	 * Card which follows a card on its ace pile. Row zero is for an empty ace
+	 * pile.
+	 */
+	private static final long ON_ACE_PILE[] = new long[HeadlessBoard.DECK_SIZE + 1];
+
+	/**
+	 * Initialize static data.
+	 */
+	static {
+		for (int top = 0; top <= HeadlessBoard.DECK_SIZE; top++) {
+			for (int card = 1; card <= HeadlessBoard.DECK_SIZE; card++) {
+				int rank = HeadlessBoard.rank(card);
+
+				if (top == 0) {
+					if (rank == HeadlessBoard.SUIT_SIZE) {
+						ON_COLUMN[top] |= bit(card);
+					}
+					if (rank == 1) {
+						ON_ACE_PILE[top] |= bit(card);
+					}
+					continue;
+				}
+
+				if (HeadlessBoard.color(card) != HeadlessBoard.color(top)
+						&& rank + 1 == HeadlessBoard.rank(top)) {
+					ON_COLUMN[top] |= bit(card);
+				}
+
+				if (HeadlessBoard.suit(card) == HeadlessBoard.suit(top)
+						&& rank == HeadlessBoard.rank(top) + 1) {
+					ON_ACE_PILE[top] |= bit(card);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private CardRules() {
+	}
+
+	/**
+	 * Bit of a card in the table rows.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @return Single bit mask.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static long bit(int card) {
+		return 1L << (card - 1);
+	}
+
+	/**
+	 * Checks if a card can be placed on top of other card in a column.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @param top
+	 *            Top card full number or zero for an empty column.
+	 * 
+	 * @return True if the card can be placed, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean isValidOnColumn(int card, int top) {
+		return (ON_COLUMN[top] & bit(card)) != 0;
+	}
+
+	/**
+	 * Checks if a card can be placed on top of other card in a column.
+	 * 
+	 * @param card
+	 *            Card to be placed.
+	 * 
+	 * @param top
+	 *            Top card or null for an empty column.
+	 * 
+	 * @return True if the card can be placed, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean isValidOnColumn(Card card, Card top) {
+		return isValidOnColumn(card.getFullNumber(),
+				(top == null) ? 0 : top.getFullNumber());
+	}
+
+	/**
+	 * Checks if a card follows other card on an ace pile.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @param top
+	 *            Top card full number or zero for an empty ace pile.
+	 * 
+	 * @return True if the card can be placed, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean isValidOnAcePile(int card, int top) {
+		return (ON_ACE_PILE[top] & bit(card)) != 0;
+	}
+
+	/**
+	 * Checks if a card follows other card on an ace pile.
+	 * 
+	 * @param card
+	 *            Card to be placed.
+	 * 
+	 * @param top
+	 *            Top card or null for an empty ace pile.
+	 * 
+	 * @return True if the card can be placed, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean isValidOnAcePile(Card card, Card top) {
+		return isValidOnAcePile(card.getFullNumber(),
+				(top == null) ? 0 : top.getFullNumber());
+	}
+}
@@ -25,6 +25,9 @@ import java.util.Vector;
  * Class: CardStack
  * 
  * Description: The Cardstack class manages a location for cards to be placed.
+ * Stacks are not synchronized. A stack belongs to a single board and it should
+ * be used only by the thread which plays on that board. The Swing panes keep
+ * their own monitors around the stacks they show.
  * 
  * @author Matt Stephen
  */
@@ -32,6 +35,163 @@ import java.util.Vector;
 abstract class CardStack {
 	// TODO Parent class methods should not have source code!
 
+	/**
+	 * Pile index as in HeadlessBoard or -1 if the stack is not part of the
+	 * board.
+	 */
+	private int pile = -1;
+
+	/**
+	 * Zobrist hash of the cards in the stack.
+	 */
+	private long hash = 0;
+
+	/**
+	 * Face and highlighting state of the cards. The stacks of a board share
+	 * the board's state, temporary stacks have their own.
+	 */
+	protected CardStates states = new CardStates();
+
+	/**
+	 * Returns the state of the cards seen from the stack.
+	 * 
+	 * @return Card states.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	CardStates getStates() {
+		return states;
+	}
+
+	/**
+	 * Sets the state of the cards seen from the stack. It is called when the
+	 * stack is attached to a board.
+	 * 
+	 * @param states
+	 *            Card states of the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setStates(CardStates states) {
+		this.states = states;
+	}
+
+	/**
+	 * Sets the pile index of the stack on the board. It is used for the
+	 * position hashing.
+	 * 
+	 * @param pile
+	 *            Pile index as in HeadlessBoard.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setPile(int pile) {
+		this.pile = pile;
+
+		hash = 0;
+		for (int i = 0; i < length(); i++) {
+			updateHash(getCardAtLocation(i), i);
+		}
+	}
+
+	/**
+	 * Returns the pile index of the stack on the board.
+	 * 
+	 * @return Pile index as in HeadlessBoard or -1 if the stack is not part of
+	 *         the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getPile() {
+		return pile;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the cards in the stack.
+	 * 
+	 * @return Hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Attaches the stack to the position index of a board, so the board
+	 * finds the cards of the stack in constant time.
+	 * 
+	 * @param positions
+	 *            Position index of the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setPositions(CardPositions positions) {
+		getCards().setPositions(positions, this);
+	}
+
+	/**
+	 * Returns the cards in the stack. This method is overridden by the child
+	 * classes.
+	 * 
+	 * @return Null.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public CardArray getCards() {
+		return null;
+	}
+
+	/**
+	 * Returns a hash of what is seen from the stack, the cards with their face
+	 * and highlighting state. The state is shared between the stacks of the
+	 * board, so it is not tracked on change, but it is collected when the
+	 * stack is checked for repainting.
+	 * 
+	 * @return View hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getViewHash() {
+		long result = length();
+
+		for (int i = 0; i < length(); i++) {
+			Card card = getCardAtLocation(i);
+
+			long state = card.getFullNumber() << 2;
+			if (states.isFaceDown(card) == true) {
+				state |= 1;
+			}
+			if (states.isHighlighted(card) == true) {
+				state |= 2;
+			}
+
+			result = Zobrist.mix(result ^ state);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds or removes a card from the stack hash. It should be called each
+	 * time when a card is added or removed.
+	 * 
+	 * @param card
+	 *            Card added or removed.
+	 * 
+	 * @param index
+	 *            Location of the card within the stack.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	protected void updateHash(Card card, int index) {
+		if (pile < 0 || card == null) {
+			return;
+		}
+
+		hash ^= Zobrist.card(pile, index, card.getFullNumber());
+	}
+
 	/**
 	 * For starting the game.
 	 * 
@@ -116,7 +276,7 @@ abstract class CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		return null;
 	}
 
@@ -151,7 +311,7 @@ abstract class CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		return null;
 	}
 
@@ -187,7 +347,7 @@ abstract class CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		return 0;
 	}
 
@@ -0,0 +1,216 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: CardStates
+ * 
+ * Description: Per board state of the cards. The cards are shared flyweights
+ * and only their identity is kept in the Card objects. Face and highlighting
+ * are kept here as bit sets, one bit for each of the 52 cards, so every board
+ * has its own independent view of the same cards.
+ * 
+ * @author Todor Balabanov
+ */
+class CardStates {
+
+	/**
+	 * Face-up cards.
+	 */
+	private long faceUp = 0L;
+
+	/**
+	 * Highlighted cards.
+	 */
+	private long highlighted = 0L;
+
+	/**
+	 * Cards returned from the discard pile back to the deal deck.
+	 */
+	private long fromDeck = 0L;
+
+	/**
+	 * Bit of a card in the sets.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Single bit mask.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long bit(Card card) {
+		return 1L << (card.getFullNumber() - 1);
+	}
+
+	/**
+	 * Sets the card face-up.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setFaceUp(Card card) {
+		faceUp |= bit(card);
+	}
+
+	/**
+	 * Sets the card face-down.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setFaceDown(Card card) {
+		faceUp &= ~bit(card);
+	}
+
+	/**
+	 * Checks if the card is facing up.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True if the card is face-up, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isFaceUp(Card card) {
+		return (faceUp & bit(card)) != 0;
+	}
+
+	/**
+	 * Checks if the card is facing down.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True if the card is face-down, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isFaceDown(Card card) {
+		return (faceUp & bit(card)) == 0;
+	}
+
+	/**
+	 * Highlights the card. Only face-up cards can be highlighted.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void highlight(Card card) {
+		highlighted |= faceUp & bit(card);
+	}
+
+	/**
+	 * Unhighlights the card. Only face-up cards can be unhighlighted.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void unhighlight(Card card) {
+		highlighted &= ~(faceUp & bit(card));
+	}
+
+	/**
+	 * Checks if the card is highlighted.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True if the card is highlighted, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isHighlighted(Card card) {
+		return (highlighted & bit(card)) != 0;
+	}
+
+	/**
+	 * Marks the card as moved from the discard pile back to the deal deck.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @param value
+	 *            True if the card came from the deck, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setFromDeck(Card card, boolean value) {
+		if (value == true) {
+			fromDeck |= bit(card);
+		} else {
+			fromDeck &= ~bit(card);
+		}
+	}
+
+	/**
+	 * Checks if the card was moved from the discard pile back to the deal
+	 * deck.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return True if the card came from the deck, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isFromDeck(Card card) {
+		return (fromDeck & bit(card)) != 0;
+	}
+
+	/**
+	 * Unhighlights all cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void unhighlightAll() {
+		highlighted = 0L;
+	}
+
+	/**
+	 * Returns the face-up cards as a bit set.
+	 * 
+	 * @return Bit i is set when the card with full number i + 1 is face-up.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getFaceUpMask() {
+		return faceUp;
+	}
+
+	/**
+	 * Returns the highlighted cards as a bit set.
+	 * 
+	 * @return Bit i is set when the card with full number i + 1 is highlighted.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getHighlightedMask() {
+		return highlighted;
+	}
+}
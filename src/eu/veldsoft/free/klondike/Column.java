@@ -33,7 +33,7 @@ class Column extends CardStack {
 	/**
 	 * Stack of cards.
 	 */
-	private Vector<Card> cards = new Vector<Card>();
+	private final CardArray cards = new CardArray();
 
 	/**
 	 * Returns the pile's suit.
@@ -42,7 +42,7 @@ class Column extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public Vector<Card> getCards() {
+	public CardArray getCards() {
 		return cards;
 	}
 
@@ -57,8 +57,9 @@ class Column extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void addCard(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		cards.add(card);
+		updateHash(card, cards.size() - 1);
 	}
 
 	/**
@@ -68,8 +69,9 @@ class Column extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		Card card = peek();
+		updateHash(card, cards.size() - 1);
 		cards.remove(cards.size() - 1);
 
 		return card;
@@ -82,7 +84,7 @@ class Column extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		if (cards.isEmpty()) {
 			return null;
 		}
@@ -122,7 +124,7 @@ class Column extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		int i = cards.lastIndexOf(card);
 
 		if (i >= 0) {
@@ -170,9 +172,7 @@ class Column extends CardStack {
 			/*
 			 * Cards are not opposite colors or decreasing in value correctly.
 			 */
-			if (cards.get(i).getColor() == cards.get(i + 1).getColor()
-					|| cards.get(i).getRank()
-							.isLessByOneThan(cards.get(i + 1).getRank()) == false) {
+			if (CardRules.isValidOnColumn(cards.get(i + 1), cards.get(i)) == false) {
 				return false;
 			}
 		}
@@ -194,11 +194,12 @@ class Column extends CardStack {
 	 */
 	public CardStack getStack(Card card) {
 		CardStack temp = new Column();
+		temp.setStates(states);
 		int index = search(card);
 
 		for (int i = 0; i < index; i++) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -218,11 +219,12 @@ class Column extends CardStack {
 	 */
 	public CardStack getStack(int numCards) {
 		CardStack temp = new Column();
+		temp.setStates(states);
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -240,7 +242,7 @@ class Column extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public Card push(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		if (isValidMove(card) == true) {
 			super.push(card);
 			return card;
@@ -262,16 +264,11 @@ class Column extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public boolean isValidMove(Card card) {
-		if (isEmpty() == true && card.getRank().equals(CardRank.KING)) {
-			return true;
-		}
-
-		if (isEmpty() == false && card.getColor() != peek().getColor()
-				&& card.getRank().isGreaterByOneThan(peek().getRank())) {
-			return true;
+		if (isEmpty() == true) {
+			return CardRules.isValidOnColumn(card, null);
 		}
 
-		return false;
+		return CardRules.isValidOnColumn(card, peek());
 	}
 
 	/**
@@ -322,13 +319,13 @@ class Column extends CardStack {
 		}
 
 		CardStack stack = new Column();
+		stack.setStates(states);
 		stack.addCard(cards.get(length() - 1));
 
 		for (int index = length() - 2; index >= 0; index--) {
 			Card card = cards.get(index);
 
-			if (card.getColor() != stack.peek().getColor()
-					&& card.getRank().isLessByOneThan(stack.peek().getRank())) {
+			if (CardRules.isValidOnColumn(stack.peek(), card) == true) {
 				stack.addCard(card);
 			} else {
 				break;
@@ -364,7 +361,7 @@ class Column extends CardStack {
 		}
 
 		for (int i = index; i < cards.size(); i++) {
-			cards.elementAt(i).highlight();
+			states.highlight(cards.elementAt(i));
 		}
 	}
 }
@@ -36,6 +36,11 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Vertical distance between two cards in the column.
+	 */
+	static final int CARD_OFFSET = 25;
+
 	/**
 	 * 
 	 */
@@ -84,10 +89,10 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 
 		int index;
 		int y = (int) p.getY();
-		if (y > 25 * (column.getCards().size() - 1)) {
+		if (y > CARD_OFFSET * (column.getCards().size() - 1)) {
 			index = column.getCards().size() - 1;
 		} else {
-			index = y / 25;
+			index = y / CARD_OFFSET;
 		}
 
 		if (column.isValidCard(index) == true) {
@@ -133,7 +138,7 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 			return (true);
 		}
 
-		if (y > 25
+		if (y > CARD_OFFSET
 				* (column.getCards().size() - 1)
 				+ CardComponent.cardsMapping
 						.get(column.getCards().lastElement()).getBounds()
@@ -177,6 +182,7 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	public void addCard(Card card) {
 		column.addCard(card);
 		CardComponent.cardsMapping.get(card).setBounds(0, 0, 72, 96);
+		CardComponent.cardsMapping.get(card).setStates(column.getStates());
 		add(CardComponent.cardsMapping.get(card), 0);
 	}
 
@@ -226,7 +232,8 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 
 		for (int i = 0; i < index; i++) {
 			temp.add(getCardAtLocation(column.getCards().size() - i - 1));
-			getCardAtLocation(column.getCards().size() - i - 1).highlight();
+			column.getStates().highlight(
+					getCardAtLocation(column.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -246,12 +253,14 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack getStack(int numCards) {
 		Column temp = new Column();
+		temp.setStates(column.getStates());
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(column.getCards().size() - i - 1)
 					.clone());
-			getCardAtLocation(column.getCards().size() - i - 1).highlight();
+			column.getStates().highlight(
+					getCardAtLocation(column.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -300,6 +309,7 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 		 * Temporary reverse pop of entire stack transfer.
 		 */
 		Column temp = new Column();
+		temp.setStates(column.getStates());
 
 		while (!stack.isEmpty()) {
 			Card card = stack.pop();
@@ -382,6 +392,7 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack undoStack(int numCards) {
 		Column temp = new Column();
+		temp.setStates(column.getStates());
 
 		for (int i = 0; i < numCards; i++) {
 			temp.push(pop());
@@ -470,10 +481,8 @@ class ColumnLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 		}
 
 		for (int i = 0; i < column.getCards().size(); i++) {
-			CardComponent.cardsMapping.get(column.getCards().get(i))
-					.updateImage();
-			g.drawImage(CardComponent.cardsMapping
-					.get(column.getCards().get(i)).getImage(), 0, i * 25, null);
+			CardAtlas.draw(g, column.getStates(), column.getCards().get(i),
+					0, i * CARD_OFFSET);
 		}
 	}
 }
\ No newline at end of file
@@ -20,7 +20,6 @@
 package eu.veldsoft.free.klondike;
 
 import java.util.List;
-import java.util.Vector;
 
 /**
  * Class: DealDeck
@@ -35,7 +34,7 @@ class DealDeck extends CardStack {
 	/**
 	 * Stack of cards.
 	 */
-	private Vector<Card> cards = new Vector<Card>();
+	private final CardArray cards = new CardArray();
 
 	/**
 	 * Discard pile reference.
@@ -53,6 +52,11 @@ class DealDeck extends CardStack {
 	 */
 	int deckThroughLimit;
 
+	/**
+	 * Number of cards drawn at once (1 or 3).
+	 */
+	private int drawCount = 1;
+
 	/**
 	 * True by default. Keeps track if the deck is redealable.
 	 */
@@ -69,12 +73,7 @@ class DealDeck extends CardStack {
 	 */
 	public DealDeck(DiscardPile discard) {
 		discardPile = discard;
-
-		if (SolitaireBoard.drawCount == 3) {
-			deckThroughLimit = ThroughLimit.EASY.getThroughs() + 1;
-		} else {
-			deckThroughLimit = ThroughLimit.EASY.getThroughs();
-		}
+		deckThroughLimit = ThroughLimit.EASY.getThroughs();
 	}
 
 	/**
@@ -84,7 +83,7 @@ class DealDeck extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public Vector<Card> getCards() {
+	public CardArray getCards() {
 		return cards;
 	}
 
@@ -131,6 +130,18 @@ class DealDeck extends CardStack {
 		numTimesThroughDeck = throughs;
 	}
 
+	/**
+	 * Returns the Zobrist hash of the cards in the deck and the number of
+	 * times we've gone through the deck.
+	 * 
+	 * @return Hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getHash() {
+		return super.getHash() ^ Zobrist.throughs(numTimesThroughDeck);
+	}
+
 	/**
 	 * Used to set the deal pile. Accepts a list of shuffled cards.
 	 * 
@@ -141,13 +152,25 @@ class DealDeck extends CardStack {
 	 */
 	public void setDeck(List<Card> cards) {
 		for (Card card : cards) {
-			card.setFaceDown();
+			states.setFaceDown(card);
 			addCard(card);
 		}
 	}
 
 	/**
-	 * Used to set the deck through limit based on the draw count.
+	 * Returns the number of cards drawn at once.
+	 * 
+	 * @return Draw count (1 or 3).
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int getDrawCount() {
+		return drawCount;
+	}
+
+	/**
+	 * Sets the draw count of the deck and the discard pile and the deck
+	 * through limit based on it.
 	 * 
 	 * @param draw
 	 *            Integer, based on which the deck through limit is set.
@@ -155,7 +178,10 @@ class DealDeck extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void setDrawCount(int draw) {
-		if (SolitaireBoard.drawCount == 3) {
+		drawCount = (draw == 3) ? 3 : 1;
+		discardPile.setDrawCount(drawCount);
+
+		if (drawCount == 3) {
 			deckThroughLimit = ThroughLimit.MEDIUM.getThroughs() + 1;
 		} else {
 			deckThroughLimit = ThroughLimit.MEDIUM.getThroughs();
@@ -184,7 +210,7 @@ class DealDeck extends CardStack {
 		 * Draw three has an extra deck through on top of the single card
 		 * setting.
 		 */
-		if (SolitaireBoard.drawCount == 3) {
+		if (drawCount == 3) {
 			deckThroughLimit++;
 		}
 	}
@@ -212,8 +238,9 @@ class DealDeck extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void addCard(Card card) {
-		card.setFaceDown();
+		states.setFaceDown(card);
 		cards.add(card);
+		updateHash(card, cards.size() - 1);
 	}
 
 	/**
@@ -224,30 +251,33 @@ class DealDeck extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		if (isEmpty() == false) {
 			/*
 			 * Verify there are still cards remaining.
 			 */
-			if (SolitaireBoard.drawCount == 1) {
+			if (drawCount == 1) {
 				Card card = peek();
+				updateHash(card, cards.size() - 1);
 				cards.remove(cards.size() - 1);
 
-				card.setFaceUp();
+				states.setFaceUp(card);
 				discardPile.push(card);
 
 				return card;
 			} else {
-				int tempDrawCount = SolitaireBoard.drawCount;
-				CardStack tempStack = new DealDeck(discardPile);
+				int tempDrawCount = drawCount;
+				CardStack tempStack = new Column();
+				tempStack.setStates(states);
 
-				while (SolitaireBoard.drawCount > 1 && tempDrawCount > 0
+				while (drawCount > 1 && tempDrawCount > 0
 						&& isEmpty() == false) {
 					Card card = peek();
+					updateHash(card, cards.size() - 1);
 					cards.remove(cards.size() - 1);
 
-					card.setFaceUp();
-					tempStack.push(card);
+					states.setFaceUp(card);
+					tempStack.addCard(card);
 
 					tempDrawCount--;
 				}
@@ -256,10 +286,11 @@ class DealDeck extends CardStack {
 				 * To put the cards back in order because the previous step
 				 * reversed them.
 				 */
-				CardStack tempStack2 = new DealDeck(discardPile);
+				CardStack tempStack2 = new Column();
+				tempStack2.setStates(states);
 
 				for (int i = tempStack.length(); i > 0; i--) {
-					tempStack2.push(tempStack.pop());
+					tempStack2.addCard(tempStack.pop());
 				}
 
 				discardPile.push(tempStack2);
@@ -270,8 +301,8 @@ class DealDeck extends CardStack {
 				&& numTimesThroughDeck < deckThroughLimit) {
 			for (int i = discardPile.length(); i > 0; i--) {
 				Card card = discardPile.pop();
-				card.setFaceDown();
-				card.setSource("Deck");
+				states.setFaceDown(card);
+				states.setFromDeck(card, true);
 				push(card);
 			}
 
@@ -290,7 +321,7 @@ class DealDeck extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		if (cards.isEmpty()) {
 			return null;
 		}
@@ -330,7 +361,7 @@ class DealDeck extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		int i = cards.lastIndexOf(card);
 
 		if (i >= 0) {
@@ -378,9 +409,7 @@ class DealDeck extends CardStack {
 			/*
 			 * Cards are not opposite colors or decreasing in value correctly.
 			 */
-			if (cards.get(i).getColor() == cards.get(i + 1).getColor()
-					|| cards.get(i).getRank()
-							.isLessByOneThan(cards.get(i + 1).getRank()) == false) {
+			if (CardRules.isValidOnColumn(cards.get(i + 1), cards.get(i)) == false) {
 				return false;
 			}
 		}
@@ -402,11 +431,12 @@ class DealDeck extends CardStack {
 	 */
 	public CardStack getStack(Card card) {
 		CardStack temp = new DealDeck(discardPile);
+		temp.setStates(states);
 		int index = search(card);
 
 		for (int i = 0; i < index; i++) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -426,11 +456,12 @@ class DealDeck extends CardStack {
 	 */
 	public CardStack getStack(int numCards) {
 		CardStack temp = new DealDeck(discardPile);
+		temp.setStates(states);
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -441,10 +472,13 @@ class DealDeck extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized void undoPop() {
+	public void undoPop() {
 		while (isEmpty() == false) {
-			Card card = super.pop();
-			card.setFaceUp();
+			Card card = peek();
+			updateHash(card, cards.size() - 1);
+			cards.remove(cards.size() - 1);
+
+			states.setFaceUp(card);
 			discardPile.push(card);
 		}
 
@@ -495,7 +529,7 @@ class DealDeck extends CardStack {
 	 */
 	public void allFaceDown() {
 		for (Card card : cards) {
-			card.setFaceDown();
+			states.setFaceDown(card);
 		}
 	}
 
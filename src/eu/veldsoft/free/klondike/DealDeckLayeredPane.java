@@ -195,6 +195,7 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	public void addCard(Card card) {
 		dealDeck.addCard(card);
 		CardComponent.cardsMapping.get(card).setBounds(0, 0, 72, 96);
+		CardComponent.cardsMapping.get(card).setStates(dealDeck.getStates());
 		add(CardComponent.cardsMapping.get(card), 0);
 	}
 
@@ -244,7 +245,8 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 
 		for (int i = 0; i < index; i++) {
 			temp.add(getCardAtLocation(dealDeck.getCards().size() - i - 1));
-			getCardAtLocation(dealDeck.getCards().size() - i - 1).highlight();
+			dealDeck.getStates().highlight(
+					getCardAtLocation(dealDeck.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -264,12 +266,14 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack getStack(int numCards) {
 		DealDeck temp = new DealDeck(discard.getDiscardPile());
+		temp.setStates(dealDeck.getStates());
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(dealDeck.getCards().size() - i - 1)
 					.clone());
-			getCardAtLocation(dealDeck.getCards().size() - i - 1).highlight();
+			dealDeck.getStates().highlight(
+					getCardAtLocation(dealDeck.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -329,6 +333,7 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 		 * Temporary reverse pop of entire stack transfer.
 		 */
 		DealDeck temp = new DealDeck(discard.getDiscardPile());
+		temp.setStates(dealDeck.getStates());
 
 		while (!stack.isEmpty()) {
 			Card card = stack.pop();
@@ -425,6 +430,7 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 	 */
 	public CardStack undoStack(int numCards) {
 		DealDeck temp = new DealDeck(discard.getDiscardPile());
+		temp.setStates(dealDeck.getStates());
 
 		for (int i = 0; i < numCards; i++) {
 			temp.push(pop());
@@ -508,14 +514,9 @@ class DealDeckLayeredPane extends JLayeredPane implements CardStackLayeredPane {
 			return;
 		}
 
-		dealDeck.getCardAtLocation(dealDeck.length() - 1).setFaceDown();
-		CardComponent.cardsMapping.get(
-				dealDeck.getCardAtLocation(dealDeck.length() - 1))
-				.updateImage();
-
-		g.drawImage(
-				CardComponent.cardsMapping.get(
-						dealDeck.getCardAtLocation(dealDeck.length() - 1))
-						.getImage(), 0, 0, null);
+		dealDeck.getStates().setFaceDown(
+				dealDeck.getCardAtLocation(dealDeck.length() - 1));
+		CardAtlas.draw(g, dealDeck.getStates(),
+				dealDeck.getCardAtLocation(dealDeck.length() - 1), 0, 0);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,324 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Class: DealGenerator
+ * 
+ * Description: The DealGenerator class writes a range of numbered deals in a
+ * binary file. Each deal is a fixed-width record of 52 bytes, the card numbers
+ * (1-52) in the order given by Deck.shuffle(long, int[]), so the record of
+ * deal number first + i is at offset i * 52. The range is split in blocks
+ * which are shuffled by worker threads in their own buffers and written with
+ * positional channel writes, so no locking is needed.
+ * 
+ * @author Todor Balabanov
+ */
+class DealGenerator {
+
+	/**
+	 * Size of a single deal record in bytes.
+	 */
+	static final int RECORD_SIZE = HeadlessBoard.DECK_SIZE;
+
+	/**
+	 * Number of deals in a single block written at once.
+	 */
+	private static final int DEALS_PER_BLOCK = 1 << 16;
+
+	/**
+	 * Number of worker threads.
+	 */
+	private final int threads;
+
+	/**
+	 * Worker which generates every n-th block of deals.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static class Worker implements Callable<Void> {
+		/**
+		 * Output file channel.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * Deal number of the first record in the file.
+		 */
+		private final long firstDealNumber;
+
+		/**
+		 * Total number of deals.
+		 */
+		private final long count;
+
+		/**
+		 * Index of the first block for this worker.
+		 */
+		private final long firstBlock;
+
+		/**
+		 * Distance between the blocks of this worker.
+		 */
+		private final long step;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param channel
+		 *            Output file channel.
+		 * 
+		 * @param firstDealNumber
+		 *            Deal number of the first record in the file.
+		 * 
+		 * @param count
+		 *            Total number of deals.
+		 * 
+		 * @param firstBlock
+		 *            Index of the first block for this worker.
+		 * 
+		 * @param step
+		 *            Distance between the blocks of this worker.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		Worker(FileChannel channel, long firstDealNumber, long count,
+				long firstBlock, long step) {
+			this.channel = channel;
+			this.firstDealNumber = firstDealNumber;
+			this.count = count;
+			this.firstBlock = firstBlock;
+			this.step = step;
+		}
+
+		/**
+		 * Generates and writes the blocks.
+		 * 
+		 * @return Nothing.
+		 * 
+		 * @throws IOException
+		 *             If the file can not be written.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		public Void call() throws IOException {
+			int numbers[] = new int[HeadlessBoard.DECK_SIZE];
+			ByteBuffer buffer = ByteBuffer.allocateDirect(DEALS_PER_BLOCK
+					* RECORD_SIZE);
+
+			for (long block = firstBlock; block * DEALS_PER_BLOCK < count; block += step) {
+				long start = block * DEALS_PER_BLOCK;
+				long end = Math.min(start + DEALS_PER_BLOCK, count);
+
+				buffer.clear();
+				for (long i = start; i < end; i++) {
+					Deck.shuffle(firstDealNumber + i, numbers);
+					for (int j = 0; j < numbers.length; j++) {
+						buffer.put((byte) numbers[j]);
+					}
+				}
+				buffer.flip();
+
+				long position = start * RECORD_SIZE;
+				while (buffer.hasRemaining() == true) {
+					position += channel.write(buffer, position);
+				}
+
+				if (Thread.currentThread().isInterrupted() == true) {
+					throw new InterruptedIOException();
+				}
+			}
+
+			return null;
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param threads
+	 *            Number of worker threads.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	DealGenerator(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Constructor. One worker thread for each processor core.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	DealGenerator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Generates a range of deals in a file. The file is overwritten.
+	 * 
+	 * @param file
+	 *            Output file.
+	 * 
+	 * @param firstDealNumber
+	 *            Deal number of the first deal.
+	 * 
+	 * @param count
+	 *            Number of deals.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void generate(File file, long firstDealNumber, long count)
+			throws IOException {
+		if (count < 0) {
+			throw new IllegalArgumentException("Negative number of deals!");
+		}
+
+		RandomAccessFile output = new RandomAccessFile(file, "rw");
+		try {
+			output.setLength(count * RECORD_SIZE);
+			FileChannel channel = output.getChannel();
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads,
+					new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"DealGenerator");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+
+			try {
+				List<Future<Void>> futures = new ArrayList<Future<Void>>();
+				for (int i = 0; i < threads; i++) {
+					futures.add(executor.submit(new Worker(channel,
+							firstDealNumber, count, i, threads)));
+				}
+
+				for (Future<Void> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			} catch (ExecutionException ex) {
+				if (ex.getCause() instanceof IOException) {
+					throw (IOException) ex.getCause();
+				}
+				throw new IOException(ex.getCause().toString());
+			} finally {
+				executor.shutdownNow();
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Reads a single deal from a file created by the generator.
+	 * 
+	 * @param channel
+	 *            Input file channel.
+	 * 
+	 * @param index
+	 *            Index of the record in the file.
+	 * 
+	 * @param numbers
+	 *            Array of 52 elements to be filled with card numbers.
+	 * 
+	 * @param buffer
+	 *            Buffer of at least 52 bytes used for reading.
+	 * 
+	 * @throws IOException
+	 *             If the record can not be read.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void read(FileChannel channel, long index, int[] numbers,
+			ByteBuffer buffer) throws IOException {
+		buffer.clear();
+		buffer.limit(RECORD_SIZE);
+
+		long position = index * RECORD_SIZE;
+		while (buffer.hasRemaining() == true) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new EOFException("Deal " + index + " is not in the file!");
+			}
+			position += read;
+		}
+
+		buffer.flip();
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = buffer.get();
+		}
+	}
+
+	/**
+	 * Application single entry point method. Arguments are output file name,
+	 * number of deals, first deal number (zero by default) and number of
+	 * threads (number of processor cores by default).
+	 * 
+	 * @param args
+	 *            Command line arguments.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err
+					.println("Usage: DealGenerator file count [first] [threads]");
+			System.exit(1);
+		}
+
+		File file = new File(args[0]);
+		long count = Long.parseLong(args[1]);
+		long first = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+		DealGenerator generator = args.length > 3 ? new DealGenerator(
+				Integer.parseInt(args[3])) : new DealGenerator();
+
+		long start = System.currentTimeMillis();
+		generator.generate(file, first, count);
+		System.out.println(count + " deals written to " + file + " in "
+				+ (System.currentTimeMillis() - start) + " ms.");
+	}
+}
@@ -0,0 +1,502 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.veldsoft.free.klondike;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class: DealSolver
+ * 
+ * Description: The DealSolver class checks if a deal can be solved. It does
+ * depth-first search over HeadlessBoard positions and remembers the visited
+ * positions in a transposition table. The top of the search tree is split
+ * between worker threads, so a single hard deal can use all processor cores.
+ * 
+ * The platform is Java 6 compatible, so a fixed thread pool is used instead
+ * of a fork/join pool. The search tree is expanded breadth-first until there
+ * are enough sub-trees for all threads.
+ * 
+ * @author Todor Balabanov
+ */
+class DealSolver {
+
+	/**
+	 * Default number of positions to be checked before giving up.
+	 */
+	static final long DEFAULT_NODE_BUDGET = 5000000L;
+
+	/**
+	 * Maximum depth of the search tree.
+	 */
+	private static final int MAX_DEPTH = 1024;
+
+	/**
+	 * Sub-trees per thread, so busy threads can be helped by idle ones.
+	 */
+	private static final int TASKS_PER_THREAD = 8;
+
+	/**
+	 * Nodes counted locally before the shared counter is updated.
+	 */
+	private static final int NODES_BATCH = 1024;
+
+	/**
+	 * Maximum size of the transposition table. It is 8 MB, so it fits in a
+	 * small heap.
+	 */
+	private static final int MAX_TABLE_SIZE = 1 << 20;
+
+	/**
+	 * Search state shared by all workers of a single solve call.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static class Search {
+		/**
+		 * Visited positions.
+		 */
+		final TranspositionTable table;
+
+		/**
+		 * Number of visited positions.
+		 */
+		final AtomicLong nodes = new AtomicLong(0);
+
+		/**
+		 * Positions to be visited before giving up.
+		 */
+		final long budget;
+
+		/**
+		 * Set when any worker finds a solution or the budget is exhausted.
+		 */
+		volatile boolean stop = false;
+
+		/**
+		 * Set when some part of the tree was not checked.
+		 */
+		volatile boolean incomplete = false;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param budget
+		 *            Positions to be visited before giving up.
+		 * 
+		 * @param table
+		 *            Empty table for the visited positions.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		Search(long budget, TranspositionTable table) {
+			this.budget = budget;
+			this.table = table;
+		}
+	}
+
+	/**
+	 * Depth-first search of a single sub-tree.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static class Worker implements Callable<Boolean> {
+		/**
+		 * Shared search state.
+		 */
+		private final Search search;
+
+		/**
+		 * Board for each level of the tree. Allocated on first use.
+		 */
+		private final HeadlessBoard[] boards = new HeadlessBoard[MAX_DEPTH];
+
+		/**
+		 * Move buffer for each level of the tree. Allocated on first use.
+		 */
+		private final int[][] moves = new int[MAX_DEPTH][];
+
+		/**
+		 * Nodes visited since the last update of the shared counter.
+		 */
+		private int nodes = 0;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param search
+		 *            Shared search state.
+		 * 
+		 * @param root
+		 *            Root of the sub-tree.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		Worker(Search search, HeadlessBoard root) {
+			this.search = search;
+			boards[0] = root;
+		}
+
+		/**
+		 * Searches the sub-tree.
+		 * 
+		 * @return True if a solution was found.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		public Boolean call() {
+			boolean solved = search(0);
+			search.nodes.addAndGet(nodes);
+
+			if (solved == true) {
+				search.stop = true;
+			}
+
+			return Boolean.valueOf(solved);
+		}
+
+		/**
+		 * Recursive depth-first search.
+		 * 
+		 * @param depth
+		 *            Current level of the tree.
+		 * 
+		 * @return True if a solution was found.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		private boolean search(int depth) {
+			HeadlessBoard board = boards[depth];
+			if (board.isSolved() == true) {
+				return true;
+			}
+
+			if (++nodes == NODES_BATCH) {
+				if (search.nodes.addAndGet(nodes) > search.budget) {
+					search.incomplete = true;
+					search.stop = true;
+				}
+				nodes = 0;
+			}
+
+			if (search.stop == true) {
+				return false;
+			}
+
+			if (depth + 1 == MAX_DEPTH) {
+				search.incomplete = true;
+				return false;
+			}
+
+			if (moves[depth] == null) {
+				moves[depth] = new int[HeadlessBoard.MAX_MOVES];
+				boards[depth + 1] = new HeadlessBoard();
+			}
+
+			int[] buffer = moves[depth];
+			HeadlessBoard child = boards[depth + 1];
+			int count = board.generateMoves(buffer);
+
+			for (int i = 0; i < count; i++) {
+				child.copyFrom(board);
+				child.move(HeadlessBoard.moveSource(buffer[i]),
+						HeadlessBoard.moveDestination(buffer[i]),
+						HeadlessBoard.moveCards(buffer[i]));
+
+				if (search.table.add(child.hash()) == false) {
+					continue;
+				}
+
+				if (search(depth + 1) == true) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Number of worker threads.
+	 */
+	private final int threads;
+
+	/**
+	 * Positions to be checked before giving up.
+	 */
+	private final long nodeBudget;
+
+	/**
+	 * Worker threads.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Visited positions. The table is reused by all solve calls.
+	 */
+	private final TranspositionTable table;
+
+	/**
+	 * Number of positions checked during the last solve call.
+	 */
+	private long lastNodes = 0;
+
+	/**
+	 * Cache of the solver results or null.
+	 */
+	private SolverCache cache = null;
+
+	/**
+	 * Creates solver which uses all available processors.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public DealSolver() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_NODE_BUDGET);
+	}
+
+	/**
+	 * Creates solver.
+	 * 
+	 * @param threads
+	 *            Number of worker threads.
+	 * 
+	 * @param nodeBudget
+	 *            Positions to be checked before giving up.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public DealSolver(int threads, long nodeBudget) {
+		this.threads = Math.max(1, threads);
+		this.nodeBudget = nodeBudget;
+		this.table = new TranspositionTable((int) Math.max(1,
+				Math.min(nodeBudget * 2, MAX_TABLE_SIZE)));
+
+		if (this.threads > 1) {
+			executor = Executors.newFixedThreadPool(this.threads,
+					new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "DealSolver");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		} else {
+			executor = null;
+		}
+	}
+
+	/**
+	 * Checks if a deal can be solved.
+	 * 
+	 * @param numbers
+	 *            Card numbers of all piles in the format used by
+	 *            SolitaireBoard.dealOutCustomBoard().
+	 * 
+	 * @param drawCount
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Solvable, unsolvable or unknown if the node budget was not
+	 *         enough.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Solvability solve(List<Integer> numbers, int drawCount,
+			GameDifficulty difficulty) {
+		HeadlessBoard board = new HeadlessBoard();
+		board.setDrawCount(drawCount);
+		board.setDifficulty(difficulty);
+		board.deal(numbers, 0);
+
+		return solve(board);
+	}
+
+	/**
+	 * Checks if a position can be solved. The board is not changed. The cache
+	 * is checked first, if there is one.
+	 * 
+	 * @param board
+	 *            Position to be checked.
+	 * 
+	 * @return Solvable, unsolvable or unknown if the node budget was not
+	 *         enough.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized Solvability solve(HeadlessBoard board) {
+		if (cache == null) {
+			return check(board);
+		}
+
+		/*
+		 * An unknown result is reused only if it was not found with a bigger
+		 * node budget.
+		 */
+		long key = SolverCache.key(board);
+		SolverResult known = cache.get(key);
+		if (known != null
+				&& (known.getSolvability() != Solvability.UNKNOWN || known
+						.getNodes() >= nodeBudget)) {
+			lastNodes = 0;
+			return known.getSolvability();
+		}
+
+		Solvability result = check(board);
+		cache.put(key, new SolverResult(result, SolverResult.UNKNOWN_LENGTH,
+				lastNodes));
+
+		return result;
+	}
+
+	/**
+	 * Searches a position without the cache.
+	 * 
+	 * @param board
+	 *            Position to be checked.
+	 * 
+	 * @return Solvable, unsolvable or unknown if the node budget was not
+	 *         enough.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private Solvability check(HeadlessBoard board) {
+		table.clear();
+		Search search = new Search(nodeBudget, table);
+
+		HeadlessBoard root = new HeadlessBoard();
+		root.copyFrom(board);
+		search.table.add(root.hash());
+
+		List<HeadlessBoard> frontier = new ArrayList<HeadlessBoard>();
+		frontier.add(root);
+
+		/*
+		 * Split the top of the tree in enough sub-trees for all threads.
+		 */
+		int[] moves = new int[HeadlessBoard.MAX_MOVES];
+		while (executor != null && frontier.isEmpty() == false
+				&& frontier.size() < threads * TASKS_PER_THREAD) {
+			List<HeadlessBoard> next = new ArrayList<HeadlessBoard>();
+
+			for (HeadlessBoard parent : frontier) {
+				if (parent.isSolved() == true) {
+					lastNodes = search.nodes.get();
+					return Solvability.SOLVABLE;
+				}
+
+				int count = parent.generateMoves(moves);
+				for (int i = 0; i < count; i++) {
+					HeadlessBoard child = new HeadlessBoard();
+					child.copyFrom(parent);
+					child.move(HeadlessBoard.moveSource(moves[i]),
+							HeadlessBoard.moveDestination(moves[i]),
+							HeadlessBoard.moveCards(moves[i]));
+
+					if (search.table.add(child.hash()) == true) {
+						next.add(child);
+					}
+				}
+
+				search.nodes.incrementAndGet();
+			}
+
+			frontier = next;
+		}
+
+		boolean solved = false;
+		if (executor == null) {
+			solved = new Worker(search, root).call().booleanValue();
+		} else if (frontier.isEmpty() == false) {
+			CompletionService<Boolean> service = new ExecutorCompletionService<Boolean>(
+					executor);
+
+			for (HeadlessBoard position : frontier) {
+				service.submit(new Worker(search, position));
+			}
+
+			for (int i = 0; i < frontier.size(); i++) {
+				try {
+					if (service.take().get().booleanValue() == true) {
+						solved = true;
+						search.stop = true;
+					}
+				} catch (Exception ex) {
+					search.incomplete = true;
+					search.stop = true;
+				}
+			}
+		}
+
+		lastNodes = search.nodes.get();
+
+		if (solved == true) {
+			return Solvability.SOLVABLE;
+		} else if (search.incomplete == true) {
+			return Solvability.UNKNOWN;
+		}
+
+		return Solvability.UNSOLVABLE;
+	}
+
+	/**
+	 * Sets the cache which is checked before each search and which keeps the
+	 * search results.
+	 * 
+	 * @param cache
+	 *            Solver cache or null for no cache.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void setCache(SolverCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the number of positions checked during the last solve call.
+	 * 
+	 * @return Number of positions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized long getLastNodes() {
+		return lastNodes;
+	}
+
+	/**
+	 * Stops the worker threads.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -40,34 +40,37 @@ class Deck {
 	}
 
 	/**
-	 * Shuffles the integers in the array. Each integer represents a card. Thus
-	 * shuffling the cards. Then fills the deck with cards, equal to the
-	 * elements in the array.
+	 * Fills the array with the card numbers of a full deck and shuffles them
+	 * according to the deal number. The same deal number always gives the same
+	 * order of the cards on every platform. The random numbers are taken from
+	 * a SplitMix64 sequence started at the deal number, so nothing is
+	 * allocated and millions of deals can be generated in a tight loop.
 	 * 
-	 * @param deck
-	 *            List of integers to be shuffled.
+	 * @param dealNumber
+	 *            Deal number (any 64-bit value).
+	 * 
+	 * @param numbers
+	 *            Array of 52 elements to be filled with card numbers (1-52).
 	 * 
 	 * @author Todor Balabanov
 	 */
-	private static void shuffle(List<Card> deck) {
-		int numbers[] = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
-				16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31,
-				32, 33, 34, 35, 36, 37, 38, 39, 40, 41, 42, 43, 44, 45, 46, 47,
-				48, 49, 50, 51, 52 };
+	static void shuffle(long dealNumber, int[] numbers) {
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = i + 1;
+		}
 
 		/*
-		 * Shuffle integer values.
+		 * Shuffle integer values. The upper 32 bits of the random value are
+		 * scaled to the range instead of taking remainder.
 		 */
+		long state = dealNumber;
 		for (int last = numbers.length - 1, r = -1, swap = -1; last > 0; last--) {
-			r = Common.PRNG.nextInt(last + 1);
+			state += 0x9E3779B97F4A7C15L;
+			r = (int) (((Zobrist.mix(state) >>> 32) * (last + 1)) >>> 32);
 			swap = numbers[last];
 			numbers[last] = numbers[r];
 			numbers[r] = swap;
 		}
-
-		for (int i = 0; i < numbers.length; i++) {
-			deck.add(Card.valueBy(numbers[i]));
-		}
 	}
 
 	/**
@@ -78,8 +81,28 @@ class Deck {
 	 * @author Todor Balabanov
 	 */
 	public static List<Card> getFullShuffledDeck() {
+		return getFullShuffledDeck(Common.PRNG.nextLong());
+	}
+
+	/**
+	 * Creates a deck, shuffles it according to the deal number and returns
+	 * it.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @return Shuffled deck.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public static List<Card> getFullShuffledDeck(long dealNumber) {
+		int numbers[] = new int[HeadlessBoard.DECK_SIZE];
+		shuffle(dealNumber, numbers);
+
 		List<Card> deck = new LinkedList<Card>();
-		shuffle(deck);
+		for (int i = 0; i < numbers.length; i++) {
+			deck.add(Card.valueBy(numbers[i]));
+		}
 
 		return deck;
 	}
@@ -100,8 +123,8 @@ class Deck {
 		List<Card> deck = new LinkedList<Card>();
 
 		for (Integer i : numbers) {
-			if (numbers.get(i.intValue()) > 0) {
-				deck.add(Card.valueBy(numbers.get(i.intValue())));
+			if (i.intValue() > 0) {
+				deck.add(Card.valueBy(i.intValue()));
 			}
 		}
 
@@ -19,8 +19,6 @@
 
 package eu.veldsoft.free.klondike;
 
-import java.util.Vector;
-
 /**
  * Class: DiscardPile
  * 
@@ -34,13 +32,41 @@ class DiscardPile extends CardStack {
 	/**
 	 * Stack of cards.
 	 */
-	private Vector<Card> cards = new Vector<Card>();
+	private final CardArray cards = new CardArray();
 
 	/**
 	 * Cards left from the last draw from the deal deck.
 	 */
 	int cardsLeftFromDraw = 0;
 
+	/**
+	 * Number of cards drawn from the deal deck at once (1 or 3).
+	 */
+	private int drawCount = 1;
+
+	/**
+	 * Returns the number of cards drawn from the deal deck at once.
+	 * 
+	 * @return Draw count (1 or 3).
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getDrawCount() {
+		return drawCount;
+	}
+
+	/**
+	 * Sets the number of cards drawn from the deal deck at once.
+	 * 
+	 * @param draw
+	 *            Draw count (1 or 3).
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setDrawCount(int draw) {
+		drawCount = draw;
+	}
+
 	/**
 	 * Returns the pile's suit.
 	 * 
@@ -48,7 +74,7 @@ class DiscardPile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public Vector<Card> getCards() {
+	public CardArray getCards() {
 		return cards;
 	}
 
@@ -75,6 +101,18 @@ class DiscardPile extends CardStack {
 		cardsLeftFromDraw = numViewableCards;
 	}
 
+	/**
+	 * Returns a hash of what is seen from the pile. The number of cards left
+	 * from the last draw changes the fan of the cards on the screen.
+	 * 
+	 * @return View hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getViewHash() {
+		return Zobrist.mix(super.getViewHash() ^ cardsLeftFromDraw);
+	}
+
 	/**
 	 * Adds a card to the pile of currently viewable cards.
 	 * 
@@ -84,9 +122,10 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void addCard(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		cardsLeftFromDraw++;
 		cards.add(card);
+		updateHash(card, cards.size() - 1);
 	}
 
 	/**
@@ -116,13 +155,13 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public Card push(Card card) {
-		card.setFaceUp();
-		if (SolitaireBoard.drawCount == 1) {
+		states.setFaceUp(card);
+		if (drawCount == 1) {
 			cardsLeftFromDraw = 0;
 		}
 
 		addCard(card);
-		card.setSource("");
+		states.setFromDeck(card, false);
 		return card;
 	}
 
@@ -138,8 +177,8 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public CardStack push(CardStack stack) {
-		if (SolitaireBoard.drawCount != 1
-				|| (SolitaireBoard.drawCount == 1 && stack.length() == 1)) {
+		if (drawCount != 1
+				|| (drawCount == 1 && stack.length() == 1)) {
 			cardsLeftFromDraw = 0;
 
 			while (stack.isEmpty() == false) {
@@ -157,8 +196,9 @@ class DiscardPile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		Card card = peek();
+		updateHash(card, cards.size() - 1);
 		cards.remove(cards.size() - 1);
 
 		/*
@@ -181,7 +221,7 @@ class DiscardPile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		if (cards.isEmpty()) {
 			return null;
 		}
@@ -221,7 +261,7 @@ class DiscardPile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		int i = cards.lastIndexOf(card);
 
 		if (i >= 0) {
@@ -269,9 +309,7 @@ class DiscardPile extends CardStack {
 			/*
 			 * Cards are not opposite colors or decreasing in value correctly.
 			 */
-			if (cards.get(i).getColor() == cards.get(i + 1).getColor()
-					|| cards.get(i).getRank()
-							.isLessByOneThan(cards.get(i + 1).getRank()) == false) {
+			if (CardRules.isValidOnColumn(cards.get(i + 1), cards.get(i)) == false) {
 				return false;
 			}
 		}
@@ -292,12 +330,14 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public CardStack getStack(Card card) {
-		CardStack temp = new DiscardPile();
+		DiscardPile temp = new DiscardPile();
+		temp.setStates(states);
+		temp.setDrawCount(drawCount);
 		int index = search(card);
 
 		for (int i = 0; i < index; i++) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -316,12 +356,14 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public CardStack getStack(int numCards) {
-		CardStack temp = new DiscardPile();
+		DiscardPile temp = new DiscardPile();
+		temp.setStates(states);
+		temp.setDrawCount(drawCount);
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -334,8 +376,12 @@ class DiscardPile extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card undoPop() {
-		return super.pop();
+	public Card undoPop() {
+		Card card = peek();
+		updateHash(card, cards.size() - 1);
+		cards.remove(cards.size() - 1);
+
+		return card;
 	}
 
 	/**
@@ -349,7 +395,7 @@ class DiscardPile extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public boolean isValidMove(Card card) {
-		if (card.getSource().equals("Deck")) {
+		if (states.isFromDeck(card) == true) {
 			return true;
 		}
 
@@ -382,7 +428,9 @@ class DiscardPile extends CardStack {
 			return (null);
 		}
 
-		CardStack stack = new DiscardPile();
+		DiscardPile stack = new DiscardPile();
+		stack.setStates(states);
+		stack.setDrawCount(drawCount);
 		stack.addCard(peek());
 
 		return stack;
@@ -406,7 +454,7 @@ class DiscardPile extends CardStack {
 	 */
 	void highlight(int index) {
 		if (isEmpty() == false) {
-			peek().highlight();
+			states.highlight(peek());
 		}
 	}
 }
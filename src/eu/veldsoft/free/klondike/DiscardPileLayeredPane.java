@@ -20,7 +20,6 @@
 package eu.veldsoft.free.klondike;
 
 import java.awt.Graphics;
-import java.awt.Image;
 import java.awt.Point;
 import java.util.Vector;
 
@@ -158,6 +157,7 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 	public void addCard(Card card) {
 		discardPile.addCard(card);
 		CardComponent.cardsMapping.get(card).setBounds(0, 0, 72, 96);
+		CardComponent.cardsMapping.get(card).setStates(discardPile.getStates());
 		add(CardComponent.cardsMapping.get(card), 0);
 	}
 
@@ -207,8 +207,8 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 
 		for (int i = 0; i < index; i++) {
 			temp.add((getCardAtLocation(discardPile.getCards().size() - i - 1)));
-			getCardAtLocation(discardPile.getCards().size() - i - 1)
-					.highlight();
+			discardPile.getStates().highlight(
+					getCardAtLocation(discardPile.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -228,13 +228,15 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 	 */
 	public CardStack getStack(int numCards) {
 		DiscardPile temp = new DiscardPile();
+		temp.setStates(discardPile.getStates());
+		temp.setDrawCount(discardPile.getDrawCount());
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(discardPile.getCards().size() - i - 1)
 					.clone());
-			getCardAtLocation(discardPile.getCards().size() - i - 1)
-					.highlight();
+			discardPile.getStates().highlight(
+					getCardAtLocation(discardPile.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -283,6 +285,8 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 		 * Temporary reverse pop of entire stack transfer.
 		 */
 		DiscardPile temp = new DiscardPile();
+		temp.setStates(discardPile.getStates());
+		temp.setDrawCount(discardPile.getDrawCount());
 
 		while (!stack.isEmpty()) {
 			Card card = stack.pop();
@@ -365,6 +369,8 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 	 */
 	public CardStack undoStack(int numCards) {
 		DiscardPile temp = new DiscardPile();
+		temp.setStates(discardPile.getStates());
+		temp.setDrawCount(discardPile.getDrawCount());
 
 		for (int i = 0; i < numCards; i++) {
 			temp.push(pop());
@@ -436,51 +442,39 @@ class DiscardPileLayeredPane extends JLayeredPane implements
 			return;
 		}
 
-		if (discardPile.isEmpty() == false && SolitaireBoard.drawCount == 1) {
+		if (discardPile.isEmpty() == false && discardPile.getDrawCount() == 1) {
 			for (int i = 0; i < discardPile.length(); i++) {
-				CardComponent.cardsMapping
-						.get(discardPile.getCardAtLocation(i)).updateImage();
-				Image image = CardComponent.cardsMapping.get(
-						discardPile.getCardAtLocation(i)).getImage();
-				g.drawImage(image, 0, 0, null);
+				CardAtlas.draw(g, discardPile.getStates(),
+						discardPile.getCardAtLocation(i), 0, 0);
 			}
 		} else if (discardPile.isEmpty() == false
-				&& SolitaireBoard.drawCount == 3) {
+				&& discardPile.getDrawCount() == 3) {
 			if (discardPile.cardsLeftFromDraw > 0) {
 				for (int i = 0; i < discardPile.length()
 						- discardPile.cardsLeftFromDraw + 1; i++) {
-					CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).updateImage();
-					Image image = CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).getImage();
-					g.drawImage(image, 0, 0, null);
+					CardAtlas.draw(g, discardPile.getStates(),
+							discardPile.getCardAtLocation(i), 0, 0);
 				}
 
 				for (int i = discardPile.length()
 						- discardPile.cardsLeftFromDraw + 1; i < discardPile
 						.length(); i++) {
-					CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).updateImage();
-					Image image = CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).getImage();
+					Card card = discardPile.getCardAtLocation(i);
 
 					if ((discardPile.cardsLeftFromDraw == 3 && i == discardPile
 							.length() - 2)
 							|| (discardPile.cardsLeftFromDraw == 2 && i == discardPile
 									.length() - 1)) {
-						g.drawImage(image, 15, 0, null);
+						CardAtlas.draw(g, discardPile.getStates(), card, 15, 0);
 					} else if (discardPile.cardsLeftFromDraw == 3
 							&& i == discardPile.length() - 1) {
-						g.drawImage(image, 30, 0, null);
+						CardAtlas.draw(g, discardPile.getStates(), card, 30, 0);
 					}
 				}
 			} else {
 				for (int i = 0; i < discardPile.length(); i++) {
-					CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).updateImage();
-					Image image = CardComponent.cardsMapping.get(
-							discardPile.getCardAtLocation(i)).getImage();
-					g.drawImage(image, 0, 0, null);
+					CardAtlas.draw(g, discardPile.getStates(),
+							discardPile.getCardAtLocation(i), 0, 0);
 				}
 			}
 		}
@@ -27,17 +27,19 @@ import java.io.BufferedReader;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
-import java.util.LinkedList;
 
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 /**
@@ -83,11 +85,21 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 	 */
 	private JMenuItem newGame = new JMenuItem("New Game");
 
+	/**
+	 * Select game by deal number.
+	 */
+	private JMenuItem selectGame = new JMenuItem("Select Game");
+
 	/**
 	 * Undo
 	 */
 	private JMenuItem undo = new JMenuItem("Undo Last Move");
 
+	/**
+	 * Redo
+	 */
+	private JMenuItem redo = new JMenuItem("Redo Move");
+
 	/**
 	 * Hint.
 	 */
@@ -103,6 +115,12 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 	 */
 	private JMenuItem options = new JMenuItem("Options");
 
+	/**
+	 * Winnable deals only.
+	 */
+	private JCheckBoxMenuItem winnableOnly = new JCheckBoxMenuItem(
+			"Winnable Deals Only");
+
 	/**
 	 * Change Appearance.
 	 */
@@ -144,22 +162,28 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 		checkForUpdate();
 
 		game.add(newGame);
+		game.add(selectGame);
 		game.addSeparator();
 		game.add(undo);
+		game.add(redo);
 		game.add(hint);
 		game.addSeparator();
 		game.add(statistics);
 		game.add(options);
+		game.add(winnableOnly);
 		game.add(appearance);
 		game.add(topTimes);
 		game.addSeparator();
 		game.add(exit);
 
 		newGame.addActionListener(this);
+		selectGame.addActionListener(this);
 		undo.addActionListener(this);
+		redo.addActionListener(this);
 		hint.addActionListener(this);
 		statistics.addActionListener(this);
 		options.addActionListener(this);
+		winnableOnly.addActionListener(this);
 		appearance.addActionListener(this);
 		topTimes.addActionListener(this);
 		exit.addActionListener(this);
@@ -179,9 +203,14 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 
 		newGame.setMnemonic('N');
 		newGame.setAccelerator(KeyStroke.getKeyStroke("F2"));
+		selectGame.setMnemonic('g');
+		selectGame.setAccelerator(KeyStroke.getKeyStroke("F3"));
 		undo.setMnemonic('u');
 		undo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z,
-				KeyEvent.CTRL_MASK));
+				KeyEvent.CTRL_DOWN_MASK));
+		redo.setMnemonic('r');
+		redo.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y,
+				KeyEvent.CTRL_DOWN_MASK));
 		hint.setMnemonic('h');
 		hint.setAccelerator(KeyStroke.getKeyStroke('h'));
 		statistics.setMnemonic('s');
@@ -247,7 +276,7 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 		int newDrawCount = 1, timerStatus = 0, deckNumber = 3, backgroundNumber = 2;
 		int saved = 0, winAnimation = 0, winSounds = 0, drawCount = 1, deckThroughs = 1;
 		int difficulty = 2, newDifficulty = 2;
-		int numViewableCards = 1;
+		int numViewableCards = 1, winnable = 0;
 
 		try {
 			File file = new File(fileLocation + "frs-statistics.dat");
@@ -269,7 +298,7 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 				 * Statistics file is formatted to the new style of saving
 				 * statistics.
 				 */
-				while ((input.available() > 0) && count < 43) {
+				while ((input.available() > 0) && count < 44) {
 					temp = input.readInt();
 					switch (count) {
 					case 31:
@@ -308,6 +337,9 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 					case 42:
 						saved = temp;
 						break;
+					case 43:
+						winnable = temp;
+						break;
 
 					default:
 						break;
@@ -388,37 +420,30 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 			super.setNewDifficulty(GameDifficulty.HARD);
 		}
 
+		/*
+		 * The verified deals are loaded before the first new game.
+		 */
+		winnableOnly.setSelected(winnable == 1);
+		super.setWinnableOnly(winnable == 1);
+
 		if (saved == 1) {
 			super.setDeckThroughs(deckThroughs);
-			LinkedList<Integer> cards = new LinkedList<Integer>();
 
-			DataInputStream input = null;
+			SavedGame game = null;
 			try {
-				File file = new File(fileLocation + "frs-savedgame.dat");
-				file.createNewFile();
-				input = new DataInputStream(new FileInputStream(file));
-
-				while (input.available() > 0) {
-					cards.add(input.readInt());
-				}
+				game = SavedGame.read(new File(fileLocation
+						+ "frs-savedgame.dat"));
+			} catch (IOException ex) {
+				JOptionPane.showMessageDialog(this,
+						"The saved game can not be restored (" + ex.getMessage()
+								+ "). A new game is started.", "Saved Game",
+						JOptionPane.WARNING_MESSAGE);
+			}
 
-				if (cards.size() == 67) {
-					super.setTimer(cards.pollLast());
-					super.createBoard(cards, numViewableCards);
-				} else {
-					System.err
-							.println("Problem Loading Saved Game (More or Less Than 52 Cards Stored)... Starting New Game");
-					super.createBoard(null, 1);
-				}
-			} catch (Exception ex) {
-				System.err
-						.println("Problem Loading Saved Game (Unknown Error)... Starting New Game");
+			if (game != null) {
+				super.restoreBoard(game, numViewableCards);
+			} else {
 				super.createBoard(null, 1);
-			} finally {
-				try {
-					input.close();
-				} catch (Exception ex) {
-				}
 			}
 		} else {
 			super.createBoard(null, 1);
@@ -429,6 +454,215 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 		}
 	}
 
+	/**
+	 * Shows the statistics.
+	 * 
+	 * @param store
+	 *            Statistics.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void showStatistics(StatisticsStore store) {
+		int bucket1e = StatisticsStore.bucket(1, GameDifficulty.EASY);
+		int gamesPlayed1e = store.get(bucket1e, StatisticsStore.PLAYED);
+		int gamesWon1e = store.get(bucket1e, StatisticsStore.WON);
+		int winStreak1e = store.get(bucket1e, StatisticsStore.WIN_STREAK);
+		int lossStreak1e = store.get(bucket1e, StatisticsStore.LOSS_STREAK);
+		int currentStreak1e = store.get(bucket1e,
+				StatisticsStore.CURRENT_STREAK);
+
+		int bucket1m = StatisticsStore.bucket(1, GameDifficulty.MEDIUM);
+		int gamesPlayed1m = store.get(bucket1m, StatisticsStore.PLAYED);
+		int gamesWon1m = store.get(bucket1m, StatisticsStore.WON);
+		int winStreak1m = store.get(bucket1m, StatisticsStore.WIN_STREAK);
+		int lossStreak1m = store.get(bucket1m, StatisticsStore.LOSS_STREAK);
+		int currentStreak1m = store.get(bucket1m,
+				StatisticsStore.CURRENT_STREAK);
+
+		int bucket1h = StatisticsStore.bucket(1, GameDifficulty.HARD);
+		int gamesPlayed1h = store.get(bucket1h, StatisticsStore.PLAYED);
+		int gamesWon1h = store.get(bucket1h, StatisticsStore.WON);
+		int winStreak1h = store.get(bucket1h, StatisticsStore.WIN_STREAK);
+		int lossStreak1h = store.get(bucket1h, StatisticsStore.LOSS_STREAK);
+		int currentStreak1h = store.get(bucket1h,
+				StatisticsStore.CURRENT_STREAK);
+
+		int bucket3e = StatisticsStore.bucket(3, GameDifficulty.EASY);
+		int gamesPlayed3e = store.get(bucket3e, StatisticsStore.PLAYED);
+		int gamesWon3e = store.get(bucket3e, StatisticsStore.WON);
+		int winStreak3e = store.get(bucket3e, StatisticsStore.WIN_STREAK);
+		int lossStreak3e = store.get(bucket3e, StatisticsStore.LOSS_STREAK);
+		int currentStreak3e = store.get(bucket3e,
+				StatisticsStore.CURRENT_STREAK);
+
+		int bucket3m = StatisticsStore.bucket(3, GameDifficulty.MEDIUM);
+		int gamesPlayed3m = store.get(bucket3m, StatisticsStore.PLAYED);
+		int gamesWon3m = store.get(bucket3m, StatisticsStore.WON);
+		int winStreak3m = store.get(bucket3m, StatisticsStore.WIN_STREAK);
+		int lossStreak3m = store.get(bucket3m, StatisticsStore.LOSS_STREAK);
+		int currentStreak3m = store.get(bucket3m,
+				StatisticsStore.CURRENT_STREAK);
+
+		int bucket3h = StatisticsStore.bucket(3, GameDifficulty.HARD);
+		int gamesPlayed3h = store.get(bucket3h, StatisticsStore.PLAYED);
+		int gamesWon3h = store.get(bucket3h, StatisticsStore.WON);
+		int winStreak3h = store.get(bucket3h, StatisticsStore.WIN_STREAK);
+		int lossStreak3h = store.get(bucket3h, StatisticsStore.LOSS_STREAK);
+		int currentStreak3h = store.get(bucket3h,
+				StatisticsStore.CURRENT_STREAK);
+
+		int winPercentage1e;
+		int winPercentage1m;
+		int winPercentage1h;
+		int winPercentage3e;
+		int winPercentage3m;
+		int winPercentage3h;
+
+		if (gamesPlayed1e == 0) {
+			winPercentage1e = 0;
+		} else {
+			winPercentage1e = 100 * gamesWon1e / gamesPlayed1e;
+		}
+
+		if (gamesPlayed1m == 0) {
+			winPercentage1m = 0;
+		} else {
+			winPercentage1m = 100 * gamesWon1m / gamesPlayed1m;
+		}
+
+		if (gamesPlayed1h == 0) {
+			winPercentage1h = 0;
+		} else {
+			winPercentage1h = 100 * gamesWon1h / gamesPlayed1h;
+		}
+
+		if (gamesPlayed3e == 0) {
+			winPercentage3e = 0;
+		} else {
+			winPercentage3e = 100 * gamesWon3e / gamesPlayed3e;
+		}
+
+		if (gamesPlayed3m == 0) {
+			winPercentage3m = 0;
+		} else {
+			winPercentage3m = 100 * gamesWon3m / gamesPlayed3m;
+		}
+
+		if (gamesPlayed3h == 0) {
+			winPercentage3h = 0;
+		} else {
+			winPercentage3h = 100 * gamesWon3h / gamesPlayed3h;
+		}
+
+		JTextArea display = new JTextArea();
+		display.append("One-Card Draw (Easy)\t\tThree-Card Draw (Easy)\n"
+				+ "Games Played: "
+				+ gamesPlayed1e
+				+ "\t\tGames Played: "
+				+ gamesPlayed3e
+				+ "\nGames Won: "
+				+ gamesWon1e
+				+ "\t\t\tGames Won: "
+				+ gamesWon3e
+				+ "\n"
+				+ "Win Percentage: "
+				+ winPercentage1e
+				+ "%\t\tWin Percentage: "
+				+ winPercentage3e
+				+ "%\n\nBest Streak: "
+				+ winStreak1e
+				+ "\t\t\tBest Streak: "
+				+ winStreak3e
+				+ "\n"
+				+ "Worst Streak: "
+				+ lossStreak1e
+				+ "\t\tWorst Streak: "
+				+ lossStreak3e
+				+ "\n"
+				+ "Current Streak: "
+				+ currentStreak1e
+				+ "\t\tCurrent Streak: "
+				+ currentStreak3e
+				+ "\n"
+				+ "===================================================================\n");
+
+		display.append("One-Card Draw (Medium)\t\tThree-Card Draw (Medium)\n"
+				+ "Games Played: "
+				+ gamesPlayed1m
+				+ "\t\tGames Played: "
+				+ gamesPlayed3m
+				+ "\nGames Won: "
+				+ gamesWon1m
+				+ "\t\t\tGames Won: "
+				+ gamesWon3m
+				+ "\n"
+				+ "Win Percentage: "
+				+ winPercentage1m
+				+ "%\t\tWin Percentage: "
+				+ winPercentage3m
+				+ "%\n\nBest Streak: "
+				+ winStreak1m
+				+ "\t\t\tBest Streak: "
+				+ winStreak3m
+				+ "\n"
+				+ "Worst Streak: "
+				+ lossStreak1m
+				+ "\t\tWorst Streak: "
+				+ lossStreak3m
+				+ "\n"
+				+ "Current Streak: "
+				+ currentStreak1m
+				+ "\t\tCurrent Streak: "
+				+ currentStreak3m
+				+ "\n"
+				+ "===================================================================\n");
+
+		display.append("One-Card Draw (Hard)\t\tThree-Card Draw (Hard)\n"
+				+ "Games Played: "
+				+ gamesPlayed1h
+				+ "\t\tGames Played: "
+				+ gamesPlayed3h
+				+ "\nGames Won: "
+				+ gamesWon1h
+				+ "\t\t\tGames Won: "
+				+ gamesWon3h
+				+ "\n"
+				+ "Win Percentage: "
+				+ winPercentage1h
+				+ "%\t\tWin Percentage: "
+				+ winPercentage3h
+				+ "%\n\nBest Streak: "
+				+ winStreak1h
+				+ "\t\t\tBest Streak: "
+				+ winStreak3h
+				+ "\n"
+				+ "Worst Streak: "
+				+ lossStreak1h
+				+ "\t\tWorst Streak: "
+				+ lossStreak3h
+				+ "\n"
+				+ "Current Streak: "
+				+ currentStreak1h
+				+ "\t\tCurrent Streak: "
+				+ currentStreak3h);
+
+		display.setOpaque(false);
+		display.setBorder(null);
+		display.setFont(UIManager.getFont("Label.font"));
+
+		Object[] buttons = { "Close", "Reset" };
+		int check = JOptionPane.showOptionDialog(this, display,
+				"Statistics", JOptionPane.OK_CANCEL_OPTION,
+				JOptionPane.PLAIN_MESSAGE, null, buttons, buttons[0]);
+
+		if (check == 1) {
+			/*
+			 * Reset stats.
+			 */
+			super.resetStats();
+		}
+	}
+
 	/**
 	 * Main function. Executes the game.
 	 * 
@@ -453,295 +687,41 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 	public void actionPerformed(ActionEvent e) {
 		if (e.getSource() == newGame) {
 			super.newGame(GameState.GAME_LOST);
+		} else if (e.getSource() == selectGame) {
+			String input = JOptionPane.showInputDialog(this,
+					"Enter the game number:", "" + getDealNumber());
+
+			if (input != null) {
+				try {
+					super.selectGame(Long.parseLong(input.trim()));
+				} catch (NumberFormatException ex) {
+					JOptionPane.showMessageDialog(this,
+							"Invalid game number: " + input, "Select Game",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
 		} else if (e.getSource() == undo) {
 			super.undoMove();
+		} else if (e.getSource() == redo) {
+			super.redoMove();
 		} else if (e.getSource() == hint) {
 			super.getHint();
 		} else if (e.getSource() == statistics) {
-			String fileLocation = System.getProperty("user.home")
-					+ System.getProperty("file.separator")
-					+ "frs-statistics.dat";
-
-			int count = 0, temp = 0;
-			int gamesPlayed1e = 0, gamesWon1e = 0, winStreak1e = 0, lossStreak1e = 0, currentStreak1e = 0;
-			int gamesPlayed1m = 0, gamesWon1m = 0, winStreak1m = 0, lossStreak1m = 0, currentStreak1m = 0;
-			int gamesPlayed1h = 0, gamesWon1h = 0, winStreak1h = 0, lossStreak1h = 0, currentStreak1h = 0;
-			int gamesPlayed3e = 0, gamesWon3e = 0, winStreak3e = 0, lossStreak3e = 0, currentStreak3e = 0;
-			int gamesPlayed3m = 0, gamesWon3m = 0, winStreak3m = 0, lossStreak3m = 0, currentStreak3m = 0;
-			int gamesPlayed3h = 0, gamesWon3h = 0, winStreak3h = 0, lossStreak3h = 0, currentStreak3h = 0;
-
-			try {
-				File file = new File(fileLocation);
-				file.createNewFile();
-				DataInputStream input = new DataInputStream(
-						new FileInputStream(file));
-
-				while ((input.available() > 0) && count < 31) {
-					temp = input.readInt();
-					switch (count) {
-					case 1:
-						gamesPlayed1e = temp;
-						break;
-					case 2:
-						gamesWon1e = temp;
-						break;
-					case 3:
-						winStreak1e = temp;
-						break;
-					case 4:
-						lossStreak1e = temp;
-						break;
-					case 5:
-						currentStreak1e = temp;
-						break;
-
-					case 6:
-						gamesPlayed1m = temp;
-						break;
-					case 7:
-						gamesWon1m = temp;
-						break;
-					case 8:
-						winStreak1m = temp;
-						break;
-					case 9:
-						lossStreak1m = temp;
-						break;
-					case 10:
-						currentStreak1m = temp;
-						break;
-
-					case 11:
-						gamesPlayed1h = temp;
-						break;
-					case 12:
-						gamesWon1h = temp;
-						break;
-					case 13:
-						winStreak1h = temp;
-						break;
-					case 14:
-						lossStreak1h = temp;
-						break;
-					case 15:
-						currentStreak1h = temp;
-						break;
-
-					case 16:
-						gamesPlayed3e = temp;
-						break;
-					case 17:
-						gamesWon3e = temp;
-						break;
-					case 18:
-						winStreak3e = temp;
-						break;
-					case 19:
-						lossStreak3e = temp;
-						break;
-					case 20:
-						currentStreak3e = temp;
-						break;
-
-					case 21:
-						gamesPlayed3m = temp;
-						break;
-					case 22:
-						gamesWon3m = temp;
-						break;
-					case 23:
-						winStreak3m = temp;
-						break;
-					case 24:
-						lossStreak3m = temp;
-						break;
-					case 25:
-						currentStreak3m = temp;
-						break;
-
-					case 26:
-						gamesPlayed3h = temp;
-						break;
-					case 27:
-						gamesWon3h = temp;
-						break;
-					case 28:
-						winStreak3h = temp;
-						break;
-					case 29:
-						lossStreak3h = temp;
-						break;
-					case 30:
-						currentStreak3h = temp;
-						break;
-
-					default:
-						break;
-					}
-
-					count++;
+			/*
+			 * The games waiting in the journal are counted in the persistence
+			 * thread and the statistics are shown in the user interface thread.
+			 */
+			PersistenceService.execute(new Runnable() {
+				public void run() {
+					final StatisticsStore store = getStatistics();
+
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							showStatistics(store);
+						}
+					});
 				}
-
-				input.close();
-			} catch (Exception ex) {
-				System.out.println(ex);
-			}
-
-			int winPercentage1e;
-			int winPercentage1m;
-			int winPercentage1h;
-			int winPercentage3e;
-			int winPercentage3m;
-			int winPercentage3h;
-
-			if (gamesPlayed1e == 0) {
-				winPercentage1e = 0;
-			} else {
-				winPercentage1e = 100 * gamesWon1e / gamesPlayed1e;
-			}
-
-			if (gamesPlayed1m == 0) {
-				winPercentage1m = 0;
-			} else {
-				winPercentage1m = 100 * gamesWon1m / gamesPlayed1m;
-			}
-
-			if (gamesPlayed1h == 0) {
-				winPercentage1h = 0;
-			} else {
-				winPercentage1h = 100 * gamesWon1h / gamesPlayed1h;
-			}
-
-			if (gamesPlayed3e == 0) {
-				winPercentage3e = 0;
-			} else {
-				winPercentage3e = 100 * gamesWon3e / gamesPlayed3e;
-			}
-
-			if (gamesPlayed3m == 0) {
-				winPercentage3m = 0;
-			} else {
-				winPercentage3m = 100 * gamesWon3m / gamesPlayed3m;
-			}
-
-			if (gamesPlayed3h == 0) {
-				winPercentage3h = 0;
-			} else {
-				winPercentage3h = 100 * gamesWon3h / gamesPlayed3h;
-			}
-
-			JTextArea display = new JTextArea();
-			display.append("One-Card Draw (Easy)\t\tThree-Card Draw (Easy)\n"
-					+ "Games Played: "
-					+ gamesPlayed1e
-					+ "\t\tGames Played: "
-					+ gamesPlayed3e
-					+ "\nGames Won: "
-					+ gamesWon1e
-					+ "\t\t\tGames Won: "
-					+ gamesWon3e
-					+ "\n"
-					+ "Win Percentage: "
-					+ winPercentage1e
-					+ "%\t\tWin Percentage: "
-					+ winPercentage3e
-					+ "%\n\nBest Streak: "
-					+ winStreak1e
-					+ "\t\t\tBest Streak: "
-					+ winStreak3e
-					+ "\n"
-					+ "Worst Streak: "
-					+ lossStreak1e
-					+ "\t\tWorst Streak: "
-					+ lossStreak3e
-					+ "\n"
-					+ "Current Streak: "
-					+ currentStreak1e
-					+ "\t\tCurrent Streak: "
-					+ currentStreak3e
-					+ "\n"
-					+ "===================================================================\n");
-
-			display.append("One-Card Draw (Medium)\t\tThree-Card Draw (Medium)\n"
-					+ "Games Played: "
-					+ gamesPlayed1m
-					+ "\t\tGames Played: "
-					+ gamesPlayed3m
-					+ "\nGames Won: "
-					+ gamesWon1m
-					+ "\t\t\tGames Won: "
-					+ gamesWon3m
-					+ "\n"
-					+ "Win Percentage: "
-					+ winPercentage1m
-					+ "%\t\tWin Percentage: "
-					+ winPercentage3m
-					+ "%\n\nBest Streak: "
-					+ winStreak1m
-					+ "\t\t\tBest Streak: "
-					+ winStreak3m
-					+ "\n"
-					+ "Worst Streak: "
-					+ lossStreak1m
-					+ "\t\tWorst Streak: "
-					+ lossStreak3m
-					+ "\n"
-					+ "Current Streak: "
-					+ currentStreak1m
-					+ "\t\tCurrent Streak: "
-					+ currentStreak3m
-					+ "\n"
-					+ "===================================================================\n");
-
-			display.append("One-Card Draw (Hard)\t\tThree-Card Draw (Hard)\n"
-					+ "Games Played: "
-					+ gamesPlayed1h
-					+ "\t\tGames Played: "
-					+ gamesPlayed3h
-					+ "\nGames Won: "
-					+ gamesWon1h
-					+ "\t\t\tGames Won: "
-					+ gamesWon3h
-					+ "\n"
-					+ "Win Percentage: "
-					+ winPercentage1h
-					+ "%\t\tWin Percentage: "
-					+ winPercentage3h
-					+ "%\n\nBest Streak: "
-					+ winStreak1h
-					+ "\t\t\tBest Streak: "
-					+ winStreak3h
-					+ "\n"
-					+ "Worst Streak: "
-					+ lossStreak1h
-					+ "\t\tWorst Streak: "
-					+ lossStreak3h
-					+ "\n"
-					+ "Current Streak: "
-					+ currentStreak1h
-					+ "\t\tCurrent Streak: "
-					+ currentStreak3h);
-
-			display.setOpaque(false);
-			display.setBorder(null);
-			display.setFont(UIManager.getFont("Label.font"));
-
-			Object[] buttons = { "Close", "Reset" };
-			int check = JOptionPane.showOptionDialog(this, display,
-					"Statistics", JOptionPane.OK_CANCEL_OPTION,
-					JOptionPane.PLAIN_MESSAGE, null, buttons, buttons[0]);
-
-			if (check == 1) {
-				/*
-				 * Reset stats.
-				 */
-				super.resetStats();
-			} else {
-				/*
-				 * Close.
-				 */
-				return;
-			}
+			});
 		} else if (e.getSource() == options) {
 			ChangeOptions co = new ChangeOptions(this, super.getNewDrawCount(),
 					super.getTimerNextGameStatus(), WinScreen.animation,
@@ -766,6 +746,9 @@ public class FreeKlondike extends SolitaireBoardFrame implements
 				}
 			}
 
+			super.saveOptions();
+		} else if (e.getSource() == winnableOnly) {
+			super.setWinnableOnly(winnableOnly.isSelected());
 			super.saveOptions();
 		} else if (e.getSource() == appearance) {
 			ChangeAppearance ca = new ChangeAppearance(this,
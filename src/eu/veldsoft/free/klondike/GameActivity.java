@@ -19,7 +19,7 @@
 
 package eu.veldsoft.free.klondike;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import android.app.Activity;
 import android.app.AlertDialog;
@@ -27,12 +27,14 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.InputType;
 import android.util.DisplayMetrics;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.Toast;
 import eu.veldsoft.free.klondike.R;
@@ -56,17 +58,89 @@ public class GameActivity extends Activity {
 		static ImageView deal;
 		static ImageView discard[] = new ImageView[3];
 		static ImageView all[] = null;
+
+		/*
+		 * Image resources as they were set last time in the views.
+		 */
+		static int acesShown[] = new int[4];
+		static int cellsShown[] = new int[4];
+		static int columnsShown[][] = new int[4][17];
+		static int dealShown[] = new int[1];
+		static int discardShown[] = new int[3];
+
+		/**
+		 * Forgets the image resources set in the views, so all views are
+		 * updated next time.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		static void forget() {
+			Arrays.fill(acesShown, UNKNOWN);
+			Arrays.fill(cellsShown, UNKNOWN);
+			for (int shown[] : columnsShown) {
+				Arrays.fill(shown, UNKNOWN);
+			}
+			Arrays.fill(dealShown, UNKNOWN);
+			Arrays.fill(discardShown, UNKNOWN);
+		}
 	}
 
 	/**
-	 * 
+	 * Image resource of the views without image.
 	 */
-	private HashMap<Card, Integer> cardsImagesMapping = new HashMap<Card, Integer>();
+	private static final int NO_IMAGE = 0;
 
 	/**
-	 * 
+	 * Image resource of the views in unknown state.
+	 */
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Card faces image resources indexed by card full number minus one.
+	 */
+	private static final int FACES[] = {
+			R.drawable.s_ace, R.drawable.s_two, R.drawable.s_three,
+			R.drawable.s_four, R.drawable.s_five, R.drawable.s_six,
+			R.drawable.s_seven, R.drawable.s_eight, R.drawable.s_nine,
+			R.drawable.s_ten, R.drawable.s_jack, R.drawable.s_queen,
+			R.drawable.s_king, R.drawable.c_ace, R.drawable.c_two,
+			R.drawable.c_three, R.drawable.c_four, R.drawable.c_five,
+			R.drawable.c_six, R.drawable.c_seven, R.drawable.c_eight,
+			R.drawable.c_nine, R.drawable.c_ten, R.drawable.c_jack,
+			R.drawable.c_queen, R.drawable.c_king, R.drawable.d_ace,
+			R.drawable.d_two, R.drawable.d_three, R.drawable.d_four,
+			R.drawable.d_five, R.drawable.d_six, R.drawable.d_seven,
+			R.drawable.d_eight, R.drawable.d_nine, R.drawable.d_ten,
+			R.drawable.d_jack, R.drawable.d_queen, R.drawable.d_king,
+			R.drawable.h_ace, R.drawable.h_two, R.drawable.h_three,
+			R.drawable.h_four, R.drawable.h_five, R.drawable.h_six,
+			R.drawable.h_seven, R.drawable.h_eight, R.drawable.h_nine,
+			R.drawable.h_ten, R.drawable.h_jack, R.drawable.h_queen,
+			R.drawable.h_king };
+
+	/**
+	 * Highlighted card faces image resources indexed by card full number minus
+	 * one.
 	 */
-	private HashMap<Card, Integer> cardsHighlightedImagesMapping = new HashMap<Card, Integer>();
+	private static final int HIGHLIGHTED_FACES[] = {
+			R.drawable.s_ace_h, R.drawable.s_two_h, R.drawable.s_three_h,
+			R.drawable.s_four_h, R.drawable.s_five_h, R.drawable.s_six_h,
+			R.drawable.s_seven_h, R.drawable.s_eight_h, R.drawable.s_nine_h,
+			R.drawable.s_ten_h, R.drawable.s_jack_h, R.drawable.s_queen_h,
+			R.drawable.s_king_h, R.drawable.c_ace_h, R.drawable.c_two_h,
+			R.drawable.c_three_h, R.drawable.c_four_h, R.drawable.c_five_h,
+			R.drawable.c_six_h, R.drawable.c_seven_h, R.drawable.c_eight_h,
+			R.drawable.c_nine_h, R.drawable.c_ten_h, R.drawable.c_jack_h,
+			R.drawable.c_queen_h, R.drawable.c_king_h, R.drawable.d_ace_h,
+			R.drawable.d_two_h, R.drawable.d_three_h, R.drawable.d_four_h,
+			R.drawable.d_five_h, R.drawable.d_six_h, R.drawable.d_seven_h,
+			R.drawable.d_eight_h, R.drawable.d_nine_h, R.drawable.d_ten_h,
+			R.drawable.d_jack_h, R.drawable.d_queen_h, R.drawable.d_king_h,
+			R.drawable.h_ace_h, R.drawable.h_two_h, R.drawable.h_three_h,
+			R.drawable.h_four_h, R.drawable.h_five_h, R.drawable.h_six_h,
+			R.drawable.h_seven_h, R.drawable.h_eight_h, R.drawable.h_nine_h,
+			R.drawable.h_ten_h, R.drawable.h_jack_h, R.drawable.h_queen_h,
+			R.drawable.h_king_h };
 
 	/**
 	 * 
@@ -81,125 +155,150 @@ public class GameActivity extends Activity {
 	}
 
 	/**
+	 * Returns the image resource for the current state of a card.
 	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Card back, face or highlighted face image resource.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int resourceOf(Card card) {
+		if (board.getStates().isFaceDown(card) == true) {
+			return R.drawable.cardback1;
+		}
+
+		if (board.getStates().isHighlighted(card) == true) {
+			return HIGHLIGHTED_FACES[card.getFullNumber() - 1];
+		}
+
+		return FACES[card.getFullNumber() - 1];
+	}
+
+	/**
+	 * Sets an image resource in a view only if it differs from the one set
+	 * last time.
+	 * 
+	 * @param view
+	 *            Image view.
+	 * 
+	 * @param shown
+	 *            Image resources set last time in the views of the group.
+	 * 
+	 * @param index
+	 *            Index of the view in the group.
+	 * 
+	 * @param resource
+	 *            Image resource or NO_IMAGE to clear the view.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void show(ImageView view, int shown[], int index,
+			int resource) {
+		if (shown[index] == resource) {
+			return;
+		}
+
+		shown[index] = resource;
+		if (resource == NO_IMAGE) {
+			view.setImageBitmap(null);
+		} else {
+			view.setImageResource(resource);
+		}
+	}
+
+	/**
+	 * Updates the views whose cards or cards state were changed.
+	 * 
+	 * @author Todor Balabanov
 	 */
 	private void updateImages() {
 		for (int i = 0; i < board.acePiles.length; i++) {
+			int resource = NO_IMAGE;
+
 			if (board.acePiles[i].isEmpty() == true) {
 				switch (board.acePiles[i].getSuit()) {
 				case SPADES:
-					CardsViews.aces[i]
-							.setImageResource(R.drawable.transparent_s_ace);
+					resource = R.drawable.transparent_s_ace;
 					break;
 				case CLUBS:
-					CardsViews.aces[i]
-							.setImageResource(R.drawable.transparent_c_ace);
+					resource = R.drawable.transparent_c_ace;
 					break;
 				case DIAMONDS:
-					CardsViews.aces[i]
-							.setImageResource(R.drawable.transparent_d_ace);
+					resource = R.drawable.transparent_d_ace;
 					break;
 				case HEARTS:
-					CardsViews.aces[i]
-							.setImageResource(R.drawable.transparent_h_ace);
+					resource = R.drawable.transparent_h_ace;
 					break;
 				}
-
-				continue;
+			} else {
+				resource = resourceOf(board.acePiles[i].peek());
 			}
 
-			if (board.acePiles[i].peek().isFaceDown() == true) {
-				CardsViews.aces[i].setImageResource(R.drawable.cardback1);
-				continue;
-			}
-
-			if (board.acePiles[i].peek().isUnhighlighted() == true) {
-				CardsViews.aces[i].setImageResource(cardsImagesMapping
-						.get(board.acePiles[i].peek()));
-			} else if (board.acePiles[i].peek().isHighlighted() == true) {
-				CardsViews.aces[i]
-						.setImageResource(cardsHighlightedImagesMapping
-								.get(board.acePiles[i].peek()));
-			}
+			show(CardsViews.aces[i], CardsViews.acesShown, i, resource);
 		}
 
 		for (int i = 0; i < board.cells.length; i++) {
 			if (board.cells[i].isEmpty() == true) {
-				CardsViews.cells[i].setImageResource(R.drawable.empty_card);
-				continue;
-			}
-
-			if (board.cells[i].peek().isFaceDown() == true) {
-				CardsViews.cells[i].setImageResource(R.drawable.cardback1);
-				continue;
-			}
-
-			if (board.cells[i].peek().isUnhighlighted() == true) {
-				CardsViews.cells[i].setImageResource(cardsImagesMapping
-						.get(board.cells[i].peek()));
-			} else if (board.cells[i].peek().isHighlighted() == true) {
-				CardsViews.cells[i]
-						.setImageResource(cardsHighlightedImagesMapping
-								.get(board.cells[i].peek()));
+				show(CardsViews.cells[i], CardsViews.cellsShown, i,
+						R.drawable.empty_card);
+			} else {
+				show(CardsViews.cells[i], CardsViews.cellsShown, i,
+						resourceOf(board.cells[i].peek()));
 			}
 		}
 
 		if (board.dealDeck.isEmpty() == false) {
-			CardsViews.deal.setImageResource(R.drawable.cardback1);
+			show(CardsViews.deal, CardsViews.dealShown, 0,
+					R.drawable.cardback1);
 		} else {
-			CardsViews.deal.setImageResource(R.drawable.empty_card);
+			show(CardsViews.deal, CardsViews.dealShown, 0,
+					R.drawable.empty_card);
 		}
 
 		if (board.discardPile.isEmpty() == false) {
-			if (board.discardPile.peek().isUnhighlighted() == true) {
-				CardsViews.discard[0].setImageResource(cardsImagesMapping
-						.get(board.discardPile.peek()));
-			} else if (board.discardPile.peek().isHighlighted() == true) {
-				CardsViews.discard[0]
-						.setImageResource(cardsHighlightedImagesMapping
-								.get(board.discardPile.peek()));
-			}
+			show(CardsViews.discard[0], CardsViews.discardShown, 0,
+					resourceOf(board.discardPile.peek()));
 		} else {
-			CardsViews.discard[0].setImageResource(R.drawable.empty_card);
+			show(CardsViews.discard[0], CardsViews.discardShown, 0,
+					R.drawable.empty_card);
 		}
 
 		for (int i = 0; i < board.columns.length; i++) {
+			ImageView views[] = CardsViews.columns[i];
+			int shown[] = CardsViews.columnsShown[i];
+
 			/*
 			 * Columns should be clickable even if they are empty.
 			 */
 			if (board.columns[i].isEmpty() == true) {
-				for (ImageView view : CardsViews.columns[i]) {
-					view.setImageBitmap(null);
+				show(views[0], shown, 0, R.drawable.empty_card);
+				for (int j = 1; j < views.length; j++) {
+					show(views[j], shown, j, NO_IMAGE);
 				}
-				CardsViews.columns[i][0]
-						.setImageResource(R.drawable.empty_card);
 				continue;
 			}
 
 			for (int j = 0; j < board.columns[i].length(); j++) {
-				if (board.columns[i].getCardAtLocation(j).isFaceDown() == true) {
-					CardsViews.columns[i][j]
-							.setImageResource(R.drawable.cardback1);
-					continue;
-				}
-
-				if (board.columns[i].getCardAtLocation(j).isUnhighlighted() == true) {
-					CardsViews.columns[i][j]
-							.setImageResource(cardsImagesMapping
-									.get(board.columns[i].getCardAtLocation(j)));
-				} else if (board.columns[i].getCardAtLocation(j)
-						.isHighlighted() == true) {
-					CardsViews.columns[i][j]
-							.setImageResource(cardsHighlightedImagesMapping
-									.get(board.columns[i].getCardAtLocation(j)));
-				}
+				show(views[j], shown, j,
+						resourceOf(board.columns[i].getCardAtLocation(j)));
 			}
-			for (int j = board.columns[i].length(); j < CardsViews.columns[i].length; j++) {
-				CardsViews.columns[i][j].setImageBitmap(null);
+			for (int j = board.columns[i].length(); j < views.length; j++) {
+				show(views[j], shown, j, NO_IMAGE);
 			}
 		}
 	}
 
+	/**
+	 * Shows the deal number of the current game in the title.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void updateTitle() {
+		setTitle(getString(R.string.app_name) + " #" + board.getDealNumber());
+	}
+
 	/**
 	 * On creation.
 	 * 
@@ -233,6 +332,7 @@ public class GameActivity extends Activity {
 				board.newGame(GameState.GAME_WON);
 				board.dealOutBoard();
 				updateImages();
+				updateTitle();
 
 				break;
 			}
@@ -252,6 +352,7 @@ public class GameActivity extends Activity {
 							board.newGame(GameState.GAME_WON);
 							board.dealOutBoard();
 							updateImages();
+							updateTitle();
 							dialog.dismiss();
 						}
 
@@ -270,6 +371,50 @@ public class GameActivity extends Activity {
 			alert.show();
 			break;
 
+		case R.id.select_game:
+			final EditText input = new EditText(this);
+			input.setInputType(InputType.TYPE_CLASS_NUMBER
+					| InputType.TYPE_NUMBER_FLAG_SIGNED);
+			input.setText("" + board.getDealNumber());
+
+			AlertDialog.Builder select = new AlertDialog.Builder(this);
+
+			select.setTitle(R.string.select_option);
+			select.setView(input);
+
+			select.setPositiveButton("OK",
+					new DialogInterface.OnClickListener() {
+
+						public void onClick(DialogInterface dialog, int which) {
+							try {
+								long dealNumber = Long.parseLong(input
+										.getText().toString().trim());
+								board.newGame(GameState.GAME_LOST);
+								board.dealOutBoard(dealNumber);
+								updateImages();
+								updateTitle();
+							} catch (NumberFormatException ex) {
+								Toast.makeText(GameActivity.this,
+										"Invalid game number!",
+										Toast.LENGTH_SHORT).show();
+							}
+							dialog.dismiss();
+						}
+
+					});
+
+			select.setNegativeButton("Cancel",
+					new DialogInterface.OnClickListener() {
+
+						@Override
+						public void onClick(DialogInterface dialog, int which) {
+							dialog.dismiss();
+						}
+					});
+
+			select.create().show();
+			break;
+
 		//
 		// case R.id.undo_last_move:
 		// board.undoMove();
@@ -299,145 +444,7 @@ public class GameActivity extends Activity {
 		board.createBoard(null, 1);
 		board.newGame(GameState.GAME_LOST);
 		board.dealOutBoard();
-
-		cardsImagesMapping.put(Card.valueBy(1), R.drawable.s_ace);
-		cardsImagesMapping.put(Card.valueBy(2), R.drawable.s_two);
-		cardsImagesMapping.put(Card.valueBy(3), R.drawable.s_three);
-		cardsImagesMapping.put(Card.valueBy(4), R.drawable.s_four);
-		cardsImagesMapping.put(Card.valueBy(5), R.drawable.s_five);
-		cardsImagesMapping.put(Card.valueBy(6), R.drawable.s_six);
-		cardsImagesMapping.put(Card.valueBy(7), R.drawable.s_seven);
-		cardsImagesMapping.put(Card.valueBy(8), R.drawable.s_eight);
-		cardsImagesMapping.put(Card.valueBy(9), R.drawable.s_nine);
-		cardsImagesMapping.put(Card.valueBy(10), R.drawable.s_ten);
-		cardsImagesMapping.put(Card.valueBy(11), R.drawable.s_jack);
-		cardsImagesMapping.put(Card.valueBy(12), R.drawable.s_queen);
-		cardsImagesMapping.put(Card.valueBy(13), R.drawable.s_king);
-		cardsImagesMapping.put(Card.valueBy(14), R.drawable.c_ace);
-		cardsImagesMapping.put(Card.valueBy(15), R.drawable.c_two);
-		cardsImagesMapping.put(Card.valueBy(16), R.drawable.c_three);
-		cardsImagesMapping.put(Card.valueBy(17), R.drawable.c_four);
-		cardsImagesMapping.put(Card.valueBy(18), R.drawable.c_five);
-		cardsImagesMapping.put(Card.valueBy(19), R.drawable.c_six);
-		cardsImagesMapping.put(Card.valueBy(20), R.drawable.c_seven);
-		cardsImagesMapping.put(Card.valueBy(21), R.drawable.c_eight);
-		cardsImagesMapping.put(Card.valueBy(22), R.drawable.c_nine);
-		cardsImagesMapping.put(Card.valueBy(23), R.drawable.c_ten);
-		cardsImagesMapping.put(Card.valueBy(24), R.drawable.c_jack);
-		cardsImagesMapping.put(Card.valueBy(25), R.drawable.c_queen);
-		cardsImagesMapping.put(Card.valueBy(26), R.drawable.c_king);
-		cardsImagesMapping.put(Card.valueBy(27), R.drawable.d_ace);
-		cardsImagesMapping.put(Card.valueBy(28), R.drawable.d_two);
-		cardsImagesMapping.put(Card.valueBy(29), R.drawable.d_three);
-		cardsImagesMapping.put(Card.valueBy(30), R.drawable.d_four);
-		cardsImagesMapping.put(Card.valueBy(31), R.drawable.d_five);
-		cardsImagesMapping.put(Card.valueBy(32), R.drawable.d_six);
-		cardsImagesMapping.put(Card.valueBy(33), R.drawable.d_seven);
-		cardsImagesMapping.put(Card.valueBy(34), R.drawable.d_eight);
-		cardsImagesMapping.put(Card.valueBy(35), R.drawable.d_nine);
-		cardsImagesMapping.put(Card.valueBy(36), R.drawable.d_ten);
-		cardsImagesMapping.put(Card.valueBy(37), R.drawable.d_jack);
-		cardsImagesMapping.put(Card.valueBy(38), R.drawable.d_queen);
-		cardsImagesMapping.put(Card.valueBy(39), R.drawable.d_king);
-		cardsImagesMapping.put(Card.valueBy(40), R.drawable.h_ace);
-		cardsImagesMapping.put(Card.valueBy(41), R.drawable.h_two);
-		cardsImagesMapping.put(Card.valueBy(42), R.drawable.h_three);
-		cardsImagesMapping.put(Card.valueBy(43), R.drawable.h_four);
-		cardsImagesMapping.put(Card.valueBy(44), R.drawable.h_five);
-		cardsImagesMapping.put(Card.valueBy(45), R.drawable.h_six);
-		cardsImagesMapping.put(Card.valueBy(46), R.drawable.h_seven);
-		cardsImagesMapping.put(Card.valueBy(47), R.drawable.h_eight);
-		cardsImagesMapping.put(Card.valueBy(48), R.drawable.h_nine);
-		cardsImagesMapping.put(Card.valueBy(49), R.drawable.h_ten);
-		cardsImagesMapping.put(Card.valueBy(50), R.drawable.h_jack);
-		cardsImagesMapping.put(Card.valueBy(51), R.drawable.h_queen);
-		cardsImagesMapping.put(Card.valueBy(52), R.drawable.h_king);
-
-		cardsHighlightedImagesMapping.put(Card.valueBy(1), R.drawable.s_ace_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(2), R.drawable.s_two_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(3), R.drawable.s_three_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(4), R.drawable.s_four_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(5), R.drawable.s_five_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(6), R.drawable.s_six_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(7), R.drawable.s_seven_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(8), R.drawable.s_eight_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(9), R.drawable.s_nine_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(10), R.drawable.s_ten_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(11), R.drawable.s_jack_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(12),
-				R.drawable.s_queen_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(13), R.drawable.s_king_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(14), R.drawable.c_ace_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(15), R.drawable.c_two_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(16),
-				R.drawable.c_three_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(17), R.drawable.c_four_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(18), R.drawable.c_five_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(19), R.drawable.c_six_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(20),
-				R.drawable.c_seven_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(21),
-				R.drawable.c_eight_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(22), R.drawable.c_nine_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(23), R.drawable.c_ten_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(24), R.drawable.c_jack_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(25),
-				R.drawable.c_queen_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(26), R.drawable.c_king_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(27), R.drawable.d_ace_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(28), R.drawable.d_two_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(29),
-				R.drawable.d_three_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(30), R.drawable.d_four_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(31), R.drawable.d_five_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(32), R.drawable.d_six_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(33),
-				R.drawable.d_seven_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(34),
-				R.drawable.d_eight_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(35), R.drawable.d_nine_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(36), R.drawable.d_ten_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(37), R.drawable.d_jack_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(38),
-				R.drawable.d_queen_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(39), R.drawable.d_king_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(40), R.drawable.h_ace_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(41), R.drawable.h_two_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(42),
-				R.drawable.h_three_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(43), R.drawable.h_four_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(44), R.drawable.h_five_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(45), R.drawable.h_six_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(46),
-				R.drawable.h_seven_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(47),
-				R.drawable.h_eight_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(48), R.drawable.h_nine_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(49), R.drawable.h_ten_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(50), R.drawable.h_jack_h);
-		cardsHighlightedImagesMapping.put(Card.valueBy(51),
-				R.drawable.h_queen_h);
-		cardsHighlightedImagesMapping
-				.put(Card.valueBy(52), R.drawable.h_king_h);
+		updateTitle();
 
 		CardsViews.aces[0] = ((ImageView) findViewById(R.id.imageView1));
 		CardsViews.aces[1] = ((ImageView) findViewById(R.id.imageView2));
@@ -559,6 +566,7 @@ public class GameActivity extends Activity {
 				CardsViews.deal, CardsViews.discard[0], CardsViews.discard[1],
 				CardsViews.discard[2] };
 		CardsViews.all = all;
+		CardsViews.forget();
 		resizeImageViews();
 
 		((ImageView) findViewById(R.id.imageView100))
@@ -580,25 +588,23 @@ public class GameActivity extends Activity {
 				if (view == CardsViews.deal) {
 					board.clearHighlighting();
 
-					board.numCardsInDiscardView.add(board.discardPile
-							.getNumViewableCards());
+					int numCardsInDiscardView = board.discardPile
+							.getNumViewableCards();
 					Card clickedCard = board.dealDeck.pop();
 
 					if (clickedCard != null) {
-						board.sourceList.add(board.dealDeck);
-						board.destinationList.add(board.discardPile);
-						board.numCards.add(board.discardPile
-								.getNumViewableCards());
+						board.undoJournal.record(HeadlessBoard.DEAL_DECK,
+								HeadlessBoard.DISCARD_PILE,
+								board.discardPile.getNumViewableCards(),
+								numCardsInDiscardView);
 					} else if (board.dealDeck.hasDealsLeft() == true) {
 						/*
 						 * The deck was reset but the player hasn't used up the
 						 * times through the deck.
 						 */
-						board.sourceList.add(board.dealDeck);
-						board.destinationList.add(board.discardPile);
-						board.numCards.add(0);
-					} else {
-						board.numCardsInDiscardView.removeLast();
+						board.undoJournal.record(HeadlessBoard.DEAL_DECK,
+								HeadlessBoard.DISCARD_PILE, 0,
+								numCardsInDiscardView);
 					}
 				}
 
@@ -0,0 +1,447 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Class: GameJournal
+ * 
+ * Description: The GameJournal class appends the result of each game to a
+ * binary file. Each game is a fixed-width record of 32 bytes: time stamp
+ * (long), deal number (long), game time in seconds (int), number of moves
+ * (int), draw count, difficulty value and result (bytes), one reserved byte
+ * and CRC32 of the previous 28 bytes (int). The file is forced on the storage
+ * device after a batch of records. A background task rolls the records up
+ * into the statistics file, which keeps the journal offset up to which the
+ * games are counted, so each game is counted once. A torn record at the end
+ * of the file is cut when the journal is opened.
+ * 
+ * @author Todor Balabanov
+ */
+class GameJournal {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(GameJournal.class
+			.getName());
+
+	/**
+	 * Size of a single game record in bytes.
+	 */
+	static final int RECORD_SIZE = 32;
+
+	/**
+	 * Size of the checked part of the record in bytes.
+	 */
+	private static final int CHECKED_SIZE = RECORD_SIZE - 4;
+
+	/**
+	 * Number of records appended before the file is forced.
+	 */
+	private static final int SYNC_BATCH = 16;
+
+	/**
+	 * Seconds between two roll ups in the background.
+	 */
+	private static final long COMPACTION_PERIOD = 60;
+
+	/**
+	 * Result of a lost game.
+	 */
+	static final int LOST = 0;
+
+	/**
+	 * Result of a won game.
+	 */
+	static final int WON = 1;
+
+	/**
+	 * Journal file.
+	 */
+	private final RandomAccessFile file;
+
+	/**
+	 * Journal file channel.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Statistics to roll the games up into.
+	 */
+	private final StatisticsStore statistics;
+
+	/**
+	 * Record buffer.
+	 */
+	private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+	/**
+	 * Record checksum.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Size of the valid records in bytes.
+	 */
+	private long size = 0;
+
+	/**
+	 * Number of records appended after the last force.
+	 */
+	private int unsynced = 0;
+
+	/**
+	 * Background roll up executor.
+	 */
+	private ScheduledExecutorService compactor = null;
+
+	/**
+	 * Opens the journal and cuts the invalid records at the end of the file.
+	 * 
+	 * @param file
+	 *            Journal file.
+	 * 
+	 * @param statistics
+	 *            Statistics to roll the games up into.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	GameJournal(File file, StatisticsStore statistics) throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.channel = this.file.getChannel();
+		this.statistics = statistics;
+
+		long length = channel.size() - channel.size() % RECORD_SIZE;
+		long offset = statistics.getJournalOffset();
+		if (offset > length || offset % RECORD_SIZE != 0) {
+			/*
+			 * The journal was replaced, so the counted games are not known.
+			 */
+			offset = length;
+			statistics.setJournalOffset(offset);
+			statistics.force();
+		}
+
+		/*
+		 * Only the records which are not counted yet are checked. Records
+		 * after an invalid one are not trusted.
+		 */
+		size = offset;
+		while (size < length && read(channel, size, record) == true) {
+			size += RECORD_SIZE;
+		}
+
+		if (size < channel.size()) {
+			LOGGER.info("Game journal is cut from " + channel.size() + " to "
+					+ size + " bytes!");
+			channel.truncate(size);
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Reads a record and checks it.
+	 * 
+	 * @param channel
+	 *            Journal file channel.
+	 * 
+	 * @param position
+	 *            Position of the record in bytes.
+	 * 
+	 * @param record
+	 *            Record buffer.
+	 * 
+	 * @return True if the record is read and valid, false otherwise.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean read(FileChannel channel, long position, ByteBuffer record)
+			throws IOException {
+		record.clear();
+		while (record.hasRemaining() == true) {
+			if (channel.read(record, position + record.position()) < 0) {
+				return false;
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 0, CHECKED_SIZE);
+		return (int) crc.getValue() == record.getInt(CHECKED_SIZE);
+	}
+
+	/**
+	 * Returns the difficulty with a value.
+	 * 
+	 * @param value
+	 *            Difficulty value.
+	 * 
+	 * @return Difficulty or null if there is no difficulty with such value.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static GameDifficulty difficulty(int value) {
+		for (GameDifficulty difficulty : GameDifficulty.values()) {
+			if (difficulty.getValue() == value) {
+				return difficulty;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Appends the result of a game.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @param drawCount
+	 *            Draw count.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @param result
+	 *            WON or LOST.
+	 * 
+	 * @param time
+	 *            Game time in seconds.
+	 * 
+	 * @param moves
+	 *            Number of moves.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void append(long dealNumber, int drawCount,
+			GameDifficulty difficulty, int result, int time, int moves)
+			throws IOException {
+		record.clear();
+		record.putLong(System.currentTimeMillis());
+		record.putLong(dealNumber);
+		record.putInt(time);
+		record.putInt(moves);
+		record.put((byte) drawCount);
+		record.put((byte) difficulty.getValue());
+		record.put((byte) result);
+		record.put((byte) 0);
+
+		crc.reset();
+		crc.update(record.array(), 0, CHECKED_SIZE);
+		record.putInt((int) crc.getValue());
+
+		record.flip();
+		while (record.hasRemaining() == true) {
+			channel.write(record, size + record.position());
+		}
+		size += RECORD_SIZE;
+
+		unsynced++;
+		if (unsynced >= SYNC_BATCH) {
+			sync();
+		}
+	}
+
+	/**
+	 * Forces the appended records on the storage device.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void sync() throws IOException {
+		if (unsynced == 0) {
+			return;
+		}
+
+		channel.force(false);
+		unsynced = 0;
+	}
+
+	/**
+	 * Rolls the games which are not counted yet up into the statistics.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void compact() throws IOException {
+		long offset = statistics.getJournalOffset();
+		if (offset >= size) {
+			return;
+		}
+
+		/*
+		 * The records should be on the storage device before they are
+		 * counted.
+		 */
+		sync();
+
+		for (; offset < size; offset += RECORD_SIZE) {
+			if (read(channel, offset, record) == false) {
+				break;
+			}
+
+			GameDifficulty difficulty = difficulty(record.get(25));
+			if (difficulty == null) {
+				continue;
+			}
+
+			int bucket = StatisticsStore.bucket(record.get(24), difficulty);
+			if (bucket == -1) {
+				continue;
+			}
+
+			if (record.get(26) == WON) {
+				statistics.recordWin(bucket);
+			} else {
+				statistics.recordLoss(bucket);
+			}
+		}
+
+		statistics.setJournalOffset(offset);
+		statistics.force();
+	}
+
+	/**
+	 * Rolls up the games which are not counted yet and clears the statistics.
+	 * The games stay in the journal.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void reset() throws IOException {
+		compact();
+
+		statistics.reset();
+		statistics.force();
+	}
+
+	/**
+	 * Starts the background roll up.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void start() {
+		if (compactor != null) {
+			return;
+		}
+
+		compactor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "game-journal");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+
+		compactor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					compact();
+				} catch (IOException ex) {
+					LOGGER.info("Game journal roll up failed: " + ex + "!");
+				}
+			}
+		}, COMPACTION_PERIOD, COMPACTION_PERIOD, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops the background roll up, rolls up the last games and closes the
+	 * journal.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void close() throws IOException {
+		if (compactor != null) {
+			compactor.shutdown();
+			compactor = null;
+		}
+
+		compact();
+		file.close();
+	}
+
+	/**
+	 * Prints the valid records of a journal file as comma separated values.
+	 * 
+	 * @param args
+	 *            Journal file name.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: GameJournal file");
+			return;
+		}
+
+		RandomAccessFile file = new RandomAccessFile(args[0], "r");
+		try {
+			FileChannel channel = file.getChannel();
+			ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+			System.out.println("time,deal,draw,difficulty,result,seconds,moves");
+			long length = channel.size() - channel.size() % RECORD_SIZE;
+			for (long position = 0; position < length; position += RECORD_SIZE) {
+				if (read(channel, position, record) == false) {
+					break;
+				}
+
+				System.out.println(record.getLong(0) + "," + record.getLong(8)
+						+ "," + record.get(24) + "," + difficulty(record.get(25))
+						+ "," + (record.get(26) == WON ? "won" : "lost") + ","
+						+ record.getInt(16) + "," + record.getInt(20));
+			}
+		} finally {
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,1158 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.veldsoft.free.klondike;
+
+import java.util.List;
+
+/**
+ * Class: HeadlessBoard
+ * 
+ * Description: The HeadlessBoard class keeps the whole playing field in
+ * primitive arrays. It has the same move rules as SolitaireBoard, but it does
+ * not use Card objects, highlighting or any kind of user interface. Cards are
+ * represented by their full number (1-52) and zero stands for no card. After
+ * construction the board does not allocate memory, so it is suitable for batch
+ * simulations.
+ * 
+ * Piles are addressed with the same numbering as in the saved game file: cells
+ * (0-3), columns (4-7), ace piles (8-11), deal deck (12) and discard pile (13).
+ * 
+ * @author Todor Balabanov
+ */
+class HeadlessBoard {
+
+	/**
+	 * Index of the first single cell.
+	 */
+	static final int CELLS = 0;
+
+	/**
+	 * Index of the first column.
+	 */
+	static final int COLUMNS = 4;
+
+	/**
+	 * Index of the first ace pile (spades, clubs, diamonds, hearts).
+	 */
+	static final int ACE_PILES = 8;
+
+	/**
+	 * Index of the deal deck.
+	 */
+	static final int DEAL_DECK = 12;
+
+	/**
+	 * Index of the discard pile.
+	 */
+	static final int DISCARD_PILE = 13;
+
+	/**
+	 * Total number of piles on the board.
+	 */
+	static final int NUMBER_OF_PILES = 14;
+
+	/**
+	 * Number of cards in the deck.
+	 */
+	static final int DECK_SIZE = 52;
+
+	/**
+	 * Number of cards in a single suit.
+	 */
+	static final int SUIT_SIZE = 13;
+
+	/**
+	 * Upper bound of the number of moves in a single position.
+	 */
+	static final int MAX_MOVES = 256;
+
+	/**
+	 * Number of cards in each column after the deal.
+	 */
+	private static final int INITIAL_CARDS_NUMBER_IN_COLUMN = 5;
+
+	/**
+	 * Cards in the four columns. Column i occupies the range [i * 52, i * 52 +
+	 * 52).
+	 */
+	private final byte[] columns = new byte[4 * DECK_SIZE];
+
+	/**
+	 * Number of cards in each column.
+	 */
+	private final byte[] columnLengths = new byte[4];
+
+	/**
+	 * Cards in the four single cells.
+	 */
+	private final byte[] cells = new byte[4];
+
+	/**
+	 * Rank of the top card in each ace pile. The content of an ace pile is
+	 * fully defined by its top card.
+	 */
+	private final byte[] aces = new byte[4];
+
+	/**
+	 * Cards in the deal deck. The last card is the top of the deck.
+	 */
+	private final byte[] dealDeck = new byte[DECK_SIZE];
+
+	/**
+	 * Number of cards in the deal deck.
+	 */
+	private int dealDeckLength = 0;
+
+	/**
+	 * Cards in the discard pile. The last card is the top of the pile.
+	 */
+	private final byte[] discardPile = new byte[DECK_SIZE];
+
+	/**
+	 * Number of cards in the discard pile.
+	 */
+	private int discardPileLength = 0;
+
+	/**
+	 * Cards left from the last draw from the deal deck.
+	 */
+	private int cardsLeftFromDraw = 0;
+
+	/**
+	 * Can be 1 or 3.
+	 */
+	private int drawCount = 1;
+
+	/**
+	 * Game difficulty.
+	 */
+	private GameDifficulty difficulty = GameDifficulty.EASY;
+
+	/**
+	 * Counts how many times we've gone through the deck.
+	 */
+	private int numTimesThroughDeck = 1;
+
+	/**
+	 * Allowed number of deck throughs.
+	 */
+	private int deckThroughLimit = ThroughLimit.EASY.getThroughs();
+
+	/**
+	 * Keeps track if the deck is redealable.
+	 */
+	private boolean redealable = true;
+
+	/**
+	 * Zobrist hash of the cards on the board. It is updated on each card
+	 * move.
+	 */
+	private long hash = 0;
+
+	/**
+	 * Rank of a card (1-13).
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @return Card rank.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int rank(int card) {
+		return (card - 1) % SUIT_SIZE + 1;
+	}
+
+	/**
+	 * Suit of a card. It is the same as the index of the CardSuit enum.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @return Card suit index (0-3).
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int suit(int card) {
+		return (card - 1) / SUIT_SIZE;
+	}
+
+	/**
+	 * Color of a card. It is the same as the index of the CardColor enum.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @return Zero for black and one for red.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int color(int card) {
+		return suit(card) >> 1;
+	}
+
+	/**
+	 * Packs a move in a single integer.
+	 * 
+	 * @param source
+	 *            Source pile index.
+	 * 
+	 * @param destination
+	 *            Destination pile index.
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards to be moved.
+	 * 
+	 * @return Packed move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int packMove(int source, int destination, int numberOfCards) {
+		return source | destination << 4 | numberOfCards << 8;
+	}
+
+	/**
+	 * Source pile of a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Source pile index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int moveSource(int move) {
+		return move & 0xF;
+	}
+
+	/**
+	 * Destination pile of a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Destination pile index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int moveDestination(int move) {
+		return move >> 4 & 0xF;
+	}
+
+	/**
+	 * Number of cards in a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int moveCards(int move) {
+		return move >> 8;
+	}
+
+	/**
+	 * Checks if a card can be placed on top of other card in a column.
+	 * 
+	 * @param card
+	 *            Card to be placed.
+	 * 
+	 * @param top
+	 *            Top card of the column or zero for an empty column.
+	 * 
+	 * @return True if the move is valid, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static boolean isValidOnColumn(int card, int top) {
+		return CardRules.isValidOnColumn(card, top);
+	}
+
+	/**
+	 * Clears the board and sets the deal counters to their initial values.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void clear() {
+		for (int i = 0; i < 4; i++) {
+			columnLengths[i] = 0;
+			cells[i] = 0;
+			aces[i] = 0;
+		}
+
+		dealDeckLength = 0;
+		discardPileLength = 0;
+		cardsLeftFromDraw = 0;
+		numTimesThroughDeck = 1;
+		redealable = true;
+		hash = 0;
+	}
+
+	/**
+	 * Deals a shuffled deck in the same way as SolitaireBoard.dealOutBoard().
+	 * The cards are taken from the end of the array.
+	 * 
+	 * @param deck
+	 *            Full card numbers of all 52 cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void deal(int[] deck) {
+		clear();
+
+		int last = deck.length - 1;
+
+		/*
+		 * Fill five cards by column.
+		 */
+		for (int i = 0; i < INITIAL_CARDS_NUMBER_IN_COLUMN; i++) {
+			for (int j = 0; j < 4; j++) {
+				push(COLUMNS + j, deck[last--]);
+			}
+		}
+
+		/*
+		 * Fill cards in buffer area.
+		 */
+		for (int j = 0; j < 4; j++) {
+			push(CELLS + j, deck[last--]);
+		}
+
+		for (int i = 0; i <= last; i++) {
+			push(DEAL_DECK, deck[i]);
+		}
+	}
+
+	/**
+	 * Deals a board in the same way as SolitaireBoard.dealOutCustomBoard().
+	 * 
+	 * @param numbers
+	 *            Card numbers of all piles, each pile is terminated by a non
+	 *            positive number.
+	 * 
+	 * @param numViewableCards
+	 *            Number of viewable cards in the discard pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void deal(List<Integer> numbers, int numViewableCards) {
+		clear();
+
+		int pile = 0;
+		for (int i = 0; i < numbers.size(); i++) {
+			int card = numbers.get(i).intValue();
+
+			if (card <= 0) {
+				pile++;
+				continue;
+			}
+
+			if (pile == DISCARD_PILE) {
+				pushDiscard(card);
+			} else if (pile < NUMBER_OF_PILES) {
+				push(pile, card);
+			}
+		}
+
+		cardsLeftFromDraw = numViewableCards;
+	}
+
+	/**
+	 * Copies the state of other board in this board without memory
+	 * allocation.
+	 * 
+	 * @param board
+	 *            Board to be copied.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void copyFrom(HeadlessBoard board) {
+		System.arraycopy(board.columns, 0, columns, 0, columns.length);
+		System.arraycopy(board.columnLengths, 0, columnLengths, 0,
+				columnLengths.length);
+		System.arraycopy(board.cells, 0, cells, 0, cells.length);
+		System.arraycopy(board.aces, 0, aces, 0, aces.length);
+		System.arraycopy(board.dealDeck, 0, dealDeck, 0, board.dealDeckLength);
+		System.arraycopy(board.discardPile, 0, discardPile, 0,
+				board.discardPileLength);
+
+		dealDeckLength = board.dealDeckLength;
+		discardPileLength = board.discardPileLength;
+		cardsLeftFromDraw = board.cardsLeftFromDraw;
+		drawCount = board.drawCount;
+		difficulty = board.difficulty;
+		numTimesThroughDeck = board.numTimesThroughDeck;
+		deckThroughLimit = board.deckThroughLimit;
+		redealable = board.redealable;
+		hash = board.hash;
+	}
+
+	/**
+	 * Copies the position of a played game, so it can be searched without
+	 * changing the game. The hash code is the same as the hash code of the
+	 * played board.
+	 * 
+	 * @param board
+	 *            Board to be copied.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void copyFrom(SolitaireBoard board) {
+		clear();
+		drawCount = board.getDrawCount();
+		difficulty = board.getDifficulty();
+
+		for (int pile = 0; pile < NUMBER_OF_PILES; pile++) {
+			CardStack stack = board.getStack(pile);
+
+			for (int i = 0; i < stack.length(); i++) {
+				push(pile, stack.getCardAtLocation(i).getFullNumber());
+			}
+		}
+
+		cardsLeftFromDraw = board.discardPile.cardsLeftFromDraw;
+		numTimesThroughDeck = board.dealDeck.numTimesThroughDeck;
+		deckThroughLimit = board.dealDeck.deckThroughLimit;
+		redealable = board.dealDeck.hasDealsLeft();
+	}
+
+	/**
+	 * Returns the draw count.
+	 * 
+	 * @return Current draw count.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getDrawCount() {
+		return drawCount;
+	}
+
+	/**
+	 * Sets the draw count. Draw three has an extra deck through.
+	 * 
+	 * @param draw
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setDrawCount(int draw) {
+		drawCount = (draw == 3) ? 3 : 1;
+		updateDeckThroughLimit();
+	}
+
+	/**
+	 * Returns game difficulty.
+	 * 
+	 * @return Current game difficulty.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	GameDifficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * Sets game difficulty, which defines the number of deck throughs.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setDifficulty(GameDifficulty difficulty) {
+		this.difficulty = difficulty;
+		updateDeckThroughLimit();
+	}
+
+	/**
+	 * Calculates deck through limit in the same way as DealDeck does.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void updateDeckThroughLimit() {
+		if (difficulty == GameDifficulty.HARD) {
+			deckThroughLimit = ThroughLimit.HARD.getThroughs();
+		} else if (difficulty == GameDifficulty.MEDIUM) {
+			deckThroughLimit = ThroughLimit.MEDIUM.getThroughs();
+		} else {
+			deckThroughLimit = ThroughLimit.EASY.getThroughs();
+		}
+
+		if (drawCount == 3) {
+			deckThroughLimit++;
+		}
+	}
+
+	/**
+	 * Returns the number of times we've gone through the deck.
+	 * 
+	 * @return Deck throughs.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getDeckThroughs() {
+		return numTimesThroughDeck;
+	}
+
+	/**
+	 * Sets the number of times we've gone through the deck.
+	 * 
+	 * @param throughs
+	 *            Deck throughs.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setDeckThroughs(int throughs) {
+		numTimesThroughDeck = throughs;
+	}
+
+	/**
+	 * Returns the cards left from the last draw from the deal deck.
+	 * 
+	 * @return Number of viewable cards in the discard pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getNumViewableCards() {
+		return cardsLeftFromDraw;
+	}
+
+	/**
+	 * Returns false if the deck through limit has been reached.
+	 * 
+	 * @return True if the deck is redealable, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean hasDealsLeft() {
+		return redealable;
+	}
+
+	/**
+	 * Returns the number of cards in a pile.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int length(int pile) {
+		if (pile < COLUMNS) {
+			return cells[pile - CELLS] == 0 ? 0 : 1;
+		} else if (pile < ACE_PILES) {
+			return columnLengths[pile - COLUMNS];
+		} else if (pile < DEAL_DECK) {
+			return aces[pile - ACE_PILES];
+		} else if (pile == DEAL_DECK) {
+			return dealDeckLength;
+		} else {
+			return discardPileLength;
+		}
+	}
+
+	/**
+	 * Checks if a pile is empty.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return True if there are no cards in the pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isEmpty(int pile) {
+		return length(pile) == 0;
+	}
+
+	/**
+	 * Returns the card at a specified location within a pile.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @param index
+	 *            Location within the pile, zero is the bottom.
+	 * 
+	 * @return Card full number or zero if there is no such card.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getCardAtLocation(int pile, int index) {
+		if (index < 0 || index >= length(pile)) {
+			return 0;
+		}
+
+		if (pile < COLUMNS) {
+			return cells[pile - CELLS];
+		} else if (pile < ACE_PILES) {
+			return columns[(pile - COLUMNS) * DECK_SIZE + index];
+		} else if (pile < DEAL_DECK) {
+			return (pile - ACE_PILES) * SUIT_SIZE + index + 1;
+		} else if (pile == DEAL_DECK) {
+			return dealDeck[index];
+		} else {
+			return discardPile[index];
+		}
+	}
+
+	/**
+	 * Returns the top card of a pile.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return Card full number or zero if the pile is empty.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int peek(int pile) {
+		return getCardAtLocation(pile, length(pile) - 1);
+	}
+
+	/**
+	 * Puts a card on top of a pile without any rules check.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @param card
+	 *            Card full number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void push(int pile, int card) {
+		hash ^= Zobrist.card(pile, length(pile), card);
+
+		if (pile < COLUMNS) {
+			cells[pile - CELLS] = (byte) card;
+		} else if (pile < ACE_PILES) {
+			int column = pile - COLUMNS;
+			columns[column * DECK_SIZE + columnLengths[column]] = (byte) card;
+			columnLengths[column]++;
+		} else if (pile < DEAL_DECK) {
+			aces[pile - ACE_PILES] = (byte) rank(card);
+		} else if (pile == DEAL_DECK) {
+			dealDeck[dealDeckLength++] = (byte) card;
+		} else {
+			discardPile[discardPileLength++] = (byte) card;
+		}
+	}
+
+	/**
+	 * Takes the top card of a pile without any rules check.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return Card full number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int pop(int pile) {
+		int card = peek(pile);
+		hash ^= Zobrist.card(pile, length(pile) - 1, card);
+
+		if (pile < COLUMNS) {
+			cells[pile - CELLS] = 0;
+		} else if (pile < ACE_PILES) {
+			columnLengths[pile - COLUMNS]--;
+		} else if (pile < DEAL_DECK) {
+			aces[pile - ACE_PILES]--;
+		} else if (pile == DEAL_DECK) {
+			dealDeckLength--;
+		} else {
+			discardPileLength--;
+
+			/*
+			 * After a player removes the top card of draw 3, it shouldn't
+			 * display the top 3 cards.
+			 */
+			if (cardsLeftFromDraw > 0) {
+				cardsLeftFromDraw--;
+			}
+		}
+
+		return card;
+	}
+
+	/**
+	 * Puts a card in the discard pile as a draw from the deal deck.
+	 * 
+	 * @param card
+	 *            Card full number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void pushDiscard(int card) {
+		if (drawCount == 1) {
+			cardsLeftFromDraw = 0;
+		}
+
+		push(DISCARD_PILE, card);
+		cardsLeftFromDraw++;
+	}
+
+	/**
+	 * Checks if a pile can give its top card(s) to other pile.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return True if the pile is a valid source.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private boolean isSource(int pile) {
+		return pile >= 0 && pile < NUMBER_OF_PILES && pile != DEAL_DECK
+				&& isEmpty(pile) == false;
+	}
+
+	/**
+	 * Verifies that the top cards of a column are part of a valid stack.
+	 * 
+	 * @param pile
+	 *            Column pile index.
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards from the top of the column.
+	 * 
+	 * @return True if the cards are of alternating colors and decreasing
+	 *         ranks.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isValidStack(int pile, int numberOfCards) {
+		int column = pile - COLUMNS;
+		int length = columnLengths[column];
+
+		if (numberOfCards < 1 || numberOfCards > length) {
+			return false;
+		}
+
+		int offset = column * DECK_SIZE;
+		for (int i = length - numberOfCards; i < length - 1; i++) {
+			if (isValidOnColumn(columns[offset + i + 1], columns[offset + i]) == false) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if a card can be moved to an ace pile.
+	 * 
+	 * @param card
+	 *            Card full number.
+	 * 
+	 * @param index
+	 *            Index of the ace pile (0-3).
+	 * 
+	 * @return True if the move is valid.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isValidOnAcePile(int card, int index) {
+		return suit(card) == index && rank(card) == aces[index] + 1;
+	}
+
+	/**
+	 * Try to move the top card of a pile to its ace pile.
+	 * 
+	 * @param source
+	 *            Source pile index.
+	 * 
+	 * @param index
+	 *            Index of the ace pile to be used (0-3).
+	 * 
+	 * @return True if the move was done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean moveToAces(int source, int index) {
+		if (isSource(source) == false || source >= ACE_PILES
+				&& source < DEAL_DECK) {
+			return false;
+		}
+
+		if (isValidOnAcePile(peek(source), index) == false) {
+			return false;
+		}
+
+		push(ACE_PILES + index, pop(source));
+		return true;
+	}
+
+	/**
+	 * Try to move the top card of a pile to one of the single cells.
+	 * 
+	 * @param source
+	 *            Source pile index.
+	 * 
+	 * @param index
+	 *            Index of the single cell to be used (0-3).
+	 * 
+	 * @return True if the move was done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean moveToCells(int source, int index) {
+		/*
+		 * Single cells can hold only single card.
+		 */
+		if (cells[index] != 0) {
+			return false;
+		}
+
+		if (isSource(source) == false) {
+			return false;
+		}
+
+		push(CELLS + index, pop(source));
+		return true;
+	}
+
+	/**
+	 * Try to move card(s) from a pile to one of the columns. Only columns can
+	 * give more than one card.
+	 * 
+	 * @param source
+	 *            Source pile index.
+	 * 
+	 * @param index
+	 *            Index of the column to be used (0-3).
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards to be moved.
+	 * 
+	 * @return True if the move was done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean moveToColumns(int source, int index, int numberOfCards) {
+		int destination = COLUMNS + index;
+
+		if (isSource(source) == false || source == destination) {
+			return false;
+		}
+
+		if (numberOfCards == 1) {
+			if (isValidOnColumn(peek(source), peek(destination)) == false) {
+				return false;
+			}
+
+			push(destination, pop(source));
+			return true;
+		}
+
+		if (source < COLUMNS || source >= ACE_PILES) {
+			return false;
+		}
+
+		if (isValidStack(source, numberOfCards) == false) {
+			return false;
+		}
+
+		int from = source - COLUMNS;
+		int start = from * DECK_SIZE + columnLengths[from] - numberOfCards;
+		if (isValidOnColumn(columns[start], peek(destination)) == false) {
+			return false;
+		}
+
+		int column = destination - COLUMNS;
+		for (int i = 0; i < numberOfCards; i++) {
+			int card = columns[start + i];
+			hash ^= Zobrist.card(source, columnLengths[from] - numberOfCards
+					+ i, card)
+					^ Zobrist.card(destination, columnLengths[column] + i, card);
+		}
+
+		System.arraycopy(columns, start, columns, column * DECK_SIZE
+				+ columnLengths[column], numberOfCards);
+		columnLengths[column] += numberOfCards;
+		columnLengths[from] -= numberOfCards;
+
+		return true;
+	}
+
+	/**
+	 * Pops card(s) out of the deal deck based on the draw count and puts them
+	 * in the discard pile. When the deal deck is empty the discard pile is
+	 * turned over, if the deck through limit allows it. It has the same
+	 * semantics as DealDeck.pop().
+	 * 
+	 * @return The top card of the discard pile after the draw or zero if no
+	 *         cards were drawn.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int popDealDeck() {
+		if (dealDeckLength > 0) {
+			if (drawCount == 1) {
+				int card = pop(DEAL_DECK);
+				pushDiscard(card);
+				return card;
+			}
+
+			/*
+			 * The drawn cards are turned over as a group, so the deepest of
+			 * them ends on top of the discard pile.
+			 */
+			cardsLeftFromDraw = 0;
+			for (int i = drawCount; i > 0 && dealDeckLength > 0; i--) {
+				pushDiscard(pop(DEAL_DECK));
+			}
+
+			return peek(DISCARD_PILE);
+		} else if (discardPileLength > 0
+				&& numTimesThroughDeck < deckThroughLimit) {
+			while (discardPileLength > 0) {
+				push(DEAL_DECK, pop(DISCARD_PILE));
+			}
+
+			numTimesThroughDeck++;
+		} else if (numTimesThroughDeck >= deckThroughLimit) {
+			redealable = false;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Moves card(s) between two piles according the type of the destination
+	 * pile. A move from the deal deck to the discard pile is a draw.
+	 * 
+	 * @param source
+	 *            Source pile index.
+	 * 
+	 * @param destination
+	 *            Destination pile index.
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards to be moved.
+	 * 
+	 * @return True if the move was done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean move(int source, int destination, int numberOfCards) {
+		if (source == DEAL_DECK && destination == DISCARD_PILE) {
+			int throughs = numTimesThroughDeck;
+			return popDealDeck() != 0 || throughs != numTimesThroughDeck;
+		} else if (destination < COLUMNS) {
+			return numberOfCards == 1
+					&& moveToCells(source, destination - CELLS);
+		} else if (destination < ACE_PILES) {
+			return moveToColumns(source, destination - COLUMNS, numberOfCards);
+		} else if (destination < DEAL_DECK) {
+			return numberOfCards == 1
+					&& moveToAces(source, destination - ACE_PILES);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks if a card can go to its ace pile without any risk. It is true
+	 * when the card is a two or lower, or both opposite color cards one rank
+	 * lower are already in the ace piles. In such case there is no card which
+	 * may need it as a base in the columns.
+	 * 
+	 * @param card
+	 *            Card full number.
+	 * 
+	 * @return True if the card is safe to be moved.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private boolean isSafeOnAcePile(int card) {
+		int rank = rank(card);
+		if (rank <= 2) {
+			return true;
+		}
+
+		/*
+		 * Ace piles of the opposite color.
+		 */
+		int first = (color(card) == 0) ? 2 : 0;
+		return aces[first] >= rank - 1 && aces[first + 1] >= rank - 1;
+	}
+
+	/**
+	 * Generates the moves which make sense in the current position. Moves
+	 * between single cells and moves of a whole column into an empty column
+	 * are skipped, because they only lead to equivalent positions. Only the
+	 * first empty single cell is used for the same reason and the cards in
+	 * the ace piles do not go to the cells. When a card can safely go to its
+	 * ace pile this is the only generated move. Other moves to the ace piles
+	 * come first.
+	 * 
+	 * @param moves
+	 *            Buffer for the packed moves with at least MAX_MOVES
+	 *            elements.
+	 * 
+	 * @return Number of generated moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int generateMoves(int[] moves) {
+		int count = 0;
+
+		/*
+		 * Cards which can go to the ace piles.
+		 */
+		for (int source = 0; source < NUMBER_OF_PILES; source++) {
+			if (source == ACE_PILES) {
+				source = DISCARD_PILE;
+			}
+
+			int card = peek(source);
+			if (card == 0 || isValidOnAcePile(card, suit(card)) == false) {
+				continue;
+			}
+
+			if (isSafeOnAcePile(card) == true) {
+				moves[0] = packMove(source, ACE_PILES + suit(card), 1);
+				return 1;
+			}
+
+			moves[count++] = packMove(source, ACE_PILES + suit(card), 1);
+		}
+
+		/*
+		 * Stacks of cards between the columns.
+		 */
+		for (int source = COLUMNS; source < ACE_PILES; source++) {
+			int length = length(source);
+
+			/*
+			 * Number of cards on top of the column which are in valid order.
+			 */
+			int run = 0;
+			while (run < length && isValidStack(source, run + 1) == true) {
+				run++;
+			}
+
+			for (int destination = COLUMNS; destination < ACE_PILES; destination++) {
+				if (source == destination) {
+					continue;
+				}
+
+				int top = peek(destination);
+				for (int n = 1; n <= run; n++) {
+					if (top == 0 && n == length) {
+						break;
+					}
+
+					if (isValidOnColumn(getCardAtLocation(source, length - n),
+							top) == true) {
+						moves[count++] = packMove(source, destination, n);
+						break;
+					}
+				}
+			}
+		}
+
+		/*
+		 * Single cards from the cells, the discard pile and the ace piles to
+		 * the columns.
+		 */
+		for (int source = 0; source < NUMBER_OF_PILES; source++) {
+			if (source == COLUMNS) {
+				source = ACE_PILES;
+			} else if (source == DEAL_DECK) {
+				continue;
+			}
+
+			int card = peek(source);
+			if (card == 0) {
+				continue;
+			}
+
+			for (int destination = COLUMNS; destination < ACE_PILES; destination++) {
+				if (isValidOnColumn(card, peek(destination)) == true) {
+					moves[count++] = packMove(source, destination, 1);
+				}
+			}
+		}
+
+		if (dealDeckLength > 0 || discardPileLength > 0
+				&& numTimesThroughDeck < deckThroughLimit) {
+			moves[count++] = packMove(DEAL_DECK, DISCARD_PILE, 1);
+		}
+
+		/*
+		 * Single cards to the first empty cell.
+		 */
+		for (int cell = CELLS; cell < COLUMNS; cell++) {
+			if (cells[cell - CELLS] != 0) {
+				continue;
+			}
+
+			for (int source = COLUMNS; source < NUMBER_OF_PILES; source++) {
+				if (source == ACE_PILES) {
+					source = DISCARD_PILE;
+				}
+
+				if (isEmpty(source) == false) {
+					moves[count++] = packMove(source, cell, 1);
+				}
+			}
+
+			break;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns the 64-bit Zobrist hash of the position. Equal positions have
+	 * equal hash codes. It is the same as the hash of a SolitaireBoard with
+	 * the same position.
+	 * 
+	 * @return Hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long hash() {
+		return hash ^ Zobrist.throughs(numTimesThroughDeck);
+	}
+
+	/**
+	 * Check is the solitaire solved.
+	 * 
+	 * @return True if all ace piles are full, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isSolved() {
+		for (int i = 0; i < aces.length; i++) {
+			if (aces[i] != SUIT_SIZE) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,371 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Class: MonteCarloEstimator
+ * 
+ * Description: The MonteCarloEstimator class estimates how winnable a
+ * position is. It plays many games from the position with a randomized
+ * policy and counts the won ones. The games are played on HeadlessBoard
+ * copies of the position, split between worker threads, and each worker has
+ * its own random generator, so nothing is shared while playing.
+ * 
+ * The policy always takes a move to the ace piles when there is one. Other
+ * moves are picked at random, but a move which only reverts the previous one
+ * is avoided. A game which is not won in the move limit is counted as lost.
+ * The estimate is for this policy, so it is a lower bound of the chances of a
+ * good player.
+ * 
+ * @author Todor Balabanov
+ */
+class MonteCarloEstimator {
+
+	/**
+	 * Default number of games to be played.
+	 */
+	static final int DEFAULT_ROLLOUTS = 10000;
+
+	/**
+	 * Default number of moves in a game before it is counted as lost.
+	 */
+	static final int DEFAULT_MAX_LENGTH = 1000;
+
+	/**
+	 * Games played from a copy of the position.
+	 */
+	private static class Worker implements Callable<WinEstimate> {
+
+		/**
+		 * Position to play from.
+		 */
+		private final HeadlessBoard root = new HeadlessBoard();
+
+		/**
+		 * Position of the current game.
+		 */
+		private final HeadlessBoard position = new HeadlessBoard();
+
+		/**
+		 * Buffer for the generated moves.
+		 */
+		private final int moves[] = new int[HeadlessBoard.MAX_MOVES];
+
+		/**
+		 * Random generator of the worker.
+		 */
+		private final Random random;
+
+		/**
+		 * Number of games to be played.
+		 */
+		private final int games;
+
+		/**
+		 * Number of moves in a game before it is counted as lost.
+		 */
+		private final int maxLength;
+
+		/**
+		 * Creates worker.
+		 * 
+		 * @param board
+		 *            Position to play from.
+		 * 
+		 * @param seed
+		 *            Seed of the random generator.
+		 * 
+		 * @param games
+		 *            Number of games to be played.
+		 * 
+		 * @param maxLength
+		 *            Number of moves in a game before it is counted as lost.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		Worker(HeadlessBoard board, long seed, int games, int maxLength) {
+			root.copyFrom(board);
+			this.random = new Random(seed);
+			this.games = games;
+			this.maxLength = maxLength;
+		}
+
+		/**
+		 * Plays a single game.
+		 * 
+		 * @return True if the game was won.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		private boolean play() {
+			position.copyFrom(root);
+
+			int last = 0;
+			for (int length = 0; length < maxLength; length++) {
+				if (position.isSolved() == true) {
+					return true;
+				}
+
+				int count = position.generateMoves(moves);
+				if (count == 0) {
+					return false;
+				}
+
+				int move = pick(count, last);
+				if (position.move(HeadlessBoard.moveSource(move),
+						HeadlessBoard.moveDestination(move),
+						HeadlessBoard.moveCards(move)) == false) {
+					return false;
+				}
+				last = move;
+			}
+
+			return position.isSolved();
+		}
+
+		/**
+		 * Picks the next move of the policy.
+		 * 
+		 * @param count
+		 *            Number of generated moves.
+		 * 
+		 * @param last
+		 *            Previous move or zero.
+		 * 
+		 * @return Packed move.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		private int pick(int count, int last) {
+			/*
+			 * The moves to the ace piles come first.
+			 */
+			int destination = HeadlessBoard.moveDestination(moves[0]);
+			if (destination >= HeadlessBoard.ACE_PILES
+					&& destination < HeadlessBoard.DEAL_DECK) {
+				return moves[0];
+			}
+
+			int start = random.nextInt(count);
+			for (int i = 0; i < count; i++) {
+				int move = moves[(start + i) % count];
+
+				if (HeadlessBoard.moveSource(move) != HeadlessBoard
+						.moveDestination(last)
+						|| HeadlessBoard.moveDestination(move) != HeadlessBoard
+								.moveSource(last)
+						|| HeadlessBoard.moveCards(move) != HeadlessBoard
+								.moveCards(last)) {
+					return move;
+				}
+			}
+
+			return moves[start];
+		}
+
+		/**
+		 * Plays the games of the worker. When the worker is interrupted it
+		 * stops early, so fewer games than its share may be played.
+		 * 
+		 * @return Won games out of the played games.
+		 * 
+		 * @author Todor Balabanov
+		 */
+		public WinEstimate call() {
+			int wins = 0;
+			int played = 0;
+
+			for (; played < games; played++) {
+				if (Thread.currentThread().isInterrupted() == true) {
+					break;
+				}
+
+				if (play() == true) {
+					wins++;
+				}
+			}
+
+			return new WinEstimate(wins, played);
+		}
+	}
+
+	/**
+	 * Number of worker threads.
+	 */
+	private final int threads;
+
+	/**
+	 * Number of games to be played for an estimate.
+	 */
+	private final int rollouts;
+
+	/**
+	 * Number of moves in a game before it is counted as lost.
+	 */
+	private final int maxLength;
+
+	/**
+	 * Worker threads.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Creates estimator which uses all available processors.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public MonteCarloEstimator() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_ROLLOUTS,
+				DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * Creates estimator.
+	 * 
+	 * @param threads
+	 *            Number of worker threads.
+	 * 
+	 * @param rollouts
+	 *            Number of games to be played for an estimate.
+	 * 
+	 * @param maxLength
+	 *            Number of moves in a game before it is counted as lost.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public MonteCarloEstimator(int threads, int rollouts, int maxLength) {
+		this.threads = Math.max(1, threads);
+		this.rollouts = Math.max(1, rollouts);
+		this.maxLength = Math.max(1, maxLength);
+
+		if (this.threads > 1) {
+			executor = Executors.newFixedThreadPool(this.threads,
+					new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"MonteCarloEstimator");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		} else {
+			executor = null;
+		}
+	}
+
+	/**
+	 * Estimates the chances to win a played game. The game is copied, so it
+	 * should be called from the thread which plays on the board, but the
+	 * games are played on the copies.
+	 * 
+	 * @param board
+	 *            Played game.
+	 * 
+	 * @return Win rate with confidence interval.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public WinEstimate estimate(SolitaireBoard board) {
+		HeadlessBoard position = new HeadlessBoard();
+		position.copyFrom(board);
+
+		return estimate(position, Common.PRNG.nextLong());
+	}
+
+	/**
+	 * Estimates the chances to win a position. The board is not changed. The
+	 * same seed gives the same estimate for the same number of threads. If the
+	 * calling thread is interrupted, the workers are cancelled, the interrupt
+	 * flag is kept and the estimate has only the games played so far.
+	 * 
+	 * @param board
+	 *            Position to be estimated.
+	 * 
+	 * @param seed
+	 *            Seed of the random generators.
+	 * 
+	 * @return Win rate with confidence interval.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized WinEstimate estimate(HeadlessBoard board, long seed) {
+		if (executor == null) {
+			return new Worker(board, seed, rollouts, maxLength).call();
+		}
+
+		List<Future<WinEstimate>> results = new ArrayList<Future<WinEstimate>>();
+		for (int i = 0; i < threads; i++) {
+			int share = rollouts / threads + (i < rollouts % threads ? 1 : 0);
+			results.add(executor.submit(new Worker(board, seed + i, share,
+					maxLength)));
+		}
+
+		int wins = 0;
+		int games = 0;
+		for (int i = 0; i < results.size(); i++) {
+			try {
+				WinEstimate result = results.get(i).get();
+				wins += result.getWins();
+				games += result.getGames();
+			} catch (ExecutionException ex) {
+				/*
+				 * Games of a failed worker are not counted.
+				 */
+			} catch (CancellationException ex) {
+				/*
+				 * Games of a cancelled worker are not counted.
+				 */
+			} catch (InterruptedException ex) {
+				/*
+				 * The caller is interrupted, so the other workers are stopped
+				 * and the games collected so far are returned.
+				 */
+				for (Future<WinEstimate> result : results) {
+					result.cancel(true);
+				}
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		return new WinEstimate(wins, games);
+	}
+
+	/**
+	 * Stops the worker threads.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: Move
+ * 
+ * Description: The Move class describes a single move on the board - source
+ * stack, destination stack and number of cards. Instances are mutable and
+ * owned by MoveGenerator, so they are reused between calls and should not be
+ * stored. The text of the move is built only when toString() is called.
+ * 
+ * @author Todor Balabanov
+ */
+class Move {
+
+	/**
+	 * Stack the cards are taken from.
+	 */
+	private CardStack source = null;
+
+	/**
+	 * Stack the cards are put on.
+	 */
+	private CardStack destination = null;
+
+	/**
+	 * Number of cards moved.
+	 */
+	private int numberOfCards = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	Move() {
+	}
+
+	/**
+	 * Sets all fields of the move.
+	 * 
+	 * @param source
+	 *            Stack the cards are taken from.
+	 * 
+	 * @param destination
+	 *            Stack the cards are put on.
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards moved.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void set(CardStack source, CardStack destination, int numberOfCards) {
+		this.source = source;
+		this.destination = destination;
+		this.numberOfCards = numberOfCards;
+	}
+
+	/**
+	 * Returns the source stack.
+	 * 
+	 * @return Stack the cards are taken from.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public CardStack getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns the destination stack.
+	 * 
+	 * @return Stack the cards are put on.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public CardStack getDestination() {
+		return destination;
+	}
+
+	/**
+	 * Returns the number of cards moved.
+	 * 
+	 * @return Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int getNumberOfCards() {
+		return numberOfCards;
+	}
+
+	/**
+	 * Checks if the move is a draw from the deal deck.
+	 * 
+	 * @return True if the move is a draw, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public boolean isDraw() {
+		return source instanceof DealDeck;
+	}
+
+	/**
+	 * Returns the deepest of the moved cards, the one which is put directly on
+	 * the destination.
+	 * 
+	 * @return Card or null if the move is a draw.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Card getCard() {
+		if (isDraw() == true) {
+			return null;
+		}
+
+		return source.getCardAtLocation(source.length() - numberOfCards);
+	}
+
+	/**
+	 * Returns the name of a card as it is shown in the hints.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Card name.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static String name(Card card) {
+		String rank = "";
+
+		if (card.getRank().equals(CardRank.JACK)) {
+			rank = "Jack";
+		} else if (card.getRank().equals(CardRank.QUEEN)) {
+			rank = "Queen";
+		} else if (card.getRank().equals(CardRank.KING)) {
+			rank = "King";
+		} else if (card.getRank().equals(CardRank.ACE)) {
+			rank = "Ace";
+		} else {
+			rank = "" + card.getRank();
+		}
+
+		return rank + " of " + card.getSuit();
+	}
+
+	/**
+	 * Returns the name of a stack as it is shown in the hints.
+	 * 
+	 * @param stack
+	 *            Stack.
+	 * 
+	 * @return Stack name.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static String name(CardStack stack) {
+		int pile = stack.getPile();
+
+		if (pile >= HeadlessBoard.CELLS && pile < HeadlessBoard.COLUMNS) {
+			return "Cell " + (pile - HeadlessBoard.CELLS + 1);
+		} else if (pile >= HeadlessBoard.COLUMNS
+				&& pile < HeadlessBoard.ACE_PILES) {
+			return "Column " + (pile - HeadlessBoard.COLUMNS + 1);
+		} else if (pile >= HeadlessBoard.ACE_PILES
+				&& pile < HeadlessBoard.DEAL_DECK) {
+			return "its Ace Pile";
+		} else if (pile == HeadlessBoard.DEAL_DECK) {
+			return "the Deck";
+		} else if (pile == HeadlessBoard.DISCARD_PILE) {
+			return "the Discard Pile";
+		}
+
+		return "";
+	}
+
+	/**
+	 * Describes the move in English.
+	 * 
+	 * @return Text of the move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public String toString() {
+		if (isDraw() == true) {
+			return "Deal more cards";
+		}
+
+		StringBuilder text = new StringBuilder();
+
+		text.append("Move the ").append(name(getCard())).append(" in ")
+				.append(name(source)).append(" to ");
+
+		if (destination.isEmpty() == true) {
+			if (destination instanceof Column) {
+				text.append("the empty ");
+			}
+			text.append(name(destination));
+		} else {
+			text.append("the ").append(name(destination.peek()))
+					.append(" in ").append(name(destination));
+		}
+
+		return text.toString();
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: MoveGenerator
+ * 
+ * Description: The MoveGenerator class finds the possible moves on a
+ * SolitaireBoard. The moves are written in a buffer of Move objects which is
+ * allocated once, so the generator can be called many times per second
+ * without garbage. The generated moves are:
+ * 
+ * - the top card of a column, cell or the discard pile to its ace pile;
+ * 
+ * - the longest possible part of the valid stack on top of a column, or the
+ * top card of a cell or the discard pile, to another column (kings which are
+ * already at the bottom of a column are not moved to an empty column);
+ * 
+ * - the top card of a column or the discard pile to the first empty cell;
+ * 
+ * - a draw from the deal deck, when it is possible.
+ * 
+ * Moves back from the ace piles are not generated.
+ * 
+ * @author Todor Balabanov
+ */
+class MoveGenerator {
+
+	/**
+	 * Maximum number of moves on a board.
+	 */
+	static final int MAX_MOVES = 96;
+
+	/**
+	 * Reusable moves.
+	 */
+	private final Move[] moves = new Move[MAX_MOVES];
+
+	/**
+	 * Number of moves found by the last call.
+	 */
+	private int size = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	MoveGenerator() {
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = new Move();
+		}
+	}
+
+	/**
+	 * Returns the number of moves found by the last call.
+	 * 
+	 * @return Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns a move found by the last call. The move is reused by the next
+	 * call.
+	 * 
+	 * @param index
+	 *            Index of the move.
+	 * 
+	 * @return Move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Move get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size);
+		}
+
+		return moves[index];
+	}
+
+	/**
+	 * Adds a move in the buffer.
+	 * 
+	 * @param source
+	 *            Source stack.
+	 * 
+	 * @param destination
+	 *            Destination stack.
+	 * 
+	 * @param numberOfCards
+	 *            Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void add(CardStack source, CardStack destination, int numberOfCards) {
+		moves[size++].set(source, destination, numberOfCards);
+	}
+
+	/**
+	 * Returns the number of cards in the valid stack on top of a column. The
+	 * cards are alternating in color and decreasing by one in rank.
+	 * 
+	 * @param column
+	 *            Column.
+	 * 
+	 * @return Number of available cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static int available(CardStack column) {
+		int top = column.length() - 1;
+		int index = top;
+
+		while (index > 0) {
+			Card lower = column.getCardAtLocation(index - 1);
+			Card upper = column.getCardAtLocation(index);
+
+			if (CardRules.isValidOnColumn(upper, lower) == false) {
+				break;
+			}
+
+			index--;
+		}
+
+		return top - index + 1;
+	}
+
+	/**
+	 * Adds the moves from a single source.
+	 * 
+	 * @param board
+	 *            Board.
+	 * 
+	 * @param source
+	 *            Source stack.
+	 * 
+	 * @param available
+	 *            Number of cards which can be moved together.
+	 * 
+	 * @param toCells
+	 *            True if the top card can go to an empty cell.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void generate(SolitaireBoard board, CardStack source,
+			int available, boolean toCells) {
+		int top = source.length() - 1;
+		Card card = source.getCardAtLocation(top);
+
+		for (int i = 0; i < board.acePiles.length; i++) {
+			if (board.acePiles[i].isValidMove(card) == true) {
+				add(source, board.acePiles[i], 1);
+			}
+		}
+
+		for (int i = 0; i < board.columns.length; i++) {
+			Column column = board.columns[i];
+			if (column == source) {
+				continue;
+			}
+
+			for (int n = available; n > 0; n--) {
+				/*
+				 * A king which is the bottom card of a column already is where
+				 * an empty column would put it.
+				 */
+				if (column.isEmpty() == true && n == source.length()
+						&& source instanceof Column) {
+					continue;
+				}
+
+				if (column.isValidMove(source.getCardAtLocation(top - n + 1)) == true) {
+					add(source, column, n);
+					break;
+				}
+			}
+		}
+
+		if (toCells == false) {
+			return;
+		}
+
+		for (int i = 0; i < board.cells.length; i++) {
+			if (board.cells[i].isEmpty() == true) {
+				add(source, board.cells[i], 1);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Finds all moves on the board.
+	 * 
+	 * @param board
+	 *            Board.
+	 * 
+	 * @return Number of moves found.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int generate(SolitaireBoard board) {
+		size = 0;
+
+		for (int i = 0; i < board.columns.length; i++) {
+			if (board.columns[i].isEmpty() == false) {
+				generate(board, board.columns[i], available(board.columns[i]),
+						true);
+			}
+		}
+
+		for (int i = 0; i < board.cells.length; i++) {
+			if (board.cells[i].isEmpty() == false) {
+				generate(board, board.cells[i], 1, false);
+			}
+		}
+
+		if (board.discardPile.isEmpty() == false) {
+			generate(board, board.discardPile, 1, true);
+		}
+
+		if (board.dealDeck.isEmpty() == false) {
+			add(board.dealDeck, board.discardPile,
+					Math.min(board.getDrawCount(), board.dealDeck.length()));
+		} else if (board.discardPile.isEmpty() == false
+				&& board.dealDeck.hasDealsLeft() == true) {
+			add(board.dealDeck, board.discardPile, 0);
+		}
+
+		return size;
+	}
+}
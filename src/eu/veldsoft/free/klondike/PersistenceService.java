@@ -0,0 +1,197 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+/**
+ * Class: PersistenceService
+ * 
+ * Description: The PersistenceService class does the file writes in a single
+ * background thread, so the user interface never waits for the disk. Writes
+ * are done in the order of submission. A write submitted with a key replaces
+ * the write with the same key which is still waiting, so a burst of writes of
+ * the same file ends in a single write of the last data. The data to write
+ * should be copied when the write is submitted.
+ * 
+ * @author Todor Balabanov
+ */
+class PersistenceService {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(PersistenceService.class.getName());
+
+	/**
+	 * Single writer thread.
+	 */
+	private static final ExecutorService WRITER = Executors
+			.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable task) {
+					Thread thread = new Thread(task, "persistence");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/**
+	 * Waiting writes by key.
+	 */
+	private static final Map<String, Runnable> PENDING = new HashMap<String, Runnable>();
+
+	/**
+	 * Tasks done in the writer thread when the application exits.
+	 */
+	private static final List<Runnable> EXIT_TASKS = new ArrayList<Runnable>();
+
+	/**
+	 * Initialize static data.
+	 */
+	static {
+		/*
+		 * The writer thread is a daemon, so the waiting writes are done before
+		 * the application exits.
+		 */
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				synchronized (EXIT_TASKS) {
+					for (Runnable task : EXIT_TASKS) {
+						execute(task);
+					}
+				}
+
+				flush();
+			}
+		});
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private PersistenceService() {
+	}
+
+	/**
+	 * Runs a task in the writer thread and logs its failures.
+	 * 
+	 * @param task
+	 *            Task.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void run(Runnable task) {
+		try {
+			task.run();
+		} catch (RuntimeException ex) {
+			LOGGER.info("Persistence task failed: " + ex + "!");
+		}
+	}
+
+	/**
+	 * Submits a task which is done once for each submission.
+	 * 
+	 * @param task
+	 *            Task.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void execute(final Runnable task) {
+		WRITER.execute(new Runnable() {
+			public void run() {
+				PersistenceService.run(task);
+			}
+		});
+	}
+
+	/**
+	 * Submits a write which replaces the waiting write with the same key.
+	 * 
+	 * @param key
+	 *            Key of the written data, usually the file name.
+	 * 
+	 * @param write
+	 *            Write task.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void submit(final String key, Runnable write) {
+		synchronized (PENDING) {
+			if (PENDING.put(key, write) != null) {
+				return;
+			}
+		}
+
+		WRITER.execute(new Runnable() {
+			public void run() {
+				Runnable write;
+				synchronized (PENDING) {
+					write = PENDING.remove(key);
+				}
+
+				PersistenceService.run(write);
+			}
+		});
+	}
+
+	/**
+	 * Registers a task which is done after the waiting writes when the
+	 * application exits, for example closing of a file.
+	 * 
+	 * @param task
+	 *            Task.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void atExit(Runnable task) {
+		synchronized (EXIT_TASKS) {
+			EXIT_TASKS.add(task);
+		}
+	}
+
+	/**
+	 * Waits for all submitted tasks to be done. It should not be called from
+	 * the user interface thread.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void flush() {
+		try {
+			WRITER.submit(new Runnable() {
+				public void run() {
+				}
+			}).get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			LOGGER.info("Persistence flush failed: " + ex + "!");
+		}
+	}
+}
@@ -0,0 +1,366 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.zip.CRC32;
+
+/**
+ * Class: SavedGame
+ * 
+ * Description: The SavedGame class reads and writes the saved game file. The
+ * file has a magic number (int), a version (byte), the deal number (long), the
+ * timer (int, -1 if it is off), a byte for each card (1-52) with a zero after
+ * each of the 14 stacks (cells, columns, ace piles, deal deck and discard
+ * pile), the number of undo moves (int) followed by the packed moves (int
+ * each) and CRC32 of all previous bytes (int). The file is read at once and a
+ * damaged file is reported instead of being dealt.
+ * 
+ * @author Todor Balabanov
+ */
+class SavedGame {
+
+	/**
+	 * File magic number ("FKSG").
+	 */
+	static final int MAGIC = 0x464B5347;
+
+	/**
+	 * File layout version.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Number of stacks on the board.
+	 */
+	private static final int NUMBER_OF_STACKS = HeadlessBoard.NUMBER_OF_PILES;
+
+	/**
+	 * Size of the header (magic, version, deal number and timer) in bytes.
+	 */
+	private static final int HEADER_SIZE = 4 + 1 + 8 + 4;
+
+	/**
+	 * Size of the cards with the stack delimiters in bytes.
+	 */
+	private static final int CARDS_SIZE = HeadlessBoard.DECK_SIZE
+			+ NUMBER_OF_STACKS;
+
+	/**
+	 * Largest accepted file size in bytes.
+	 */
+	private static final int MAX_SIZE = 1 << 20;
+
+	/**
+	 * Size of the old saved game file, 67 ints.
+	 */
+	private static final int LEGACY_SIZE = 4 * (CARDS_SIZE + 1);
+
+	/**
+	 * Card numbers of the stacks, each stack followed by -1, as expected by
+	 * dealing a custom board.
+	 */
+	private final LinkedList<Integer> cards = new LinkedList<Integer>();
+
+	/**
+	 * Deal number.
+	 */
+	private long dealNumber = 0;
+
+	/**
+	 * Timer or -1 if it is off.
+	 */
+	private int timer = -1;
+
+	/**
+	 * Packed undo moves, the oldest first.
+	 */
+	private long moves[] = {};
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private SavedGame() {
+	}
+
+	/**
+	 * Returns the card numbers of the stacks.
+	 * 
+	 * @return Card numbers, each stack followed by -1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	LinkedList<Integer> getCards() {
+		return cards;
+	}
+
+	/**
+	 * Returns the deal number.
+	 * 
+	 * @return Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getDealNumber() {
+		return dealNumber;
+	}
+
+	/**
+	 * Returns the timer.
+	 * 
+	 * @return Timer or -1 if it is off.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getTimer() {
+		return timer;
+	}
+
+	/**
+	 * Returns the undo moves.
+	 * 
+	 * @return Packed moves, the oldest first.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long[] getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Writes the cards of a stack followed by a zero.
+	 * 
+	 * @param buffer
+	 *            Output buffer.
+	 * 
+	 * @param stack
+	 *            Card stack.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void put(ByteBuffer buffer, CardStack stack) {
+		for (int i = 0; i < stack.length(); i++) {
+			buffer.put((byte) stack.getCardAtLocation(i).getFullNumber());
+		}
+		buffer.put((byte) 0);
+	}
+
+	/**
+	 * Copies a game in the saved game layout.
+	 * 
+	 * @param board
+	 *            Board.
+	 * 
+	 * @param timer
+	 *            Timer or -1 if it is off.
+	 * 
+	 * @return File content.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static byte[] encode(SolitaireBoard board, int timer) {
+		long moves[] = board.undoJournal.getMoves();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + CARDS_SIZE + 4
+				+ 4 * moves.length + 4);
+
+		buffer.putInt(MAGIC);
+		buffer.put((byte) VERSION);
+		buffer.putLong(board.getDealNumber());
+		buffer.putInt(timer);
+
+		for (int i = 0; i < board.cells.length; i++) {
+			put(buffer, board.cells[i]);
+		}
+		for (int i = 0; i < board.columns.length; i++) {
+			put(buffer, board.columns[i]);
+		}
+		for (int i = 0; i < board.acePiles.length; i++) {
+			put(buffer, board.acePiles[i]);
+		}
+		put(buffer, board.dealDeck);
+		put(buffer, board.discardPile);
+
+		buffer.putInt(moves.length);
+		for (int i = 0; i < moves.length; i++) {
+			buffer.putInt((int) moves[i]);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putInt((int) crc.getValue());
+
+		return buffer.array();
+	}
+
+	/**
+	 * Writes a saved game file.
+	 * 
+	 * @param file
+	 *            Saved game file.
+	 * 
+	 * @param content
+	 *            File content.
+	 * 
+	 * @throws IOException
+	 *             Rethrow file exceptions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static void write(File file, byte content[]) throws IOException {
+		FileOutputStream output = new FileOutputStream(file);
+		try {
+			output.write(content);
+			output.getFD().sync();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Reads a saved game file with a single read.
+	 * 
+	 * @param file
+	 *            Saved game file.
+	 * 
+	 * @return Saved game.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read or it is damaged.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static SavedGame read(File file) throws IOException {
+		byte content[];
+
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			if (input.length() > MAX_SIZE) {
+				throw new IOException("Saved game is too long");
+			}
+
+			content = new byte[(int) input.length()];
+			input.readFully(content);
+		} finally {
+			input.close();
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(content);
+		if (content.length == LEGACY_SIZE && buffer.getInt(0) != MAGIC) {
+			return decodeLegacy(buffer);
+		}
+
+		return decode(buffer);
+	}
+
+	/**
+	 * Checks and parses the saved game layout.
+	 * 
+	 * @param buffer
+	 *            File content.
+	 * 
+	 * @return Saved game.
+	 * 
+	 * @throws IOException
+	 *             If the content is damaged.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static SavedGame decode(ByteBuffer buffer) throws IOException {
+		int length = buffer.remaining();
+		if (length < HEADER_SIZE + CARDS_SIZE + 4 + 4) {
+			throw new IOException("Saved game is too short");
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, length - 4);
+		if ((int) crc.getValue() != buffer.getInt(length - 4)) {
+			throw new IOException("Saved game checksum does not match");
+		}
+
+		if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+			throw new IOException("Saved game version is not supported");
+		}
+
+		SavedGame game = new SavedGame();
+		game.dealNumber = buffer.getLong();
+		game.timer = buffer.getInt();
+
+		boolean found[] = new boolean[HeadlessBoard.DECK_SIZE + 1];
+		int stacks = 0;
+		while (stacks < NUMBER_OF_STACKS && buffer.remaining() > 4) {
+			int number = buffer.get();
+
+			if (number == 0) {
+				game.cards.add(-1);
+				stacks++;
+			} else if (number < 1 || number > HeadlessBoard.DECK_SIZE
+					|| found[number] == true) {
+				throw new IOException("Saved game has invalid card " + number);
+			} else {
+				game.cards.add(number);
+				found[number] = true;
+			}
+		}
+
+		if (game.cards.size() != CARDS_SIZE) {
+			throw new IOException("Saved game does not have all cards");
+		}
+
+		int count = buffer.getInt();
+		if (count < 0 || 4L * count != buffer.remaining() - 4) {
+			throw new IOException("Saved game has invalid undo moves");
+		}
+
+		game.moves = new long[count];
+		for (int i = 0; i < count; i++) {
+			game.moves[i] = buffer.getInt() & 0xFFFFFFFFL;
+		}
+
+		return game;
+	}
+
+	/**
+	 * Parses the old saved game layout, 67 ints with card numbers, -1 after
+	 * each stack and the timer.
+	 * 
+	 * @param buffer
+	 *            File content.
+	 * 
+	 * @return Saved game.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static SavedGame decodeLegacy(ByteBuffer buffer) {
+		SavedGame game = new SavedGame();
+
+		for (int i = 0; i < CARDS_SIZE; i++) {
+			game.cards.add(buffer.getInt());
+		}
+		game.timer = buffer.getInt();
+
+		return game;
+	}
+}
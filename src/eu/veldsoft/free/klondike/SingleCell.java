@@ -19,8 +19,6 @@
 
 package eu.veldsoft.free.klondike;
 
-import java.util.Vector;
-
 /**
  * Class: SingleCell
  * 
@@ -34,7 +32,7 @@ class SingleCell extends CardStack {
 	/**
 	 * Stack of cards.
 	 */
-	private Vector<Card> cards = new Vector<Card>();
+	private final CardArray cards = new CardArray();
 
 	/**
 	 * Returns the pile's suit.
@@ -43,7 +41,7 @@ class SingleCell extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public Vector<Card> getCards() {
+	public CardArray getCards() {
 		return cards;
 	}
 
@@ -58,8 +56,9 @@ class SingleCell extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public void addCard(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		cards.add(card);
+		updateHash(card, cards.size() - 1);
 	}
 
 	/**
@@ -69,8 +68,9 @@ class SingleCell extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card pop() {
+	public Card pop() {
 		Card card = peek();
+		updateHash(card, cards.size() - 1);
 		cards.remove(cards.size() - 1);
 
 		return card;
@@ -83,7 +83,7 @@ class SingleCell extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized Card peek() {
+	public Card peek() {
 		if (cards.isEmpty()) {
 			return null;
 		}
@@ -123,7 +123,7 @@ class SingleCell extends CardStack {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized int search(Card card) {
+	public int search(Card card) {
 		int i = cards.lastIndexOf(card);
 
 		if (i >= 0) {
@@ -171,9 +171,7 @@ class SingleCell extends CardStack {
 			/*
 			 * Cards are not opposite colors or decreasing in value correctly.
 			 */
-			if (cards.get(i).getColor() == cards.get(i + 1).getColor()
-					|| cards.get(i).getRank()
-							.isLessByOneThan(cards.get(i + 1).getRank()) == false) {
+			if (CardRules.isValidOnColumn(cards.get(i + 1), cards.get(i)) == false) {
 				return false;
 			}
 		}
@@ -195,11 +193,12 @@ class SingleCell extends CardStack {
 	 */
 	public CardStack getStack(Card card) {
 		CardStack temp = new SingleCell();
+		temp.setStates(states);
 		int index = search(card);
 
 		for (int i = 0; i < index; i++) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -219,11 +218,12 @@ class SingleCell extends CardStack {
 	 */
 	public CardStack getStack(int numCards) {
 		CardStack temp = new SingleCell();
+		temp.setStates(states);
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(cards.size() - i - 1).clone());
-			getCardAtLocation(cards.size() - i - 1).highlight();
+			states.highlight(getCardAtLocation(cards.size() - i - 1));
 		}
 
 		return temp;
@@ -240,7 +240,7 @@ class SingleCell extends CardStack {
 	 * @author Todor Balabanov
 	 */
 	public Card push(Card card) {
-		card.setFaceUp();
+		states.setFaceUp(card);
 		if (isEmpty() == true) {
 			super.push(card);
 			return card;
@@ -295,6 +295,7 @@ class SingleCell extends CardStack {
 		}
 
 		CardStack stack = new SingleCell();
+		stack.setStates(states);
 		stack.addCard(peek());
 
 		return stack;
@@ -318,7 +319,7 @@ class SingleCell extends CardStack {
 	 */
 	void highlight(int index) {
 		if (isEmpty() == false) {
-			peek().highlight();
+			states.highlight(peek());
 		}
 	}
 }
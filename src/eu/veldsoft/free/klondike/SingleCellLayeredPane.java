@@ -177,6 +177,7 @@ class SingleCellLayeredPane extends JLayeredPane implements
 	public void addCard(Card card) {
 		singleCell.addCard(card);
 		CardComponent.cardsMapping.get(card).setBounds(0, 0, 72, 96);
+		CardComponent.cardsMapping.get(card).setStates(singleCell.getStates());
 		add(CardComponent.cardsMapping.get(card), 0);
 	}
 
@@ -226,7 +227,8 @@ class SingleCellLayeredPane extends JLayeredPane implements
 
 		for (int i = 0; i < index; i++) {
 			temp.add(getCardAtLocation(singleCell.getCards().size() - i - 1));
-			getCardAtLocation(singleCell.getCards().size() - i - 1).highlight();
+			singleCell.getStates().highlight(
+					getCardAtLocation(singleCell.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -246,12 +248,14 @@ class SingleCellLayeredPane extends JLayeredPane implements
 	 */
 	public CardStack getStack(int numCards) {
 		SingleCell temp = new SingleCell();
+		temp.setStates(singleCell.getStates());
 		int index = length() - numCards;
 
 		for (int i = length(); i > index; i--) {
 			temp.push(getCardAtLocation(singleCell.getCards().size() - i - 1)
 					.clone());
-			getCardAtLocation(singleCell.getCards().size() - i - 1).highlight();
+			singleCell.getStates().highlight(
+					getCardAtLocation(singleCell.getCards().size() - i - 1));
 		}
 
 		return temp;
@@ -300,6 +304,7 @@ class SingleCellLayeredPane extends JLayeredPane implements
 		 * Temporary reverse pop of entire stack transfer.
 		 */
 		SingleCell temp = new SingleCell();
+		temp.setStates(singleCell.getStates());
 
 		while (!stack.isEmpty()) {
 			Card card = stack.pop();
@@ -382,6 +387,7 @@ class SingleCellLayeredPane extends JLayeredPane implements
 	 */
 	public CardStack undoStack(int numCards) {
 		SingleCell temp = new SingleCell();
+		temp.setStates(singleCell.getStates());
 
 		for (int i = 0; i < numCards; i++) {
 			temp.push(pop());
@@ -458,14 +464,8 @@ class SingleCellLayeredPane extends JLayeredPane implements
 			return;
 		}
 
-		CardComponent.cardsMapping.get(
-				singleCell.getCards().get(singleCell.getCards().size() - 1))
-				.updateImage();
-
-		g.drawImage(
-				CardComponent.cardsMapping.get(
-						singleCell.getCards().get(
-								singleCell.getCards().size() - 1)).getImage(),
-				0, 0, null);
+		CardAtlas.draw(g, singleCell.getStates(),
+				singleCell.getCards().get(singleCell.getCards().size() - 1),
+				0, 0);
 	}
 }
\ No newline at end of file
@@ -19,11 +19,12 @@
 
 package eu.veldsoft.free.klondike;
 
-import java.io.DataInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
@@ -43,9 +44,17 @@ class SolitaireBoard {
 	private static final int INITIAL_CARDS_NUMBER_IN_COLUMN = 5;
 
 	/**
-	 * Can be 1 or 3. Should be only here!
+	 * Number of options written before the saved game flag. The options added
+	 * later are written after the flag, so the older versions still read the
+	 * file.
 	 */
-	static int drawCount = 1;
+	private static final int OPTIONS_BEFORE_SAVED = 11;
+
+	/**
+	 * Can be 1 or 3. Each board has its own draw count, so many boards can be
+	 * played at the same time.
+	 */
+	private int drawCount = 1;
 
 	/**
 	 * To store new option selection for next new game, otherwise the count
@@ -64,15 +73,85 @@ class SolitaireBoard {
 	private GameDifficulty newDifficulty = difficulty;
 
 	/**
-	 * Card numbers.
+	 * Deal number of the current game.
+	 */
+	private long dealNumber = 0;
+
+	/**
+	 * Move generator used for the hints.
+	 */
+	private final MoveGenerator moves = new MoveGenerator();
+
+	/**
+	 * Solver results used for the hints. The shared cache is used after it is
+	 * opened in the persistence thread.
+	 */
+	private SolverCache solverCache = null;
+
+	/**
+	 * True in the winnable only mode.
+	 */
+	private boolean winnableOnly = false;
+
+	/**
+	 * Verified deals of the winnable only mode or null before the shared pool
+	 * is loaded in the persistence thread.
+	 */
+	private volatile WinnableDealPool dealPool = null;
+
+	/**
+	 * Last verified deal number. It is dealt again when the pool has no new
+	 * deal.
+	 */
+	private long winnableDeal = 0;
+
+	/**
+	 * Draw count of the last verified deal or 0 if there is no such deal.
+	 */
+	private int winnableDrawCount = 0;
+
+	/**
+	 * Difficulty of the last verified deal or null if there is no such deal.
+	 */
+	private GameDifficulty winnableDifficulty = null;
+
+	/**
+	 * History of the moves for undo and redo.
 	 */
 	// TODO Should be private.
-	LinkedList<Integer> numCards = new LinkedList<Integer>();
+	UndoJournal undoJournal = new UndoJournal();
+
+	/**
+	 * Game statistics. It is opened with the first use.
+	 */
+	private StatisticsStore statistics = null;
+
+	/**
+	 * Game results journal. It is opened with the first use.
+	 */
+	private GameJournal journal = null;
+
+	/**
+	 * Options submitted with the last options file write or null before the
+	 * first write.
+	 */
+	private int writtenOptions[] = null;
+
+	/**
+	 * True if the last options file write had a saved game.
+	 */
+	private boolean writtenSaved = false;
 
 	/**
-	 * The cards from the discard pile.
+	 * Face and highlighting state of the cards on this board. The cards are
+	 * shared between the boards, so their state is kept per board.
 	 */
-	LinkedList<Integer> numCardsInDiscardView = new LinkedList<Integer>();
+	private final CardStates states = new CardStates();
+
+	/**
+	 * Stack and index of each card on this board.
+	 */
+	private final CardPositions positions = new CardPositions();
 
 	/**
 	 * The four columns for the main playing field.
@@ -105,24 +184,87 @@ class SolitaireBoard {
 	SingleCell[] cells = { null, null, null, null };
 
 	/**
-	 * Source.
+	 * Sets the board's window name, size, location, close button option, makes
+	 * it unresizable and puts the logo on it.
+	 * 
+	 * @author Todor Balabanov
 	 */
-	// TODO Should be private.
-	LinkedList<CardStack> sourceList = new LinkedList<CardStack>();
+	public SolitaireBoard() {
+		discardPile.setStates(states);
+		dealDeck.setStates(states);
+		discardPile.setPositions(positions);
+		dealDeck.setPositions(positions);
+	}
+
+	/**
+	 * Sets the solver results used for the hints.
+	 * 
+	 * @param cache
+	 *            Solver cache or null for the shared cache.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setSolverCache(SolverCache cache) {
+		solverCache = cache;
+	}
 
 	/**
-	 * Destination.
+	 * Returns the shared solver cache if it is already opened. The cache is
+	 * opened in the persistence thread, so the hints do not wait for the disk.
+	 * 
+	 * @return Solver cache or null if it is not opened yet.
+	 * 
+	 * @author Todor Balabanov
 	 */
-	// TODO Should be private.
-	LinkedList<CardStack> destinationList = new LinkedList<CardStack>();
+	private SolverCache openSolverCache() {
+		if (solverCache == null) {
+			solverCache = SolverCache.getOpened();
+		}
+		if (solverCache == null) {
+			SolverCache.open();
+		}
+
+		return solverCache;
+	}
 
 	/**
-	 * Sets the board's window name, size, location, close button option, makes
-	 * it unresizable and puts the logo on it.
+	 * Returns the state of the cards on this board.
+	 * 
+	 * @return Card states.
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public SolitaireBoard() {
+	CardStates getStates() {
+		return states;
+	}
+
+	/**
+	 * Returns the stack holding a card in constant time.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Stack or null if the card is not on the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	CardStack locate(Card card) {
+		return positions.stackOf(card);
+	}
+
+	/**
+	 * Returns the index of a card within its stack in constant time.
+	 * 
+	 * @param card
+	 *            Card.
+	 * 
+	 * @return Index from the bottom of the stack or -1 if the card is not on
+	 *         the board.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int indexOf(Card card) {
+		return positions.indexOf(card);
 	}
 
 	/**
@@ -138,25 +280,25 @@ class SolitaireBoard {
 
 		for (int i = 0; i < columns.length; i++) {
 			for (int j = 0; j < columns[i].length(); j++) {
-				if (columns[i].getCardAtLocation(j).isHighlighted() == true) {
+				if (states.isHighlighted(columns[i].getCardAtLocation(j)) == true) {
 					counter++;
 				}
 			}
 		}
 
 		for (int i = 0; i < cells.length; i++) {
-			if (cells[i].isEmpty() == false && cells[i].peek().isHighlighted() == true) {
+			if (cells[i].isEmpty() == false && states.isHighlighted(cells[i].peek()) == true) {
 				counter++;
 			}
 		}
 
 		for (int i = 0; i < acePiles.length; i++) {
-			if (acePiles[i].isEmpty() == false && acePiles[i].peek().isHighlighted() == true) {
+			if (acePiles[i].isEmpty() == false && states.isHighlighted(acePiles[i].peek()) == true) {
 				counter++;
 			}
 		}
 
-		if (discardPile.isEmpty() == false && discardPile.peek().isHighlighted() == true) {
+		if (discardPile.isEmpty() == false && states.isHighlighted(discardPile.peek()) == true) {
 			counter++;
 		}
 
@@ -169,9 +311,7 @@ class SolitaireBoard {
 	 * @author Todor Balabanov
 	 */
 	public void clearHighlighting() {
-		for (int n = 1; n <= 52; n++) {
-			Card.valueBy(n).unhighlight();
-		}
+		states.unhighlightAll();
 	}
 
 	/**
@@ -188,10 +328,16 @@ class SolitaireBoard {
 	public void createBoard(LinkedList<Integer> cards, int numViewableCards) {
 		for (int i = 0; i < columns.length; i++) {
 			columns[i] = new Column();
+			columns[i].setStates(states);
+			columns[i].setPositions(positions);
+			columns[i].setPile(HeadlessBoard.COLUMNS + i);
 		}
 
 		for (int i = 0; i < cells.length; i++) {
 			cells[i] = new SingleCell();
+			cells[i].setStates(states);
+			cells[i].setPositions(positions);
+			cells[i].setPile(HeadlessBoard.CELLS + i);
 		}
 
 		for (int i = 0; i < acePiles.length; i++) {
@@ -211,16 +357,226 @@ class SolitaireBoard {
 			default:
 				break;
 			}
+
+			acePiles[i].setStates(states);
+			acePiles[i].setPositions(positions);
+			acePiles[i].setPile(HeadlessBoard.ACE_PILES + i);
 		}
+
+		dealDeck.setPile(HeadlessBoard.DEAL_DECK);
+		discardPile.setPile(HeadlessBoard.DISCARD_PILE);
 	}
 
 	/**
-	 * Deals the cards.
+	 * Returns the 64-bit Zobrist hash of the current position. It is updated
+	 * on each card move, so two positions can be compared in constant time.
+	 * 
+	 * @return Hash code.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public long getHash() {
+		long hash = dealDeck.getHash() ^ discardPile.getHash();
+
+		for (int i = 0; i < 4; i++) {
+			hash ^= columns[i].getHash() ^ cells[i].getHash()
+					^ acePiles[i].getHash();
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns the deal number of the current game.
+	 * 
+	 * @return Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public long getDealNumber() {
+		return dealNumber;
+	}
+
+	/**
+	 * Opens the statistics file with the first call.
+	 * 
+	 * @return Statistics.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private StatisticsStore openStatistics() {
+		if (statistics == null) {
+			String fileLocation = System.getProperty("user.home")
+					+ System.getProperty("file.separator");
+
+			statistics = new StatisticsStore(new File(fileLocation
+					+ "frs-statistics.bin"), new File(fileLocation
+					+ "frs-statistics.dat"));
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * Opens the game journal with the first call and starts its background
+	 * roll up.
+	 * 
+	 * @return Journal or null if it can not be opened.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private GameJournal openJournal() {
+		if (journal == null) {
+			String fileLocation = System.getProperty("user.home")
+					+ System.getProperty("file.separator");
+
+			try {
+				journal = new GameJournal(new File(fileLocation
+						+ "frs-games.dat"), openStatistics());
+				journal.start();
+			} catch (IOException ex) {
+				System.out.println(ex);
+			}
+		}
+
+		return journal;
+	}
+
+	/**
+	 * Returns the game statistics with all games from the journal counted. It
+	 * reads files, so it should be called in the persistence thread.
+	 * 
+	 * @return Statistics.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	StatisticsStore getStatistics() {
+		GameJournal journal = openJournal();
+
+		if (journal != null) {
+			try {
+				journal.compact();
+			} catch (IOException ex) {
+				System.out.println(ex);
+			}
+		}
+
+		return openStatistics();
+	}
+
+	/**
+	 * Turns the winnable only mode on or off. In this mode the new games are
+	 * taken from the shared pool of verified deals. The pool reads files, so
+	 * it is loaded in the persistence thread.
+	 * 
+	 * @param winnableOnly
+	 *            True for winnable deals only.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setWinnableOnly(boolean winnableOnly) {
+		this.winnableOnly = winnableOnly;
+		if (winnableOnly == false) {
+			return;
+		}
+
+		WinnableDealPool pool = dealPool;
+		if (pool != null) {
+			pool.prefetch(newDrawCount, newDifficulty);
+			return;
+		}
+
+		final int drawCount = newDrawCount;
+		final GameDifficulty difficulty = newDifficulty;
+		PersistenceService.execute(new Runnable() {
+			public void run() {
+				WinnableDealPool shared = WinnableDealPool.getInstance();
+				shared.prefetch(drawCount, difficulty);
+				dealPool = shared;
+			}
+		});
+	}
+
+	/**
+	 * Checks if the winnable only mode is on.
+	 * 
+	 * @return True for winnable deals only.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isWinnableOnly() {
+		return winnableOnly;
+	}
+
+	/**
+	 * Chooses a verified deal for the new draw count and difficulty. When the
+	 * pool has no new deal, the last verified deal with the same settings is
+	 * dealt again.
+	 * 
+	 * @return Deal number or null if there is no verified deal yet.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	Long nextWinnableDealNumber() {
+		WinnableDealPool pool = dealPool;
+		Long dealNumber = null;
+		if (pool != null) {
+			dealNumber = pool.take(newDrawCount, newDifficulty);
+		}
+
+		if (dealNumber != null) {
+			winnableDeal = dealNumber.longValue();
+			winnableDrawCount = newDrawCount;
+			winnableDifficulty = newDifficulty;
+		} else if (winnableDrawCount == newDrawCount
+				&& winnableDifficulty == newDifficulty) {
+			dealNumber = Long.valueOf(winnableDeal);
+		}
+
+		return dealNumber;
+	}
+
+	/**
+	 * Chooses the deal number of the next game. In the winnable only mode it
+	 * is a verified deal, if there is one, otherwise it is random.
+	 * 
+	 * @return Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long nextDealNumber() {
+		if (winnableOnly == true) {
+			Long dealNumber = nextWinnableDealNumber();
+			if (dealNumber != null) {
+				return dealNumber.longValue();
+			}
+		}
+
+		return Common.PRNG.nextLong();
+	}
+
+	/**
+	 * Deals the cards with the next deal number.
 	 * 
 	 * @author Todor Balabanov
 	 */
 	void dealOutBoard() {
-		LinkedList<Card> cards = (LinkedList<Card>) Deck.getFullShuffledDeck();
+		dealOutBoard(nextDealNumber());
+	}
+
+	/**
+	 * Deals the cards. The same deal number always gives the same game.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void dealOutBoard(long dealNumber) {
+		this.dealNumber = dealNumber;
+
+		LinkedList<Card> cards = (LinkedList<Card>) Deck
+				.getFullShuffledDeck(dealNumber);
 
 		/*
 		 * Fill five cards by column.
@@ -291,7 +647,7 @@ class SolitaireBoard {
 				acePiles[pileNumber % 4].addCard(cards.get(cardNumber));
 			} else if (pileNumber == 12) {
 				Card card = cards.get(cardNumber);
-				card.setFaceDown();
+				states.setFaceDown(card);
 				dealDeck.addCard(card);
 			} else if (pileNumber == 13) {
 				discardPile.push(cards.get(cardNumber));
@@ -301,6 +657,20 @@ class SolitaireBoard {
 		discardPile.setView(numViewableCards);
 	}
 
+	/**
+	 * Restores the deal number and the undo history of a saved game, after its
+	 * cards are dealt.
+	 * 
+	 * @param game
+	 *            Saved game.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void restoreGame(SavedGame game) {
+		dealNumber = game.getDealNumber();
+		undoJournal.setMoves(game.getMoves());
+	}
+
 	/**
 	 * Clears the board.
 	 * 
@@ -349,10 +719,7 @@ class SolitaireBoard {
 		clearBoard();
 		dealDeck.reset();
 
-		sourceList.clear();
-		destinationList.clear();
-		numCards.clear();
-		numCardsInDiscardView.clear();
+		undoJournal.clear();
 	}
 
 	/**
@@ -380,505 +747,186 @@ class SolitaireBoard {
 	 */
 	void recordGame(GameState winOrLoss, int deckNumber, int backgroundNumber, int timerCount, int timerToRunNextGame,
 			boolean timerToRun) {
-		int count = 0, temp = 0;
-		int gamesPlayed1e = 0, gamesWon1e = 0, winStreak1e = 0, lossStreak1e = 0, currentStreak1e = 0;
-		int gamesPlayed1m = 0, gamesWon1m = 0, winStreak1m = 0, lossStreak1m = 0, currentStreak1m = 0;
-		int gamesPlayed1h = 0, gamesWon1h = 0, winStreak1h = 0, lossStreak1h = 0, currentStreak1h = 0;
-		int gamesPlayed3e = 0, gamesWon3e = 0, winStreak3e = 0, lossStreak3e = 0, currentStreak3e = 0;
-		int gamesPlayed3m = 0, gamesWon3m = 0, winStreak3m = 0, lossStreak3m = 0, currentStreak3m = 0;
-		int gamesPlayed3h = 0, gamesWon3h = 0, winStreak3h = 0, lossStreak3h = 0, currentStreak3h = 0;
+		/*
+		 * The game is copied here and the files are written in the
+		 * persistence thread.
+		 */
+		if (winOrLoss == GameState.GAME_WON || winOrLoss == GameState.GAME_LOST) {
+			final int result = (winOrLoss == GameState.GAME_WON) ? GameJournal.WON : GameJournal.LOST;
+			final long dealNumber = this.dealNumber;
+			final int draw = drawCount;
+			final GameDifficulty gameDifficulty = difficulty;
+			final int time = timerCount;
+			final int moves = undoJournal.getMovesMade();
+
+			PersistenceService.execute(new Runnable() {
+				public void run() {
+					recordResult(result, dealNumber, draw, gameDifficulty, time, moves);
+				}
+			});
+		} else if (winOrLoss == GameState.RESET_STATS) {
+			PersistenceService.execute(new Runnable() {
+				public void run() {
+					resetStatistics();
+				}
+			});
+		}
 
-		String fileLocation = System.getProperty("user.home") + System.getProperty("file.separator");
-		File file = new File(fileLocation + "frs-statistics.dat");
+		final int options[] = { drawCount, newDrawCount, deckNumber, backgroundNumber, timerToRunNextGame, 0, 0,
+				dealDeck.getDeckThroughs(), difficulty.getValue(), newDifficulty.getValue(),
+				discardPile.getNumViewableCards(), winnableOnly ? 1 : 0 };
+		final byte saved[] = (winOrLoss == GameState.GAME_SAVED) ? SavedGame.encode(this, timerToRun ? timerCount : -1)
+				: null;
 
-		try {
-			file.createNewFile();
-		} catch (Exception ex) {
-			System.out.println(ex);
+		/*
+		 * The results are in the journal, so the options file is written
+		 * only when something in it changes.
+		 */
+		if (saved == null && writtenSaved == false && Arrays.equals(options, writtenOptions) == true) {
+			return;
 		}
+		writtenOptions = options;
+		writtenSaved = (saved != null);
 
-		try {
-			DataInputStream input = new DataInputStream(new FileInputStream(file));
+		String fileLocation = System.getProperty("user.home") + System.getProperty("file.separator");
+		final File file = new File(fileLocation + "frs-statistics.dat");
+		final File savedFile = new File(fileLocation + "frs-savedgame.dat");
 
-			if (input.available() > 0) {
-				temp = input.readInt();
-				count++;
+		/*
+		 * Only the last options are written after many fast calls.
+		 */
+		PersistenceService.submit(file.getPath(), new Runnable() {
+			public void run() {
+				writeOptions(file, options, savedFile, saved);
 			}
+		});
+	}
 
-			if (temp != -1) {
-				gamesPlayed1m = temp;
-
-				while ((input.available() > 0) && count < 5) {
-					temp = input.readInt();
-					switch (count) {
-					/*
-					 * Case 0 is the format checker.
-					 */
-					case 1:
-						gamesWon1m = temp;
-						break;
-					case 2:
-						winStreak1m = temp;
-						break;
-					case 3:
-						lossStreak1m = temp;
-						break;
-					case 4:
-						currentStreak1m = temp;
-						break;
-
-					default:
-						break;
-					}
+	/**
+	 * Records the result of a game in the game journal or in the statistics if
+	 * the journal is not available. It is called in the persistence thread.
+	 * 
+	 * @param result
+	 *            GameJournal.WON or GameJournal.LOST.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @param drawCount
+	 *            Draw count.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @param time
+	 *            Game time in seconds.
+	 * 
+	 * @param moves
+	 *            Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void recordResult(int result, long dealNumber, int drawCount, GameDifficulty difficulty, int time,
+			int moves) {
+		GameJournal journal = openJournal();
+		if (journal != null) {
+			try {
+				journal.append(dealNumber, drawCount, difficulty, result, time, moves);
+				return;
+			} catch (IOException ex) {
+				System.out.println(ex);
+			}
+		}
 
-					count++;
-				}
-			} else {
-				while ((input.available() > 0) && count < 31) {
-					temp = input.readInt();
-					switch (count) {
-					/*
-					 * Case 0 is the format checker.
-					 */
-					case 1:
-						gamesPlayed1e = temp;
-						break;
-					case 2:
-						gamesWon1e = temp;
-						break;
-					case 3:
-						winStreak1e = temp;
-						break;
-					case 4:
-						lossStreak1e = temp;
-						break;
-					case 5:
-						currentStreak1e = temp;
-						break;
-
-					case 6:
-						gamesPlayed1m = temp;
-						break;
-					case 7:
-						gamesWon1m = temp;
-						break;
-					case 8:
-						winStreak1m = temp;
-						break;
-					case 9:
-						lossStreak1m = temp;
-						break;
-					case 10:
-						currentStreak1m = temp;
-						break;
-
-					case 11:
-						gamesPlayed1h = temp;
-						break;
-					case 12:
-						gamesWon1h = temp;
-						break;
-					case 13:
-						winStreak1h = temp;
-						break;
-					case 14:
-						lossStreak1h = temp;
-						break;
-					case 15:
-						currentStreak1h = temp;
-						break;
-
-					case 16:
-						gamesPlayed3e = temp;
-						break;
-					case 17:
-						gamesWon3e = temp;
-						break;
-					case 18:
-						winStreak3e = temp;
-						break;
-					case 19:
-						lossStreak3e = temp;
-						break;
-					case 20:
-						currentStreak3e = temp;
-						break;
-
-					case 21:
-						gamesPlayed3m = temp;
-						break;
-					case 22:
-						gamesWon3m = temp;
-						break;
-					case 23:
-						winStreak3m = temp;
-						break;
-					case 24:
-						lossStreak3m = temp;
-						break;
-					case 25:
-						currentStreak3m = temp;
-						break;
-
-					case 26:
-						gamesPlayed3h = temp;
-						break;
-					case 27:
-						gamesWon3h = temp;
-						break;
-					case 28:
-						winStreak3h = temp;
-						break;
-					case 29:
-						lossStreak3h = temp;
-						break;
-					case 30:
-						currentStreak3h = temp;
-						break;
-
-					default:
-						break;
-					}
+		StatisticsStore statistics = openStatistics();
+		int bucket = StatisticsStore.bucket(drawCount, difficulty);
+		if (bucket == -1) {
+			return;
+		}
 
-					count++;
-				}
-			}
+		if (result == GameJournal.WON) {
+			statistics.recordWin(bucket);
+		} else {
+			statistics.recordLoss(bucket);
+		}
+		statistics.force();
+	}
 
-			input.close();
-		} catch (Exception ex) {
-			System.out.println(ex);
+	/**
+	 * Clears the statistics. It is called in the persistence thread.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void resetStatistics() {
+		GameJournal journal = openJournal();
+		if (journal != null) {
+			try {
+				journal.reset();
+				return;
+			} catch (IOException ex) {
+				System.out.println(ex);
+			}
 		}
 
+		StatisticsStore statistics = openStatistics();
+		statistics.reset();
+		statistics.force();
+	}
+
+	/**
+	 * Writes the options file and the saved game. It is called in the
+	 * persistence thread.
+	 * 
+	 * @param file
+	 *            Options file.
+	 * 
+	 * @param options
+	 *            Options in the order of the file.
+	 * 
+	 * @param savedFile
+	 *            Saved game file.
+	 * 
+	 * @param saved
+	 *            Saved game content or null if the game is not saved.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void writeOptions(File file, int options[], File savedFile, byte saved[]) {
+		/*
+		 * The journal is rolled up first, so the copied counters are current.
+		 */
+		StatisticsStore statistics = getStatistics();
+
 		try {
-			DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
-
-			if (winOrLoss == GameState.GAME_WON) {
-				if (drawCount == 3) {
-					if (difficulty == GameDifficulty.EASY) {
-						gamesPlayed3e++;
-						gamesWon3e++;
-
-						if (currentStreak3e >= 0) {
-							currentStreak3e++;
-						} else {
-							currentStreak3e = 1;
-						}
-
-						if (winStreak3e < currentStreak3e) {
-							winStreak3e = currentStreak3e;
-						}
-					} else if (difficulty == GameDifficulty.MEDIUM) {
-						gamesPlayed3m++;
-						gamesWon3m++;
-
-						if (currentStreak3m >= 0) {
-							currentStreak3m++;
-						} else {
-							currentStreak3m = 1;
-						}
-
-						if (winStreak3m < currentStreak3m) {
-							winStreak3m = currentStreak3m;
-						}
-					} else {
-						gamesPlayed3h++;
-						gamesWon3h++;
-
-						if (currentStreak3h >= 0) {
-							currentStreak3h++;
-						} else {
-							currentStreak3h = 1;
-						}
-
-						if (winStreak3h < currentStreak3h) {
-							winStreak3h = currentStreak3h;
-						}
-					}
-				} else if (drawCount == 1) {
-					if (difficulty == GameDifficulty.EASY) {
-						gamesPlayed1e++;
-						gamesWon1e++;
-
-						if (currentStreak1e >= 0) {
-							currentStreak1e++;
-						} else {
-							currentStreak1e = 1;
-						}
-
-						if (winStreak1e < currentStreak1e) {
-							winStreak1e = currentStreak1e;
-						}
-					} else if (difficulty == GameDifficulty.MEDIUM) {
-						gamesPlayed1m++;
-						gamesWon1m++;
-
-						if (currentStreak1m >= 0) {
-							currentStreak1m++;
-						} else {
-							currentStreak1m = 1;
-						}
-
-						if (winStreak1m < currentStreak1m) {
-							winStreak1m = currentStreak1m;
-						}
-					} else {
-						gamesPlayed1h++;
-						gamesWon1h++;
-
-						if (currentStreak1h >= 0) {
-							currentStreak1h++;
-						} else {
-							currentStreak1h = 1;
-						}
-
-						if (winStreak1h < currentStreak1h) {
-							winStreak1h = currentStreak1h;
-						}
-					}
-				}
-			} else if (winOrLoss == GameState.RESET_STATS) {
-				gamesWon1e = 0;
-				gamesPlayed1e = 0;
-				currentStreak1e = 0;
-				winStreak1e = 0;
-				lossStreak1e = 0;
-
-				gamesWon1m = 0;
-				gamesPlayed1m = 0;
-				currentStreak1m = 0;
-				winStreak1m = 0;
-				lossStreak1m = 0;
-
-				gamesWon1h = 0;
-				gamesPlayed1h = 0;
-				currentStreak1h = 0;
-				winStreak1h = 0;
-				lossStreak1h = 0;
-
-				gamesWon3e = 0;
-				gamesPlayed3e = 0;
-				currentStreak3e = 0;
-				winStreak3e = 0;
-				lossStreak3e = 0;
-
-				gamesWon3m = 0;
-				gamesPlayed3m = 0;
-				currentStreak3m = 0;
-				winStreak3m = 0;
-				lossStreak3m = 0;
-
-				gamesWon3h = 0;
-				gamesPlayed3h = 0;
-				currentStreak3h = 0;
-				winStreak3h = 0;
-				lossStreak3h = 0;
-			} else if (winOrLoss == GameState.DO_NOTHING || winOrLoss == GameState.GAME_SAVED) {
-				/*
-				 * Just updating options.
-				 */
-			} else {
-				if (drawCount == 3) {
-					if (difficulty == GameDifficulty.EASY) {
-						gamesPlayed3e++;
-
-						if (currentStreak3e <= 0) {
-							currentStreak3e--;
-						} else {
-							currentStreak3e = -1;
-						}
-
-						if (lossStreak3e > currentStreak3e) {
-							lossStreak3e = currentStreak3e;
-						}
-					} else if (difficulty == GameDifficulty.MEDIUM) {
-						gamesPlayed3m++;
-
-						if (currentStreak3m <= 0) {
-							currentStreak3m--;
-						} else {
-							currentStreak3m = -1;
-						}
-
-						if (lossStreak3m > currentStreak3m) {
-							lossStreak3m = currentStreak3m;
-						}
-					} else {
-						gamesPlayed3h++;
-
-						if (currentStreak3h <= 0) {
-							currentStreak3h--;
-						} else {
-							currentStreak3h = -1;
-						}
-
-						if (lossStreak3h > currentStreak3h) {
-							lossStreak3h = currentStreak3h;
-						}
-					}
-				} else if (drawCount == 1) {
-					if (difficulty == GameDifficulty.EASY) {
-						gamesPlayed1e++;
-
-						if (currentStreak1e <= 0) {
-							currentStreak1e--;
-						} else {
-							currentStreak1e = -1;
-						}
-
-						if (lossStreak1e > currentStreak1e) {
-							lossStreak1e = currentStreak1e;
-						}
-					} else if (difficulty == GameDifficulty.MEDIUM) {
-						gamesPlayed1m++;
-
-						if (currentStreak1m <= 0) {
-							currentStreak1m--;
-						} else {
-							currentStreak1m = -1;
-						}
-
-						if (lossStreak1m > currentStreak1m) {
-							lossStreak1m = currentStreak1m;
-						}
-					} else {
-						gamesPlayed1h++;
-
-						if (currentStreak1h <= 0) {
-							currentStreak1h--;
-						} else {
-							currentStreak1h = -1;
-						}
-
-						if (lossStreak1h > currentStreak1h) {
-							lossStreak1h = currentStreak1h;
-						}
-					}
-				}
-			}
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
 
 			/*
 			 * New format indicator.
 			 */
 			output.writeInt(-1);
 
-			output.writeInt(gamesPlayed1e);
-			output.writeInt(gamesWon1e);
-			output.writeInt(winStreak1e);
-			output.writeInt(lossStreak1e);
-			output.writeInt(currentStreak1e);
-
-			output.writeInt(gamesPlayed1m);
-			output.writeInt(gamesWon1m);
-			output.writeInt(winStreak1m);
-			output.writeInt(lossStreak1m);
-			output.writeInt(currentStreak1m);
-
-			output.writeInt(gamesPlayed1h);
-			output.writeInt(gamesWon1h);
-			output.writeInt(winStreak1h);
-			output.writeInt(lossStreak1h);
-			output.writeInt(currentStreak1h);
-
-			output.writeInt(gamesPlayed3e);
-			output.writeInt(gamesWon3e);
-			output.writeInt(winStreak3e);
-			output.writeInt(lossStreak3e);
-			output.writeInt(currentStreak3e);
-
-			output.writeInt(gamesPlayed3m);
-			output.writeInt(gamesWon3m);
-			output.writeInt(winStreak3m);
-			output.writeInt(lossStreak3m);
-			output.writeInt(currentStreak3m);
-
-			output.writeInt(gamesPlayed3h);
-			output.writeInt(gamesWon3h);
-			output.writeInt(winStreak3h);
-			output.writeInt(lossStreak3h);
-			output.writeInt(currentStreak3h);
-
-			output.writeInt(drawCount);
-			output.writeInt(newDrawCount);
-			output.writeInt(deckNumber);
-			output.writeInt(backgroundNumber);
-			output.writeInt(timerToRunNextGame);
-
 			/*
-			 * Finish saving options.
+			 * The counters are kept in the statistics store. They are copied
+			 * in the same layout only for older versions, which read this
+			 * file.
 			 */
-			output.writeInt(0);
-			output.writeInt(0);
-			output.writeInt(dealDeck.getDeckThroughs());
-			output.writeInt(difficulty.getValue());
-			output.writeInt(newDifficulty.getValue());
-			output.writeInt(discardPile.getNumViewableCards());
+			for (int i = 0; i < StatisticsStore.BUCKETS; i++) {
+				for (int j = 0; j < StatisticsStore.COUNTERS; j++) {
+					output.writeInt(statistics.get(i, j));
+				}
+			}
 
-			File savedFile = new File(fileLocation + "frs-savedgame.dat");
-			DataOutputStream saved = new DataOutputStream(new FileOutputStream(savedFile));
+			for (int i = 0; i < OPTIONS_BEFORE_SAVED; i++) {
+				output.writeInt(options[i]);
+			}
 
-			if (winOrLoss == GameState.GAME_SAVED) {
+			if (saved != null) {
 				/*
 				 * Saved.
 				 */
 				output.writeInt(1);
 
-				for (int i = 0; i < cells.length; i++) {
-					if (!cells[i].isEmpty()) {
-						saved.writeInt(cells[i].peek().getFullNumber());
-						saved.writeInt(-1);
-					} else {
-						saved.writeInt(-1);
-					}
-				}
-
-				for (int i = 0; i < columns.length; i++) {
-					if (!columns[i].isEmpty()) {
-						for (int j = 0; j < columns[i].length(); j++) {
-							saved.writeInt(columns[i].getCardAtLocation(j).getFullNumber());
-						}
-
-						saved.writeInt(-1);
-					} else {
-						saved.writeInt(-1);
-					}
-				}
-
-				for (int i = 0; i < acePiles.length; i++) {
-					if (!acePiles[i].isEmpty()) {
-						for (int j = 0; j < acePiles[i].length(); j++) {
-							saved.writeInt(acePiles[i].getCardAtLocation(j).getFullNumber());
-						}
-
-						saved.writeInt(-1);
-					} else {
-						saved.writeInt(-1);
-					}
-				}
-
-				if (!dealDeck.isEmpty()) {
-					for (int j = 0; j < dealDeck.length(); j++) {
-						saved.writeInt(dealDeck.getCardAtLocation(j).getFullNumber());
-					}
-
-					saved.writeInt(-1);
-				} else {
-					saved.writeInt(-1);
-				}
-
-				if (!discardPile.isEmpty()) {
-					for (int j = 0; j < discardPile.length(); j++) {
-						saved.writeInt(discardPile.getCardAtLocation(j).getFullNumber());
-					}
-
-					saved.writeInt(-1);
-				} else {
-					saved.writeInt(-1);
-				}
-
-				if (timerToRun == true)
-					saved.writeInt(timerCount);
-				else
-					saved.writeInt(-1);
+				SavedGame.write(savedFile, saved);
 			} else {
 				/*
 				 * Not saved.
@@ -887,8 +935,11 @@ class SolitaireBoard {
 				savedFile.delete();
 			}
 
+			for (int i = OPTIONS_BEFORE_SAVED; i < options.length; i++) {
+				output.writeInt(options[i]);
+			}
+
 			output.close();
-			saved.close();
 		} catch (Exception ex) {
 			ex.printStackTrace();
 		}
@@ -919,6 +970,9 @@ class SolitaireBoard {
 		if (drawCount != 3 && drawCount != 1) {
 			drawCount = 1;
 		}
+
+		dealDeck.setDrawCount(drawCount);
+		dealDeck.setDifficulty(difficulty);
 	}
 
 	/**
@@ -1007,93 +1061,138 @@ class SolitaireBoard {
 	}
 
 	/**
-	 * Used to undo a move.
+	 * Returns the stack with a pile index as in HeadlessBoard.
+	 * 
+	 * @param pile
+	 *            Pile index.
+	 * 
+	 * @return Stack.
 	 * 
 	 * @author Todor Balabanov
 	 */
-	public synchronized void undoMove() {
-		if (sourceList.isEmpty()) {
-			return;
+	CardStack getStack(int pile) {
+		if (pile >= HeadlessBoard.CELLS && pile < HeadlessBoard.COLUMNS) {
+			return cells[pile - HeadlessBoard.CELLS];
+		} else if (pile >= HeadlessBoard.COLUMNS
+				&& pile < HeadlessBoard.ACE_PILES) {
+			return columns[pile - HeadlessBoard.COLUMNS];
+		} else if (pile >= HeadlessBoard.ACE_PILES
+				&& pile < HeadlessBoard.DEAL_DECK) {
+			return acePiles[pile - HeadlessBoard.ACE_PILES];
+		} else if (pile == HeadlessBoard.DEAL_DECK) {
+			return dealDeck;
+		} else if (pile == HeadlessBoard.DISCARD_PILE) {
+			return discardPile;
 		}
 
+		throw new IllegalArgumentException("Invalid pile index: " + pile);
+	}
+
+	/**
+	 * Used to undo the last move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void undoMove() {
 		/*
 		 * If player is holding on to a card.
 		 */
-		if (sourceList.size() > destinationList.size()) {
-			CardStack tempSource = sourceList.getLast();
-			sourceList.removeLast();
-
-			int num = numCards.getLast();
-			numCards.removeLast();
+		if (undoJournal.isPending() == true) {
+			long move = undoJournal.getPending();
+			undoJournal.cancel();
 
-			int numDiscard = numCardsInDiscardView.getLast();
-			numCardsInDiscardView.removeLast();
+			CardStack tempSource = getStack(UndoJournal.source(move));
+			int num = UndoJournal.numCards(move);
 
 			if (num == 1) {
-				discardPile.setView(numDiscard);
-				tempSource.peek().unhighlight();
+				discardPile.setView(UndoJournal.numCardsInDiscardView(move));
+				states.unhighlight(tempSource.peek());
 			} else {
 				for (int i = 0; i < num; i++) {
-					tempSource.getCardAtLocation(tempSource.length() - i - 1).unhighlight();
+					states.unhighlight(tempSource.getCardAtLocation(tempSource
+							.length() - i - 1));
 				}
 			}
-		} else if (!(sourceList.getLast() instanceof DealDeck)) {
-			CardStack tempSource = sourceList.getLast();
-			CardStack tempDest = destinationList.getLast();
-			int num = numCards.getLast();
-			int numDiscard = numCardsInDiscardView.getLast();
 
-			sourceList.removeLast();
-			destinationList.removeLast();
-			numCards.removeLast();
-			numCardsInDiscardView.removeLast();
+			return;
+		}
+
+		if (undoJournal.canUndo() == false) {
+			return;
+		}
+
+		long move = undoJournal.undo();
+		CardStack tempSource = getStack(UndoJournal.source(move));
+		CardStack tempDest = getStack(UndoJournal.destination(move));
+		int num = UndoJournal.numCards(move);
+		int numDiscard = UndoJournal.numCardsInDiscardView(move);
 
+		if (!(tempSource instanceof DealDeck)) {
 			if (num == 1) {
 				tempSource.addCard(tempDest.pop());
 			} else {
 				Vector<Card> temp = tempDest.undoStack(num);
 				tempSource.addStack(temp);
 			}
-
-			discardPile.setView(numDiscard);
 		}
 		/*
 		 * The last draw from the deck didn't reset the discard pile to make it
 		 * an empty pile.
 		 */
-		else if (sourceList.getLast() instanceof DealDeck && !destinationList.getLast().isEmpty()) {
-			int num = numCards.getLast();
-			int numDiscard = numCardsInDiscardView.getLast();
-
-			sourceList.removeLast();
-			destinationList.removeLast();
-			numCards.removeLast();
-			numCardsInDiscardView.removeLast();
-
+		else if (num > 0) {
 			for (int i = 0; i < num; i++) {
 				Card card = discardPile.undoPop();
-				card.setFaceDown();
+				states.setFaceDown(card);
 				dealDeck.addCard(card);
 			}
-
-			discardPile.setView(numDiscard);
 		}
 		/*
 		 * Last move was a reset on the discard pile.
 		 */
-		else if (sourceList.getLast() instanceof DealDeck) {
+		else {
 			dealDeck.undoPop();
+		}
+
+		discardPile.setView(numDiscard);
+	}
+
+	/**
+	 * Used to redo the last undone move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void redoMove() {
+		if (undoJournal.isPending() == true || undoJournal.canRedo() == false) {
+			return;
+		}
 
-			int numDiscard = numCardsInDiscardView.getLast();
-			discardPile.setView(numDiscard);
+		long move = undoJournal.redo();
+		CardStack tempSource = getStack(UndoJournal.source(move));
+		CardStack tempDest = getStack(UndoJournal.destination(move));
+		int num = UndoJournal.numCards(move);
 
-			sourceList.removeLast();
-			destinationList.removeLast();
-			numCards.removeLast();
-			numCardsInDiscardView.removeLast();
+		if (tempSource instanceof DealDeck) {
+			dealDeck.pop();
+		} else if (num == 1) {
+			tempDest.addCard(tempSource.pop());
+		} else {
+			tempDest.addStack(tempSource.undoStack(num));
 		}
 	}
 
+	/**
+	 * Finds all possible moves on the board. The returned generator and its
+	 * moves are reused by the next call.
+	 * 
+	 * @return Move generator filled with the moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public MoveGenerator generateMoves() {
+		moves.generate(this);
+		return moves;
+	}
+
 	/**
 	 * Manages the hints.
 	 * 
@@ -1101,177 +1200,44 @@ class SolitaireBoard {
 	 * 
 	 * @author Todor Balabanov
 	 */
-	@SuppressWarnings("fallthrough")
 	public String[] getHint() {
-		CardStack source = null;
-		CardStack destination = null;
-		CardStack temp = null;
+		generateMoves();
 
-		LinkedList<String> hints = new LinkedList<String>();
-		String sourceString = "";
-
-		for (int i = 0; i < 9; i++) {
-			switch (i) {
-			case 0:
-			case 1:
-			case 2:
-			case 3: {
-				source = columns[i];
-				sourceString = "Column " + (i + 1);
-			}
-				break;
-			case 4:
-			case 5:
-			case 6:
-			case 7: {
-				source = cells[i - 4];
-				sourceString = "Cell " + (i - 3);
-			}
-				break;
-			case 8: {
-				source = discardPile;
-				sourceString = "the Discard Pile";
-			}
-				break;
-
-			default:
-				break;
-			}
-
-			if (source != null && !source.isEmpty()) {
-				temp = source.getAvailableCards();
-				String destinationString = "";
-
-				for (int j = 0; j < 8; j++) {
-					switch (j) {
-					case 0:
-					case 1:
-					case 2:
-					case 3: {
-						destination = columns[j];
-						destinationString = "Column " + (j + 1);
-					}
-						break;
-					case 4:
-					case 5:
-					case 6:
-					case 7: {
-						destination = acePiles[j - 4];
-						destinationString = "its Ace Pile";
-					}
-						break;
-
-					default:
-						break;
-					}
-
-					if (destination != null && !destination.isEmpty() && destination != source
-							&& !(destination instanceof SingleCell)) {
-						for (int k = temp.length() - 1; k >= 0; k--) {
-							Card card = temp.getCardAtLocation(k);
-
-							if (((destination instanceof AcePile)
-									&& card.getSuit().equals(((AcePile) destination).getSuit())
-									&& card.getRank().isLessByOneThan(((AcePile) (destination)).peek().getRank())
-									&& k == 0)
-									|| (!(destination instanceof AcePile)
-											&& card.getColor() != ((AcePile) destination).peek().getColor()
-											&& card.getRank()
-													.isGreaterByOneThan((((AcePile) destination).peek()).getRank()))) {
-								String hintString = "Move the ";
-
-								if (card.getRank().equals(CardRank.JACK)) {
-									hintString += "Jack";
-								} else if (card.getRank().equals(CardRank.QUEEN)) {
-									hintString += "Queen";
-								} else if (card.getRank().equals(CardRank.KING)) {
-									hintString += "King";
-								} else if (card.getRank().equals(CardRank.ACE)) {
-									hintString += "Ace";
-								} else {
-									hintString += card.getRank();
-								}
-
-								hintString += " of " + card.getSuit() + " in " + sourceString + " to the ";
-
-								if (((AcePile) (destination)).peek().getRank().equals(CardRank.JACK)) {
-									hintString += "Jack";
-								} else if (((AcePile) (destination)).peek().getRank().equals(CardRank.QUEEN)) {
-									hintString += "Queen";
-								} else if (((AcePile) (destination)).peek().getRank().equals(CardRank.KING)) {
-									hintString += "King";
-								} else if (((AcePile) (destination)).peek().getRank().equals(CardRank.ACE)) {
-									hintString += "Ace";
-								} else {
-									hintString += ((AcePile) (destination)).peek().getRank();
-								}
-
-								hintString += " of " + ((AcePile) (destination)).peek().getSuit() + " in "
-										+ destinationString;
-
-								hints.add(hintString);
-								/*
-								 * Once a move is found from a source to
-								 * destination, stop looking for more.
-								 */
-								break;
-							}
-						}
-					} else if (destination != null && destination != source && (destination instanceof Column)
-							&& ((Column) destination).isEmpty()
-							&& (source.getBottom().getRank().equals(CardRank.KING) == false
-									|| source instanceof SingleCell)) {
-						for (int k = 0; k < temp.length(); k++) {
-							Card card = temp.getCardAtLocation(k);
-
-							if (card.getRank().equals(CardRank.KING)) {
-								String hintString = "Move the King of " + card.getSuit() + " in " + sourceString
-										+ " to the empty " + destinationString;
-
-								hints.add(hintString);
-								/*
-								 * Once a move is found from a source to
-								 * destination, stop looking for more.
-								 */
-								break;
-							}
-						}
-					} else if (destination != null && destination != source && (destination instanceof AcePile)
-							&& ((AcePile) destination).isEmpty()) {
-						Card card = temp.peek();
-
-						if (card.getRank().equals(CardRank.ACE)
-								&& card.getSuit().equals(((AcePile) destination).getSuit())) {
-							String hintString = "Move the Ace of " + card.getSuit() + " in " + sourceString + " to "
-									+ destinationString;
-
-							hints.add(hintString);
-							/*
-							 * Once a move is found from a source to
-							 * destination, stop looking for more.
-							 */
-							break;
-						}
-					}
-				}
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < moves.size(); i++) {
+			if (moves.get(i).isDraw() == false) {
+				text.append(moves.get(i)).append("\n");
 			}
 		}
 
-		for (int i = 0; i < cells.length; i++) {
-			if (cells[i].isEmpty() == true) {
-				String hintString = "Move any available card to Cell " + (i + 1);
-				hints.add(hintString);
-			}
+		/*
+		 * What is known from the solver results for this position.
+		 */
+		SolverResult known = null;
+		SolverCache cache = openSolverCache();
+		if (cache != null) {
+			known = cache.get(SolverCache.key(getHash(), drawCount,
+					difficulty));
+		}
+		String note = "";
+		if (known != null
+				&& known.getSolvability() == Solvability.UNSOLVABLE) {
+			note = "\nThis game can not be won from here.";
+		} else if (known != null
+				&& known.getLength() != SolverResult.UNKNOWN_LENGTH) {
+			note = "\nThis game can be won in " + known.getLength()
+					+ " moves.";
+		} else if (known != null
+				&& known.getSolvability() == Solvability.SOLVABLE) {
+			note = "\nThis game can be won.";
 		}
 
 		String hint[] = { "", "" };
-		if (hints.isEmpty() == false) {
-			for (int i = 0; i < hints.size(); i++) {
-				hint[0] += hints.get(i) + "\n";
-			}
+		if (text.length() > 0) {
+			hint[0] = text.toString() + note;
 			hint[1] = "Hints Galore";
 		} else {
-			hint[0] = "There are no moves on the field.\n" + "Either deal more cards or start a new game";
+			hint[0] = "There are no moves on the field.\n" + "Either deal more cards or start a new game" + note;
 			hint[1] = "Hints";
 		}
 
@@ -1299,7 +1265,7 @@ class SolitaireBoard {
 				continue;
 			}
 
-			if (cells[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(cells[i].peek()) == true) {
 				stack = cells[i];
 			}
 		}
@@ -1307,11 +1273,11 @@ class SolitaireBoard {
 			if (columns[i].isEmpty() == true) {
 				continue;
 			}
-			if (columns[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(columns[i].peek()) == true) {
 				stack = columns[i];
 			}
 		}
-		if (discardPile.isEmpty() == false && discardPile.peek().isHighlighted() == true) {
+		if (discardPile.isEmpty() == false && states.isHighlighted(discardPile.peek()) == true) {
 			stack = discardPile;
 		}
 
@@ -1340,10 +1306,7 @@ class SolitaireBoard {
 		if (acePiles[index].isEmpty() == true) {
 			return;
 		}
-		if (stack.peek().getSuit().equals(acePiles[index].getSuit()) == false) {
-			return;
-		}
-		if (stack.peek().getRank().isLessByOneThan((acePiles[index].peek().getRank())) == false) {
+		if (CardRules.isValidOnAcePile(stack.peek(), acePiles[index].peek()) == false) {
 			return;
 		}
 
@@ -1379,7 +1342,7 @@ class SolitaireBoard {
 				continue;
 			}
 
-			if (acePiles[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(acePiles[i].peek()) == true) {
 				stack = acePiles[i];
 			}
 		}
@@ -1388,7 +1351,7 @@ class SolitaireBoard {
 				continue;
 			}
 
-			if (cells[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(cells[i].peek()) == true) {
 				stack = cells[i];
 			}
 		}
@@ -1396,11 +1359,11 @@ class SolitaireBoard {
 			if (columns[i].isEmpty() == true) {
 				continue;
 			}
-			if (columns[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(columns[i].peek()) == true) {
 				stack = columns[i];
 			}
 		}
-		if (discardPile.isEmpty() == false && discardPile.peek().isHighlighted() == true) {
+		if (discardPile.isEmpty() == false && states.isHighlighted(discardPile.peek()) == true) {
 			stack = discardPile;
 		}
 
@@ -1432,7 +1395,7 @@ class SolitaireBoard {
 				continue;
 			}
 
-			if (acePiles[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(acePiles[i].peek()) == true) {
 				stack = acePiles[i];
 			}
 		}
@@ -1441,7 +1404,7 @@ class SolitaireBoard {
 				continue;
 			}
 
-			if (cells[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(cells[i].peek()) == true) {
 				stack = cells[i];
 			}
 		}
@@ -1449,11 +1412,11 @@ class SolitaireBoard {
 			if (columns[i].isEmpty() == true) {
 				continue;
 			}
-			if (columns[i].peek().isHighlighted() == true) {
+			if (states.isHighlighted(columns[i].peek()) == true) {
 				stack = columns[i];
 			}
 		}
-		if (discardPile.isEmpty() == false && discardPile.peek().isHighlighted() == true) {
+		if (discardPile.isEmpty() == false && states.isHighlighted(discardPile.peek()) == true) {
 			stack = discardPile;
 		}
 
@@ -1477,7 +1440,7 @@ class SolitaireBoard {
 			Column a = (Column) stack;
 			Column b = columns[index];
 			for (int i = 0; i < a.length(); i++) {
-				if (a.getCardAtLocation(i).isHighlighted() == true) {
+				if (states.isHighlighted(a.getCardAtLocation(i)) == true) {
 					if (b.isValidMove(a.getCardAtLocation(i)) == true) {
 						valid = true;
 					}
@@ -1486,12 +1449,12 @@ class SolitaireBoard {
 			}
 			if (valid == true) {
 				for (int i = 0; i < a.length(); i++) {
-					if (a.getCardAtLocation(i).isHighlighted() == true) {
+					if (states.isHighlighted(a.getCardAtLocation(i)) == true) {
 						b.push(a.getCardAtLocation(i));
 					}
 				}
 				for (int i = a.length() - 1; i >= 0; i--) {
-					if (a.getCardAtLocation(i).isHighlighted() == true) {
+					if (states.isHighlighted(a.getCardAtLocation(i)) == true) {
 						a.pop();
 					}
 				}
@@ -1499,6 +1462,103 @@ class SolitaireBoard {
 		}
 	}
 
+	/**
+	 * Plays a packed HeadlessBoard move, for example a step of a solver
+	 * solution. The source cards are selected and the matching moveToAces(),
+	 * moveToColumns() or moveToCells() is called, in the same way as from the
+	 * user interface. The move is recorded for undo.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return True if the move was done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized boolean playMove(int move) {
+		int source = HeadlessBoard.moveSource(move);
+		int destination = HeadlessBoard.moveDestination(move);
+		int numberOfCards = HeadlessBoard.moveCards(move);
+		int numCardsInDiscardView = discardPile.getNumViewableCards();
+
+		if (undoJournal.isPending() == true) {
+			return false;
+		}
+
+		if (source == HeadlessBoard.DEAL_DECK && destination == HeadlessBoard.DISCARD_PILE) {
+			if (dealDeck.pop() != null) {
+				undoJournal.record(HeadlessBoard.DEAL_DECK, HeadlessBoard.DISCARD_PILE,
+						discardPile.getNumViewableCards(), numCardsInDiscardView);
+				return true;
+			} else if (dealDeck.hasDealsLeft() == true) {
+				/*
+				 * The deck was reset.
+				 */
+				undoJournal.record(HeadlessBoard.DEAL_DECK, HeadlessBoard.DISCARD_PILE, 0, numCardsInDiscardView);
+				return true;
+			}
+
+			return false;
+		}
+
+		if (source == HeadlessBoard.DEAL_DECK || destination >= HeadlessBoard.DEAL_DECK) {
+			return false;
+		}
+
+		CardStack stack = getStack(source);
+		if (numberOfCards < 1 || stack.length() < numberOfCards) {
+			return false;
+		}
+
+		/*
+		 * Select the cards as the player does.
+		 */
+		clearHighlighting();
+		for (int i = stack.length() - numberOfCards; i < stack.length(); i++) {
+			states.highlight(stack.getCardAtLocation(i));
+		}
+
+		long hash = getHash();
+		if (destination < HeadlessBoard.COLUMNS) {
+			moveToCells(destination - HeadlessBoard.CELLS, numberOfCards);
+		} else if (destination < HeadlessBoard.ACE_PILES) {
+			moveToColumns(destination - HeadlessBoard.COLUMNS, numberOfCards);
+		} else {
+			moveToAces(destination - HeadlessBoard.ACE_PILES, numberOfCards);
+		}
+		clearHighlighting();
+
+		if (getHash() == hash) {
+			return false;
+		}
+
+		undoJournal.begin(source, numberOfCards, numCardsInDiscardView);
+		undoJournal.commit(destination);
+
+		return true;
+	}
+
+	/**
+	 * Plays a list of packed HeadlessBoard moves, for example a solution of
+	 * BestFirstSolver.
+	 * 
+	 * @param moves
+	 *            Packed moves.
+	 * 
+	 * @return True if all moves were done.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized boolean playMoves(int moves[]) {
+		for (int i = 0; i < moves.length; i++) {
+			if (playMove(moves[i]) == false) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Check is the solitaire solved.
 	 * 
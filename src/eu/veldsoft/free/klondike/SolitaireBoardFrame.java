@@ -32,6 +32,7 @@ import java.util.LinkedList;
 import java.util.Vector;
 
 import javax.swing.ImageIcon;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -278,43 +279,38 @@ class SolitaireBoardFrame extends JFrame {
 			if (hasSelected == true) {
 				hasSelected = false;
 
+				CardStack selected = board.getStack(UndoJournal
+						.source(board.undoJournal.getPending()));
 				for (int i = 0; i < temp.size(); i++) {
-					board.sourceList
-							.getLast()
-							.getCardAtLocation(
-									board.sourceList.getLast().length() - i - 1)
-							.unhighlight();
+					board.getStates().unhighlight(
+							selected.getCardAtLocation(selected.length() - i - 1));
 				}
 
 				if (temp.size() == 0) {
-					board.sourceList.getLast().peek().unhighlight();
+					board.getStates().unhighlight(selected.peek());
 				}
 
 				redrawAll();
 
-				board.sourceList.removeLast();
-				board.numCardsInDiscardView.removeLast();
-				board.numCards.removeLast();
+				board.undoJournal.cancel();
 			}
 
-			board.numCardsInDiscardView.add(board.discardPile
-					.getNumViewableCards());
+			int numCardsInDiscardView = board.discardPile
+					.getNumViewableCards();
 			clickedCard = source.pop();
 
 			if (clickedCard != null) {
-				board.sourceList.add(board.dealDeck);
-				board.destinationList.add(board.discardPile);
-				board.numCards.add(board.discardPile.getNumViewableCards());
+				board.undoJournal.record(HeadlessBoard.DEAL_DECK,
+						HeadlessBoard.DISCARD_PILE,
+						board.discardPile.getNumViewableCards(),
+						numCardsInDiscardView);
 			} else if (board.dealDeck.hasDealsLeft() == true) {
 				/*
 				 * The deck was reset but the player hasn't used up the times
 				 * through the deck.
 				 */
-				board.sourceList.add(board.dealDeck);
-				board.destinationList.add(board.discardPile);
-				board.numCards.add(0);
-			} else {
-				board.numCardsInDiscardView.removeLast();
+				board.undoJournal.record(HeadlessBoard.DEAL_DECK,
+						HeadlessBoard.DISCARD_PILE, 0, numCardsInDiscardView);
 			}
 		}
 
@@ -325,10 +321,10 @@ class SolitaireBoardFrame extends JFrame {
 			if (source.peek().getRank().equals(CardRank.ACE)) {
 				Card card = source.pop();
 				AcePileLayeredPane pile = acePiles[card.getSuit().getIndex()];
-				card.unhighlight();
+				board.getStates().unhighlight(card);
 
 				pile.push(card);
-				board.destinationList.add(pile.acePile);
+				board.undoJournal.commit(pile.acePile.getPile());
 
 				hasSelected = false;
 				return;
@@ -342,20 +338,16 @@ class SolitaireBoardFrame extends JFrame {
 				if (board.acePiles[i].isEmpty() == true) {
 					continue;
 				}
-				if (source.peek().getSuit()
-						.equals(board.acePiles[i].peek().getSuit()) == false) {
-					continue;
-				}
-				if (source.peek().getRank()
-						.isLessByOneThan((board.acePiles[i].peek().getRank())) == false) {
+				if (CardRules.isValidOnAcePile(source.peek(),
+						board.acePiles[i].peek()) == false) {
 					continue;
 				}
 
 				Card card = source.pop();
-				card.unhighlight();
+				board.getStates().unhighlight(card);
 				board.acePiles[i].push(card);
 
-				board.destinationList.add(board.acePiles[i]);
+				board.undoJournal.commit(board.acePiles[i].getPile());
 				hasSelected = false;
 
 				/*
@@ -378,16 +370,16 @@ class SolitaireBoardFrame extends JFrame {
 				}
 
 				Card card = source.pop();
-				card.unhighlight();
+				board.getStates().unhighlight(card);
 				board.cells[i].push(card);
 
-				board.destinationList.add(board.cells[i]);
+				board.undoJournal.commit(board.cells[i].getPile());
 				hasSelected = false;
 
 				return;
 			}
 
-			source.peek().unhighlight();
+			board.getStates().unhighlight(source.peek());
 			return;
 		}
 
@@ -424,44 +416,27 @@ class SolitaireBoardFrame extends JFrame {
 
 				if (temp.size() > 0) {
 					for (int i = 0; i < temp.size(); i++) {
-						source.getCardAtLocation(source.length() - i - 1)
-								.unhighlight();
+						board.getStates().unhighlight(
+								source.getCardAtLocation(source.length() - i - 1));
 					}
 				}
 
-				board.sourceList.removeLast();
-				board.numCardsInDiscardView.removeLast();
-				board.numCards.removeLast();
+				board.undoJournal.cancel();
 			} else if (e.getSource() instanceof DealDeckLayeredPane) {
 				source = (CardStackLayeredPane) e.getSource();
 				dealDeckClicked();
 			} else if (hasSelected == false && e.getClickCount() == 1) {
 				source = (CardStackLayeredPane) e.getSource();
-				board.numCardsInDiscardView.add(board.discardPile
-						.getNumViewableCards());
+				int numCardsInDiscardView = board.discardPile
+						.getNumViewableCards();
 				clickedCard = source.getCardAtLocation(e.getPoint());
 
 				if (clickedCard != null) {
 					hasSelected = true;
 					temp = source.getStack(clickedCard);
 
-					if (source instanceof AcePileLayeredPane) {
-						board.sourceList
-								.add(((AcePileLayeredPane) source).acePile);
-					} else if (source instanceof ColumnLayeredPane) {
-						board.sourceList
-								.add(((ColumnLayeredPane) source).column);
-					} else if (source instanceof DealDeckLayeredPane) {
-						board.sourceList
-								.add(((DealDeckLayeredPane) source).dealDeck);
-					} else if (source instanceof DiscardPileLayeredPane) {
-						board.sourceList
-								.add(((DiscardPileLayeredPane) source).discardPile);
-					} else if (source instanceof SingleCellLayeredPane) {
-						board.sourceList
-								.add(((SingleCellLayeredPane) source).singleCell);
-					}
-					board.numCards.add(temp.size());
+					board.undoJournal.begin(stackOf(source).getPile(),
+							temp.size(), numCardsInDiscardView);
 
 					if (temp.size() > 1) {
 						singleCardSelected = false;
@@ -469,7 +444,6 @@ class SolitaireBoardFrame extends JFrame {
 						singleCardSelected = true;
 					}
 				} else {
-					board.numCardsInDiscardView.removeLast();
 					hasSelected = false;
 				}
 			} else if (e.getClickCount() == 1 && hasSelected == true
@@ -481,28 +455,13 @@ class SolitaireBoardFrame extends JFrame {
 
 				if (destination.isValidMove(clickedCard) == true) {
 					Card card = source.pop();
-					card.unhighlight();
+					board.getStates().unhighlight(card);
 					destination.push(card);
 
 					/*
 					 * If move is valid, add destination info for undo.
 					 */
-					if (destination instanceof AcePileLayeredPane) {
-						board.destinationList
-								.add(((AcePileLayeredPane) destination).acePile);
-					} else if (destination instanceof ColumnLayeredPane) {
-						board.destinationList
-								.add(((ColumnLayeredPane) destination).column);
-					} else if (destination instanceof DealDeckLayeredPane) {
-						board.destinationList
-								.add(((DealDeckLayeredPane) destination).dealDeck);
-					} else if (destination instanceof DiscardPileLayeredPane) {
-						board.destinationList
-								.add(((DiscardPileLayeredPane) destination).discardPile);
-					} else if (destination instanceof SingleCellLayeredPane) {
-						board.destinationList
-								.add(((SingleCellLayeredPane) destination).singleCell);
-					}
+					board.undoJournal.commit(stackOf(destination).getPile());
 
 					if (destination instanceof AcePileLayeredPane
 							&& clickedCard.getRank().equals(CardRank.KING)) {
@@ -512,14 +471,12 @@ class SolitaireBoardFrame extends JFrame {
 					/*
 					 * Not needed with highlighting version.
 					 */
-					source.peek().unhighlight();
+					board.getStates().unhighlight(source.peek());
 
 					/*
 					 * Upon invalid move, remove undo information for cards.
 					 */
-					board.sourceList.removeLast();
-					board.numCards.removeLast();
-					board.numCardsInDiscardView.removeLast();
+					board.undoJournal.cancel();
 				}
 
 				singleCardSelected = false;
@@ -537,7 +494,7 @@ class SolitaireBoardFrame extends JFrame {
 					Vector<Card> stack = new Vector<Card>();
 					for (int i = temp.size(); i > 0; i--) {
 						Card card = source.pop();
-						card.unhighlight();
+						board.getStates().unhighlight(card);
 
 						stack.add(card);
 					}
@@ -547,34 +504,17 @@ class SolitaireBoardFrame extends JFrame {
 					/*
 					 * If move is valid, add destination info for undo.
 					 */
-					if (source instanceof AcePileLayeredPane) {
-						board.destinationList
-								.add(((AcePileLayeredPane) destination).acePile);
-					} else if (source instanceof ColumnLayeredPane) {
-						board.destinationList
-								.add(((ColumnLayeredPane) destination).column);
-					} else if (source instanceof DealDeckLayeredPane) {
-						board.destinationList
-								.add(((DealDeckLayeredPane) destination).dealDeck);
-					} else if (source instanceof DiscardPileLayeredPane) {
-						board.destinationList
-								.add(((DiscardPileLayeredPane) destination).discardPile);
-					} else if (source instanceof SingleCellLayeredPane) {
-						board.destinationList
-								.add(((SingleCellLayeredPane) destination).singleCell);
-					}
+					board.undoJournal.commit(stackOf(destination).getPile());
 				} else {
 					for (int i = temp.size() - 1; i >= 0; i--) {
-						source.getCardAtLocation(source.length() - i - 1)
-								.unhighlight();
+						board.getStates().unhighlight(
+								source.getCardAtLocation(source.length() - i - 1));
 					}
 
 					/*
 					 * Upon invalid move, remove undo information for cards.
 					 */
-					board.sourceList.removeLast();
-					board.numCards.removeLast();
-					board.numCardsInDiscardView.removeLast();
+					board.undoJournal.cancel();
 				}
 
 				singleCardSelected = false;
@@ -692,30 +632,72 @@ class SolitaireBoardFrame extends JFrame {
 	protected WindowListener wl = new MyWindowListener();
 
 	/**
-	 * Repaint all card stacks.
+	 * View hashes of the card stacks as they were painted last time, indexed
+	 * by pile.
+	 */
+	private long paintedViews[] = new long[HeadlessBoard.NUMBER_OF_PILES];
+
+	/**
+	 * Number of cards in the card stacks as they were painted last time,
+	 * indexed by pile.
+	 */
+	private int paintedLengths[] = new int[HeadlessBoard.NUMBER_OF_PILES];
+
+	/**
+	 * Repaints a card stack only if it was changed since the last time it was
+	 * painted. The repainted area is limited to the cards which are and were
+	 * on the screen.
+	 * 
+	 * @param pane
+	 *            Layered pane of the stack.
+	 * 
+	 * @param stack
+	 *            Card stack.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void redraw(JComponent pane, CardStack stack) {
+		if (stack == null || stack.getPile() < 0) {
+			pane.repaint();
+			return;
+		}
+
+		int pile = stack.getPile();
+		long view = stack.getViewHash();
+
+		if (view == paintedViews[pile]) {
+			return;
+		}
+
+		int length = Math.max(stack.length(), paintedLengths[pile]);
+		paintedViews[pile] = view;
+		paintedLengths[pile] = stack.length();
+
+		if (stack instanceof Column && length > 0) {
+			pane.repaint(0, 0, pane.getWidth(), (length - 1)
+					* ColumnLayeredPane.CARD_OFFSET + CardAtlas.CARD_HEIGHT);
+		} else {
+			pane.repaint(0, 0, pane.getWidth(), pane.getHeight());
+		}
+	}
+
+	/**
+	 * Repaint the card stacks changed since the last repaint.
 	 * 
 	 * @author Todor Balabanov
 	 */
 	private void redrawAll() {
 		for (int i = 0; i < columns.length; i++) {
-			columns[i].repaint();
-			columns[i].revalidate();
+			redraw(columns[i], columns[i].column);
 		}
 		for (int i = 0; i < cells.length; i++) {
-			cells[i].repaint();
-			cells[i].revalidate();
+			redraw(cells[i], cells[i].singleCell);
 		}
 		for (int i = 0; i < acePiles.length; i++) {
-			acePiles[i].repaint();
-			acePiles[i].revalidate();
+			redraw(acePiles[i], acePiles[i].acePile);
 		}
-		dealDeck.repaint();
-		dealDeck.revalidate();
-		discardPile.repaint();
-		discardPile.revalidate();
-
-		repaint();
-		revalidate();
+		redraw(dealDeck, dealDeck.dealDeck);
+		redraw(discardPile, discardPile.discardPile);
 	}
 
 	/**
@@ -761,6 +743,11 @@ class SolitaireBoardFrame extends JFrame {
 		setVisible(true);
 
 		addWindowListener(wl);
+
+		/*
+		 * The solver results are loaded while the user starts the game.
+		 */
+		SolverCache.open();
 	}
 
 	/**
@@ -912,8 +899,8 @@ class SolitaireBoardFrame extends JFrame {
 	 * @author Todor Balabanov
 	 */
 	public synchronized void undoMove() {
-		if (board.sourceList.size() > board.destinationList.size()) {
-			if (board.numCards.getLast() == 1) {
+		if (board.undoJournal.isPending() == true) {
+			if (UndoJournal.numCards(board.undoJournal.getPending()) == 1) {
 				ml.clickedCard = null;
 				ml.hasSelected = false;
 				ml.singleCardSelected = false;
@@ -925,20 +912,48 @@ class SolitaireBoardFrame extends JFrame {
 			}
 		}
 
-		CardStack tempSource = null;
-		CardStack tempDest = null;
-		if (board.sourceList.size() > board.destinationList.size()) {
-			tempSource = board.sourceList.getLast();
-		} else if (!(board.sourceList.getLast() instanceof DealDeck)) {
-			tempSource = board.sourceList.getLast();
-			tempDest = board.destinationList.getLast();
-		}
-
 		board.undoMove();
 
 		redrawAll();
 	}
 
+	/**
+	 * Used to redo an undone move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void redoMove() {
+		board.redoMove();
+
+		redrawAll();
+	}
+
+	/**
+	 * Returns the stack shown in a pane.
+	 * 
+	 * @param pane
+	 *            Pane.
+	 * 
+	 * @return Stack or null if the pane is unknown.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static CardStack stackOf(CardStackLayeredPane pane) {
+		if (pane instanceof AcePileLayeredPane) {
+			return ((AcePileLayeredPane) pane).acePile;
+		} else if (pane instanceof ColumnLayeredPane) {
+			return ((ColumnLayeredPane) pane).column;
+		} else if (pane instanceof DealDeckLayeredPane) {
+			return ((DealDeckLayeredPane) pane).dealDeck;
+		} else if (pane instanceof DiscardPileLayeredPane) {
+			return ((DiscardPileLayeredPane) pane).discardPile;
+		} else if (pane instanceof SingleCellLayeredPane) {
+			return ((SingleCellLayeredPane) pane).singleCell;
+		}
+
+		return null;
+	}
+
 	/**
 	 * Clears the board.
 	 * 
@@ -981,6 +996,45 @@ class SolitaireBoardFrame extends JFrame {
 		dealOutBoard();
 	}
 
+	/**
+	 * For starting a new game with particular deal number. The current game is
+	 * recorded as lost.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void selectGame(long dealNumber) {
+		board.recordGame(GameState.GAME_LOST, deckNumber, backgroundNumber,
+				timerCount, timerToRunNextGame, timerToRun);
+		board.newGame(GameState.GAME_LOST);
+		redrawAll();
+		dealOutBoard(dealNumber);
+	}
+
+	/**
+	 * Returns the deal number of the current game.
+	 * 
+	 * @return Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public long getDealNumber() {
+		return board.getDealNumber();
+	}
+
+	/**
+	 * Returns the game statistics.
+	 * 
+	 * @return Statistics.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	StatisticsStore getStatistics() {
+		return board.getStatistics();
+	}
+
 	/**
 	 * Used to reset the stats.
 	 * 
@@ -1045,6 +1099,25 @@ class SolitaireBoardFrame extends JFrame {
 		mainPanel.revalidate();
 	}
 
+	/**
+	 * Creates the solitaire board with a saved game.
+	 * 
+	 * @param game
+	 *            Saved game.
+	 * 
+	 * @param numViewableCards
+	 *            Number of viewable cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void restoreBoard(SavedGame game, int numViewableCards) {
+		setTimer(game.getTimer());
+		createBoard(game.getCards(), numViewableCards);
+		board.restoreGame(game);
+
+		setTitle("Free Klondike #" + board.getDealNumber());
+	}
+
 	/**
 	 * Creates the solitaire board.
 	 * 
@@ -1128,12 +1201,43 @@ class SolitaireBoardFrame extends JFrame {
 	}
 
 	/**
-	 * Deals the cards.
+	 * Deals the cards with the next deal number of the board. In the winnable
+	 * only mode a random deal is used only when there is no verified deal yet
+	 * and the user is told about it.
 	 * 
 	 * @author Todor Balabanov
 	 */
 	private void dealOutBoard() {
-		board.dealOutBoard();
+		if (board.isWinnableOnly() == true) {
+			Long dealNumber = board.nextWinnableDealNumber();
+
+			if (dealNumber != null) {
+				dealOutBoard(dealNumber.longValue());
+				return;
+			}
+
+			JOptionPane.showMessageDialog(this,
+					"There is no verified winnable deal yet, so this game is "
+							+ "random and it may not be winnable.\n"
+							+ "Winnable deals are used again as soon as "
+							+ "they are ready.", "Winnable Deals Only",
+					JOptionPane.INFORMATION_MESSAGE);
+		}
+
+		dealOutBoard(Common.PRNG.nextLong());
+	}
+
+	/**
+	 * Deals the cards.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void dealOutBoard(long dealNumber) {
+		board.dealOutBoard(dealNumber);
+		setTitle("Free Klondike #" + dealNumber);
 
 		timerCount = 0;
 
@@ -1163,6 +1267,30 @@ class SolitaireBoardFrame extends JFrame {
 		board.setNewDrawCount(newDrawCount);
 	}
 
+	/**
+	 * Turns the winnable only mode on or off. It is used from the next new
+	 * game.
+	 * 
+	 * @param winnableOnly
+	 *            True for winnable deals only.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void setWinnableOnly(boolean winnableOnly) {
+		board.setWinnableOnly(winnableOnly);
+	}
+
+	/**
+	 * Checks if the winnable only mode is on.
+	 * 
+	 * @return True for winnable deals only.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public boolean isWinnableOnly() {
+		return board.isWinnableOnly();
+	}
+
 	/**
 	 * 
 	 * @param drawCount
@@ -0,0 +1,684 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Class: SolverCache
+ * 
+ * Description: The SolverCache class keeps the solver results between runs.
+ * The results are keyed by the Zobrist hash of the position together with the
+ * draw count and the difficulty, so a numbered deal and a deal given by its
+ * 52 card numbers end up with the same key. The Zobrist keys are the same in
+ * each run, so the keys can be stored.
+ * 
+ * The stored results are in a file of fixed-width records sorted by key,
+ * which is memory mapped and searched with binary search. The recently used
+ * results are kept in a LRU map in front of the file. New results stay in
+ * memory until flush() merges them with the file.
+ * 
+ * The methods are synchronized, so a single cache can be shared by solvers
+ * in different threads. A flush holds the lock only to take the new results
+ * and to swap the mapped file, so the lookups do not wait for the disk.
+ * 
+ * @author Todor Balabanov
+ */
+class SolverCache {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(SolverCache.class
+			.getName());
+
+	/**
+	 * Size of a single record in bytes: key, nodes, length and verdict.
+	 */
+	static final int RECORD_SIZE = 8 + 8 + 4 + 4;
+
+	/**
+	 * Default number of results in the LRU map.
+	 */
+	static final int DEFAULT_CAPACITY = 1 << 14;
+
+	/**
+	 * Number of new results which starts a background flush.
+	 */
+	static final int FLUSH_THRESHOLD = 1024;
+
+	/**
+	 * Shared cache of the game or null if it is not opened.
+	 */
+	private static volatile SolverCache instance = null;
+
+	/**
+	 * True after the first attempt to open the shared cache.
+	 */
+	private static boolean opened = false;
+
+	/**
+	 * True after the shared cache is submitted for opening.
+	 */
+	private static boolean submitted = false;
+
+	/**
+	 * Solver verdicts by ordinal.
+	 */
+	private static final Solvability VERDICTS[] = Solvability.values();
+
+	/**
+	 * Index file.
+	 */
+	private final File file;
+
+	/**
+	 * Copy of the old index file while it is replaced.
+	 */
+	private final File backup;
+
+	/**
+	 * Lock which lets only one flush at a time.
+	 */
+	private final Object flushing = new Object();
+
+	/**
+	 * Recently used results.
+	 */
+	private final Map<Long, SolverResult> recent;
+
+	/**
+	 * Results which are not in the file yet, sorted by key.
+	 */
+	private final TreeMap<Long, SolverResult> pending = new TreeMap<Long, SolverResult>();
+
+	/**
+	 * Mapped index file or null if there is no file.
+	 */
+	private ByteBuffer index = null;
+
+	/**
+	 * Number of records in the index file.
+	 */
+	private int size = 0;
+
+	/**
+	 * Returns the shared cache of the game. It is opened with the first call,
+	 * so it should not be called from the user interface thread. It is
+	 * flushed and closed by the persistence service when the application
+	 * exits.
+	 * 
+	 * @return Solver cache or null if it can not be opened.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static synchronized SolverCache getInstance() {
+		if (opened == false) {
+			opened = true;
+
+			String fileLocation = System.getProperty("user.home")
+					+ System.getProperty("file.separator");
+
+			try {
+				final SolverCache cache = new SolverCache(new File(
+						fileLocation + "frs-solver.bin"));
+
+				PersistenceService.atExit(new Runnable() {
+					public void run() {
+						try {
+							cache.close();
+						} catch (IOException ex) {
+							LOGGER.info("Solver cache can not be closed: "
+									+ ex + "!");
+						}
+					}
+				});
+
+				instance = cache;
+			} catch (IOException ex) {
+				LOGGER.info("Solver cache can not be opened: " + ex + "!");
+			}
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Opens the shared cache of the game in the persistence thread. It is
+	 * called at start up.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static synchronized void open() {
+		if (submitted == true) {
+			return;
+		}
+		submitted = true;
+
+		PersistenceService.execute(new Runnable() {
+			public void run() {
+				getInstance();
+			}
+		});
+	}
+
+	/**
+	 * Returns the shared cache of the game if it is already opened. It never
+	 * waits for the disk, so it can be called from the user interface thread.
+	 * 
+	 * @return Solver cache or null if it is not opened yet.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static SolverCache getOpened() {
+		return instance;
+	}
+
+	/**
+	 * Returns the cache key of a position.
+	 * 
+	 * @param hash
+	 *            Zobrist hash of the position.
+	 * 
+	 * @param drawCount
+	 *            Draw count.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Cache key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long key(long hash, int drawCount, GameDifficulty difficulty) {
+		return Zobrist.mix(hash ^ drawCount ^ (long) difficulty.ordinal() << 8);
+	}
+
+	/**
+	 * Returns the cache key of a position.
+	 * 
+	 * @param board
+	 *            Position.
+	 * 
+	 * @return Cache key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long key(HeadlessBoard board) {
+		return key(board.hash(), board.getDrawCount(), board.getDifficulty());
+	}
+
+	/**
+	 * Returns the cache key of a numbered deal.
+	 * 
+	 * @param dealNumber
+	 *            Deal number.
+	 * 
+	 * @param drawCount
+	 *            Draw count.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Cache key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long dealKey(long dealNumber, int drawCount,
+			GameDifficulty difficulty) {
+		int numbers[] = new int[HeadlessBoard.DECK_SIZE];
+		Deck.shuffle(dealNumber, numbers);
+
+		return dealKey(numbers, drawCount, difficulty);
+	}
+
+	/**
+	 * Returns the cache key of a deal given by its card numbers.
+	 * 
+	 * @param numbers
+	 *            Card numbers of all 52 cards as in Deck.shuffle().
+	 * 
+	 * @param drawCount
+	 *            Draw count.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Cache key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long dealKey(int numbers[], int drawCount,
+			GameDifficulty difficulty) {
+		HeadlessBoard board = new HeadlessBoard();
+		board.setDrawCount(drawCount);
+		board.setDifficulty(difficulty);
+		board.deal(numbers);
+
+		return key(board);
+	}
+
+	/**
+	 * Opens cache with default LRU capacity.
+	 * 
+	 * @param file
+	 *            Index file. It is created on the first flush.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public SolverCache(File file) throws IOException {
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens cache.
+	 * 
+	 * @param file
+	 *            Index file. It is created on the first flush.
+	 * 
+	 * @param capacity
+	 *            Number of results in the LRU map.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public SolverCache(File file, final int capacity) throws IOException {
+		this.file = file;
+		this.backup = new File(file.getPath() + ".bak");
+		this.recent = new LinkedHashMap<Long, SolverResult>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Long, SolverResult> eldest) {
+				return size() > capacity;
+			}
+		};
+
+		/*
+		 * The old index file is left as a backup when an earlier replace was
+		 * not completed.
+		 */
+		if (file.exists() == false && backup.exists() == true) {
+			backup.renameTo(file);
+		}
+
+		index = map(file);
+		size = index == null ? 0 : index.capacity() / RECORD_SIZE;
+	}
+
+	/**
+	 * Maps an index file in memory.
+	 * 
+	 * @param file
+	 *            Index file.
+	 * 
+	 * @return Mapped file or null if there is no file.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static ByteBuffer map(File file) throws IOException {
+		if (file.exists() == false) {
+			return null;
+		}
+
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			long length = input.length();
+			if (length % RECORD_SIZE != 0
+					|| length / RECORD_SIZE > Integer.MAX_VALUE / RECORD_SIZE) {
+				throw new IOException("Broken solver cache file " + file + "!");
+			}
+
+			/*
+			 * The mapping stays valid after the file is closed.
+			 */
+			return input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0,
+					length);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Binary search of a key in the index file.
+	 * 
+	 * @param key
+	 *            Cache key.
+	 * 
+	 * @return Record index or -1 if the key is not in the file.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int search(long key) {
+		int low = 0;
+		int high = size - 1;
+
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long value = index.getLong(middle * RECORD_SIZE);
+
+			if (value < key) {
+				low = middle + 1;
+			} else if (value > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Reads a record of an index file.
+	 * 
+	 * @param index
+	 *            Mapped index file.
+	 * 
+	 * @param record
+	 *            Record index.
+	 * 
+	 * @return Solver result.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static SolverResult read(ByteBuffer index, int record) {
+		int offset = record * RECORD_SIZE;
+
+		return new SolverResult(VERDICTS[index.getInt(offset + 20)],
+				index.getInt(offset + 16), index.getLong(offset + 8));
+	}
+
+	/**
+	 * Looks for a result.
+	 * 
+	 * @param key
+	 *            Cache key.
+	 * 
+	 * @return Solver result or null if the key is not in the cache.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized SolverResult get(long key) {
+		Long boxed = Long.valueOf(key);
+
+		SolverResult result = recent.get(boxed);
+		if (result != null) {
+			return result;
+		}
+
+		result = pending.get(boxed);
+		if (result == null && index != null) {
+			int record = search(key);
+			if (record >= 0) {
+				result = read(index, record);
+			}
+		}
+
+		if (result != null) {
+			recent.put(boxed, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Stores a result. It is combined with the result already known for the
+	 * key. It is written in the file on the next flush. A flush is submitted
+	 * to the persistence service for each FLUSH_THRESHOLD new results.
+	 * 
+	 * @param key
+	 *            Cache key.
+	 * 
+	 * @param result
+	 *            Solver result.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized void put(long key, SolverResult result) {
+		Long boxed = Long.valueOf(key);
+
+		result = result.merge(get(key));
+		recent.put(boxed, result);
+		pending.put(boxed, result);
+
+		if (pending.size() % FLUSH_THRESHOLD == 0) {
+			PersistenceService.submit(file.getPath(), new Runnable() {
+				public void run() {
+					try {
+						flush();
+					} catch (IOException ex) {
+						LOGGER.info("Solver cache can not be flushed: " + ex
+								+ "!");
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the number of results which are not in the file yet.
+	 * 
+	 * @return Number of results.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized int getPending() {
+		return pending.size();
+	}
+
+	/**
+	 * Returns the number of results in the index file.
+	 * 
+	 * @return Number of results.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public synchronized int getSize() {
+		return size;
+	}
+
+	/**
+	 * Writes a single record.
+	 * 
+	 * @param output
+	 *            Output stream.
+	 * 
+	 * @param key
+	 *            Cache key.
+	 * 
+	 * @param result
+	 *            Solver result.
+	 * 
+	 * @throws IOException
+	 *             If the record can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void write(DataOutputStream output, long key,
+			SolverResult result) throws IOException {
+		output.writeLong(key);
+		output.writeLong(result.getNodes());
+		output.writeInt(result.getLength());
+		output.writeInt(result.getSolvability().ordinal());
+	}
+
+	/**
+	 * Merges the new results with the index file. The new results and the
+	 * mapped file are taken under the lock, the merged records are written in
+	 * a temporary file without the lock and the new file is mapped under the
+	 * lock again. The old file is kept as a backup until the new one is in
+	 * place, so a failed replace does not lose the stored results.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void flush() throws IOException {
+		synchronized (flushing) {
+			TreeMap<Long, SolverResult> batch;
+			ByteBuffer source;
+			int count;
+
+			synchronized (this) {
+				if (pending.isEmpty() == true) {
+					return;
+				}
+
+				batch = new TreeMap<Long, SolverResult>(pending);
+				source = index == null ? null : index.duplicate();
+				count = size;
+			}
+
+			File temp = new File(file.getPath() + ".tmp");
+			write(temp, source, count, batch);
+
+			/*
+			 * The old mapping can not be released explicitly, so on some
+			 * systems the old file can not be renamed while it is mapped. In
+			 * such case the new results stay pending.
+			 */
+			backup.delete();
+			if (file.exists() == true && file.renameTo(backup) == false) {
+				throw new IOException("Solver cache file " + file
+						+ " can not be replaced!");
+			}
+			if (temp.renameTo(file) == false) {
+				backup.renameTo(file);
+				throw new IOException("Solver cache file " + file
+						+ " can not be replaced!");
+			}
+			backup.delete();
+
+			ByteBuffer merged = map(file);
+
+			synchronized (this) {
+				index = merged;
+				size = merged == null ? 0 : merged.capacity() / RECORD_SIZE;
+
+				/*
+				 * The results changed during the write stay pending.
+				 */
+				for (Map.Entry<Long, SolverResult> entry : batch.entrySet()) {
+					if (pending.get(entry.getKey()) == entry.getValue()) {
+						pending.remove(entry.getKey());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the records of an index file merged with new results.
+	 * 
+	 * @param temp
+	 *            Output file.
+	 * 
+	 * @param source
+	 *            Mapped index file or null.
+	 * 
+	 * @param count
+	 *            Number of records in the index file.
+	 * 
+	 * @param batch
+	 *            New results already merged with the stored ones.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static void write(File temp, ByteBuffer source, int count,
+			TreeMap<Long, SolverResult> batch) throws IOException {
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+		try {
+			Iterator<Map.Entry<Long, SolverResult>> iterator = batch
+					.entrySet().iterator();
+			Map.Entry<Long, SolverResult> next = iterator.hasNext() ? iterator
+					.next() : null;
+
+			for (int record = 0; record < count; record++) {
+				long key = source.getLong(record * RECORD_SIZE);
+
+				while (next != null && next.getKey().longValue() < key) {
+					write(output, next.getKey().longValue(), next.getValue());
+					next = iterator.hasNext() ? iterator.next() : null;
+				}
+
+				if (next != null && next.getKey().longValue() == key) {
+					/*
+					 * The new result is already merged with the stored one.
+					 */
+					write(output, key, next.getValue());
+					next = iterator.hasNext() ? iterator.next() : null;
+				} else {
+					write(output, key, read(source, record));
+				}
+			}
+
+			while (next != null) {
+				write(output, next.getKey().longValue(), next.getValue());
+				next = iterator.hasNext() ? iterator.next() : null;
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes the new results and releases the index file.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void close() throws IOException {
+		flush();
+
+		synchronized (this) {
+			index = null;
+			size = 0;
+			recent.clear();
+		}
+	}
+}
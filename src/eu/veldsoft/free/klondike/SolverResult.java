@@ -0,0 +1,135 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: SolverResult
+ * 
+ * Description: The SolverResult class holds what is known about a solved
+ * position, the verdict, the length of the shortest known solution and the
+ * number of positions checked to get the verdict. Instances are immutable.
+ * 
+ * @author Todor Balabanov
+ */
+class SolverResult {
+
+	/**
+	 * Solution length when no solution length is known.
+	 */
+	static final int UNKNOWN_LENGTH = -1;
+
+	/**
+	 * Solver verdict.
+	 */
+	private final Solvability solvability;
+
+	/**
+	 * Number of moves of the shortest known solution.
+	 */
+	private final int length;
+
+	/**
+	 * Number of positions checked by the solver.
+	 */
+	private final long nodes;
+
+	/**
+	 * Creates result.
+	 * 
+	 * @param solvability
+	 *            Solver verdict.
+	 * 
+	 * @param length
+	 *            Number of moves of the solution or UNKNOWN_LENGTH.
+	 * 
+	 * @param nodes
+	 *            Number of positions checked by the solver.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public SolverResult(Solvability solvability, int length, long nodes) {
+		this.solvability = solvability;
+		this.length = length;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Returns the solver verdict.
+	 * 
+	 * @return Solvable, unsolvable or unknown.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public Solvability getSolvability() {
+		return solvability;
+	}
+
+	/**
+	 * Returns the number of moves of the shortest known solution.
+	 * 
+	 * @return Solution length or UNKNOWN_LENGTH.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of positions checked by the solver.
+	 * 
+	 * @return Number of positions.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Combines two results for the same position. A known verdict wins over
+	 * an unknown one, the shorter known solution is kept and the bigger
+	 * number of checked positions.
+	 * 
+	 * @param other
+	 *            Other result or null.
+	 * 
+	 * @return Combined result.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	SolverResult merge(SolverResult other) {
+		if (other == null) {
+			return this;
+		}
+
+		Solvability verdict = solvability;
+		if (verdict == Solvability.UNKNOWN) {
+			verdict = other.solvability;
+		}
+
+		int shortest = length;
+		if (shortest == UNKNOWN_LENGTH
+				|| (other.length != UNKNOWN_LENGTH && other.length < shortest)) {
+			shortest = other.length;
+		}
+
+		return new SolverResult(verdict, shortest, Math.max(nodes, other.nodes));
+	}
+}
@@ -0,0 +1,410 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Logger;
+
+/**
+ * Class: StatisticsStore
+ * 
+ * Description: The StatisticsStore class keeps the game statistics in a fixed
+ * layout binary file, mapped in memory. The file starts with a header (magic
+ * number, version, number of buckets and number of counters in a bucket)
+ * followed by a bucket of counters for each draw count and difficulty and by
+ * the offset in the game journal up to which the games are counted. The
+ * counters are updated in place and made durable with force(). When the file
+ * is created, the statistics are imported from the old statistics file.
+ * 
+ * @author Todor Balabanov
+ */
+class StatisticsStore {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(StatisticsStore.class
+			.getName());
+
+	/**
+	 * File magic number ("FKST").
+	 */
+	static final int MAGIC = 0x464B5354;
+
+	/**
+	 * File layout version.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * Number of games played.
+	 */
+	static final int PLAYED = 0;
+
+	/**
+	 * Number of games won.
+	 */
+	static final int WON = 1;
+
+	/**
+	 * Longest win streak.
+	 */
+	static final int WIN_STREAK = 2;
+
+	/**
+	 * Longest loss streak (negative).
+	 */
+	static final int LOSS_STREAK = 3;
+
+	/**
+	 * Current streak, positive for wins and negative for losses.
+	 */
+	static final int CURRENT_STREAK = 4;
+
+	/**
+	 * Number of counters in a bucket.
+	 */
+	static final int COUNTERS = 5;
+
+	/**
+	 * Number of difficulties.
+	 */
+	private static final int DIFFICULTIES = GameDifficulty.values().length;
+
+	/**
+	 * Number of buckets, one for each draw count (one or three) and
+	 * difficulty.
+	 */
+	static final int BUCKETS = 2 * DIFFICULTIES;
+
+	/**
+	 * Size of the header in bytes.
+	 */
+	private static final int HEADER_SIZE = 4 * 4;
+
+	/**
+	 * Position of the game journal offset in the file.
+	 */
+	private static final int JOURNAL_OFFSET = HEADER_SIZE + BUCKETS
+			* COUNTERS * 4;
+
+	/**
+	 * Size of the file in bytes.
+	 */
+	static final int SIZE = JOURNAL_OFFSET + 8;
+
+	/**
+	 * Counters, mapped in memory or on the heap if the file can not be
+	 * mapped.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Opens the statistics file or creates it if it is missing or it is not
+	 * in the current layout.
+	 * 
+	 * @param file
+	 *            Statistics file.
+	 * 
+	 * @param legacy
+	 *            Old statistics file to import from, when the statistics file
+	 *            is created.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	StatisticsStore(File file, File legacy) {
+		ByteBuffer buffer = null;
+
+		try {
+			RandomAccessFile access = new RandomAccessFile(file, "rw");
+			try {
+				buffer = access.getChannel().map(FileChannel.MapMode.READ_WRITE,
+						0, SIZE);
+			} finally {
+				access.close();
+			}
+		} catch (IOException ex) {
+			LOGGER.info("Statistics file can not be mapped: " + ex + "!");
+			buffer = ByteBuffer.allocate(SIZE);
+		}
+
+		this.buffer = buffer;
+
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != BUCKETS
+				|| buffer.getInt(12) != COUNTERS) {
+			format(legacy);
+		} else if (buffer.getInt(4) == 1) {
+			/*
+			 * The first version has the same counters without the journal
+			 * offset.
+			 */
+			buffer.putLong(JOURNAL_OFFSET, 0);
+			buffer.putInt(4, VERSION);
+			force();
+		} else if (buffer.getInt(4) != VERSION) {
+			format(legacy);
+		}
+	}
+
+	/**
+	 * Writes the header and the counters imported from the old statistics
+	 * file.
+	 * 
+	 * @param legacy
+	 *            Old statistics file.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void format(File legacy) {
+		for (int i = HEADER_SIZE; i < SIZE; i += 4) {
+			buffer.putInt(i, 0);
+		}
+
+		if (legacy != null && legacy.exists() == true) {
+			try {
+				DataInputStream input = new DataInputStream(
+						new FileInputStream(legacy));
+
+				try {
+					if (input.available() >= 4) {
+						int first = input.readInt();
+
+						if (first == -1) {
+							/*
+							 * All buckets in order of one card draw easy,
+							 * medium and hard and three cards draw easy, medium
+							 * and hard.
+							 */
+							for (int i = 0; i < BUCKETS * COUNTERS
+									&& input.available() >= 4; i++) {
+								buffer.putInt(HEADER_SIZE + 4 * i,
+										input.readInt());
+							}
+						} else {
+							/*
+							 * The oldest format has only one card draw medium
+							 * bucket.
+							 */
+							int bucket = bucket(1, GameDifficulty.MEDIUM);
+							set(bucket, PLAYED, first);
+							for (int i = WON; i < COUNTERS
+									&& input.available() >= 4; i++) {
+								set(bucket, i, input.readInt());
+							}
+						}
+					}
+				} finally {
+					input.close();
+				}
+			} catch (IOException ex) {
+				LOGGER.info("Old statistics can not be imported: " + ex + "!");
+			}
+		}
+
+		buffer.putInt(4, VERSION);
+		buffer.putInt(8, BUCKETS);
+		buffer.putInt(12, COUNTERS);
+
+		/*
+		 * The magic number is written last, so an interrupted format is done
+		 * again on the next start.
+		 */
+		force();
+		buffer.putInt(0, MAGIC);
+		force();
+	}
+
+	/**
+	 * Returns the bucket of a draw count and difficulty.
+	 * 
+	 * @param drawCount
+	 *            Draw count, one or three.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Bucket index or -1 if the draw count is not one or three.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int bucket(int drawCount, GameDifficulty difficulty) {
+		if (drawCount == 1) {
+			return difficulty.ordinal();
+		}
+
+		if (drawCount == 3) {
+			return DIFFICULTIES + difficulty.ordinal();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Offset of a counter in the file.
+	 * 
+	 * @param bucket
+	 *            Bucket index.
+	 * 
+	 * @param counter
+	 *            Counter index in the bucket.
+	 * 
+	 * @return Offset in bytes.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static int offset(int bucket, int counter) {
+		return HEADER_SIZE + 4 * (bucket * COUNTERS + counter);
+	}
+
+	/**
+	 * Returns a counter.
+	 * 
+	 * @param bucket
+	 *            Bucket index.
+	 * 
+	 * @param counter
+	 *            Counter index in the bucket.
+	 * 
+	 * @return Counter value.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int get(int bucket, int counter) {
+		return buffer.getInt(offset(bucket, counter));
+	}
+
+	/**
+	 * Sets a counter.
+	 * 
+	 * @param bucket
+	 *            Bucket index.
+	 * 
+	 * @param counter
+	 *            Counter index in the bucket.
+	 * 
+	 * @param value
+	 *            Counter value.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void set(int bucket, int counter, int value) {
+		buffer.putInt(offset(bucket, counter), value);
+	}
+
+	/**
+	 * Records a won game.
+	 * 
+	 * @param bucket
+	 *            Bucket index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void recordWin(int bucket) {
+		int current = get(bucket, CURRENT_STREAK);
+		if (current >= 0) {
+			current++;
+		} else {
+			current = 1;
+		}
+
+		set(bucket, PLAYED, get(bucket, PLAYED) + 1);
+		set(bucket, WON, get(bucket, WON) + 1);
+		set(bucket, CURRENT_STREAK, current);
+		if (get(bucket, WIN_STREAK) < current) {
+			set(bucket, WIN_STREAK, current);
+		}
+	}
+
+	/**
+	 * Records a lost game.
+	 * 
+	 * @param bucket
+	 *            Bucket index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void recordLoss(int bucket) {
+		int current = get(bucket, CURRENT_STREAK);
+		if (current <= 0) {
+			current--;
+		} else {
+			current = -1;
+		}
+
+		set(bucket, PLAYED, get(bucket, PLAYED) + 1);
+		set(bucket, CURRENT_STREAK, current);
+		if (get(bucket, LOSS_STREAK) > current) {
+			set(bucket, LOSS_STREAK, current);
+		}
+	}
+
+	/**
+	 * Clears all counters.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void reset() {
+		for (int i = HEADER_SIZE; i < JOURNAL_OFFSET; i += 4) {
+			buffer.putInt(i, 0);
+		}
+	}
+
+	/**
+	 * Returns the offset in the game journal up to which the games are
+	 * counted.
+	 * 
+	 * @return Offset in bytes.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getJournalOffset() {
+		return buffer.getLong(JOURNAL_OFFSET);
+	}
+
+	/**
+	 * Sets the offset in the game journal up to which the games are counted.
+	 * It should be forced together with the counters of these games.
+	 * 
+	 * @param offset
+	 *            Offset in bytes.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setJournalOffset(long offset) {
+		buffer.putLong(JOURNAL_OFFSET, offset);
+	}
+
+	/**
+	 * Writes the changed counters to the storage device.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void force() {
+		if (buffer instanceof MappedByteBuffer) {
+			((MappedByteBuffer) buffer).force();
+		}
+	}
+}
@@ -598,22 +598,12 @@ class TopTimes extends JFrame implements ActionListener, KeyListener {
 	 * @author Todor Balabanov
 	 */
 	private void clearData() {
-		String fileLocation = System.getProperty("user.home")
-				+ System.getProperty("file.separator") + "frs-topTimes.dat";
-
-		try {
-			FileWriter file = new FileWriter(fileLocation);
-			PrintWriter output = new PrintWriter(file);
-			for (int i = 0; i < NUM_OF_RECORDS; i++) {
-				output.println(" ");
-				output.println(" ");
-				names[i].setText(" ");
-				times[i].setText(" ");
-			}
-			output.close();
-
-		} catch (Exception ex) {
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			names[i].setText(" ");
+			times[i].setText(" ");
 		}
+
+		saveData();
 	}
 
 	/**
@@ -622,19 +612,31 @@ class TopTimes extends JFrame implements ActionListener, KeyListener {
 	 * @author Todor Balabanov
 	 */
 	private void saveData() {
-		String fileLocation = System.getProperty("user.home")
+		final String fileLocation = System.getProperty("user.home")
 				+ System.getProperty("file.separator") + "frs-topTimes.dat";
 
-		try {
-			FileWriter file = new FileWriter(fileLocation);
-			PrintWriter output = new PrintWriter(file);
-			for (int i = 0; i < NUM_OF_RECORDS; i++) {
-				output.println(names[i].getText());
-				output.println(times[i].getText());
-			}
-			output.close();
-		} catch (Exception ex) {
+		/*
+		 * The texts are copied here and written in the persistence thread.
+		 */
+		final String lines[] = new String[2 * NUM_OF_RECORDS];
+		for (int i = 0; i < NUM_OF_RECORDS; i++) {
+			lines[2 * i] = names[i].getText();
+			lines[2 * i + 1] = times[i].getText();
 		}
+
+		PersistenceService.submit(fileLocation, new Runnable() {
+			public void run() {
+				try {
+					FileWriter file = new FileWriter(fileLocation);
+					PrintWriter output = new PrintWriter(file);
+					for (int i = 0; i < lines.length; i++) {
+						output.println(lines[i]);
+					}
+					output.close();
+				} catch (Exception ex) {
+				}
+			}
+		});
 	}
 
 	/**
@@ -0,0 +1,117 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.veldsoft.free.klondike;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class: TranspositionTable
+ * 
+ * Description: The TranspositionTable class keeps the hash codes of already
+ * visited positions. It is an open addressing hash set of long values, which
+ * can be shared between many search threads without locking. When the table
+ * is full new positions are not remembered any more.
+ * 
+ * @author Todor Balabanov
+ */
+class TranspositionTable {
+
+	/**
+	 * Maximum number of probes before giving up.
+	 */
+	private static final int MAX_PROBES = 16;
+
+	/**
+	 * Stored hash codes. Zero marks an empty slot.
+	 */
+	private final AtomicLongArray keys;
+
+	/**
+	 * Mask used instead of modulo operation.
+	 */
+	private final int mask;
+
+	/**
+	 * Creates table with capacity rounded up to power of two.
+	 * 
+	 * @param capacity
+	 *            Minimum number of slots.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public TranspositionTable(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+
+		keys = new AtomicLongArray(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Adds a position in the table.
+	 * 
+	 * @param hash
+	 *            Position hash code.
+	 * 
+	 * @return True if the position was not in the table, false if it was
+	 *         visited before.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public boolean add(long hash) {
+		if (hash == 0) {
+			hash = 1;
+		}
+
+		int index = (int) (hash ^ hash >>> 32) & mask;
+		for (int i = 0; i < MAX_PROBES; i++, index = (index + 1) & mask) {
+			long key = keys.get(index);
+
+			if (key == hash) {
+				return false;
+			}
+
+			if (key == 0) {
+				if (keys.compareAndSet(index, 0, hash) == true) {
+					return true;
+				}
+
+				/*
+				 * Other thread took the slot, so it should be checked again.
+				 */
+				if (keys.get(index) == hash) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes all positions from the table.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length(); i++) {
+			keys.set(i, 0);
+		}
+	}
+}
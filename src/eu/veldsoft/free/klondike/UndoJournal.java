@@ -0,0 +1,510 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: UndoJournal
+ * 
+ * Description: The UndoJournal class keeps the history of the moves for undo
+ * and redo. Each move is packed in a single long - source pile, destination
+ * pile, number of cards and number of viewable cards in the discard pile
+ * before the move. Piles are numbered as in HeadlessBoard. The moves are kept
+ * in a ring buffer. Without capacity limit the buffer grows as needed, with
+ * limit the oldest moves are forgotten.
+ * 
+ * A move is recorded in two steps, as the user interface does it - begin()
+ * when the cards are selected and commit() when they are dropped on the
+ * destination. Recording a new move clears the redo history.
+ * 
+ * @author Todor Balabanov
+ */
+class UndoJournal {
+
+	/**
+	 * Initial size of the buffer when there is no capacity limit.
+	 */
+	private static final int INITIAL_SIZE = 64;
+
+	/**
+	 * Mask of a single packed field.
+	 */
+	private static final long FIELD_MASK = 0xFFL;
+
+	/**
+	 * Shift of the destination field.
+	 */
+	private static final int DESTINATION_SHIFT = 8;
+
+	/**
+	 * Shift of the number of cards field.
+	 */
+	private static final int CARDS_SHIFT = 16;
+
+	/**
+	 * Shift of the discard pile view field.
+	 */
+	private static final int VIEW_SHIFT = 24;
+
+	/**
+	 * Marks that there is no started move.
+	 */
+	private static final long NO_MOVE = -1L;
+
+	/**
+	 * Packed moves.
+	 */
+	private long[] moves;
+
+	/**
+	 * Maximum number of moves or zero for no limit.
+	 */
+	private int capacity;
+
+	/**
+	 * Index of the oldest move in the buffer.
+	 */
+	private int first = 0;
+
+	/**
+	 * Number of moves which can be undone.
+	 */
+	private int size = 0;
+
+	/**
+	 * Number of undone moves which can be redone.
+	 */
+	private int redoSize = 0;
+
+	/**
+	 * Started move without destination.
+	 */
+	private long pending = NO_MOVE;
+
+	/**
+	 * Number of moves made since the history was cleared, undone moves
+	 * included.
+	 */
+	private int made = 0;
+
+	/**
+	 * Constructor without capacity limit.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	UndoJournal() {
+		this(0);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity
+	 *            Maximum number of moves or zero for no limit.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	UndoJournal(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity!");
+		}
+
+		this.capacity = capacity;
+		moves = new long[capacity > 0 ? capacity : INITIAL_SIZE];
+	}
+
+	/**
+	 * Packs a move in a single long.
+	 * 
+	 * @param source
+	 *            Source pile.
+	 * 
+	 * @param destination
+	 *            Destination pile.
+	 * 
+	 * @param numCards
+	 *            Number of cards.
+	 * 
+	 * @param numCardsInDiscardView
+	 *            Number of viewable cards in the discard pile before the move.
+	 * 
+	 * @return Packed move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long pack(int source, int destination, int numCards,
+			int numCardsInDiscardView) {
+		return (source & FIELD_MASK)
+				| (destination & FIELD_MASK) << DESTINATION_SHIFT
+				| (numCards & FIELD_MASK) << CARDS_SHIFT
+				| (numCardsInDiscardView & FIELD_MASK) << VIEW_SHIFT;
+	}
+
+	/**
+	 * Returns the source pile of a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Source pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int source(long move) {
+		return (int) (move & FIELD_MASK);
+	}
+
+	/**
+	 * Returns the destination pile of a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Destination pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int destination(long move) {
+		return (int) (move >>> DESTINATION_SHIFT & FIELD_MASK);
+	}
+
+	/**
+	 * Returns the number of cards of a packed move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Number of cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int numCards(long move) {
+		return (int) (move >>> CARDS_SHIFT & FIELD_MASK);
+	}
+
+	/**
+	 * Returns the number of viewable cards in the discard pile before a packed
+	 * move.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @return Number of viewable cards.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static int numCardsInDiscardView(long move) {
+		return (int) (move >>> VIEW_SHIFT & FIELD_MASK);
+	}
+
+	/**
+	 * Starts a move when the cards are selected.
+	 * 
+	 * @param source
+	 *            Source pile.
+	 * 
+	 * @param numCards
+	 *            Number of selected cards.
+	 * 
+	 * @param numCardsInDiscardView
+	 *            Number of viewable cards in the discard pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void begin(int source, int numCards, int numCardsInDiscardView) {
+		pending = pack(source, 0, numCards, numCardsInDiscardView);
+	}
+
+	/**
+	 * Checks if there is a started move without destination.
+	 * 
+	 * @return True if cards are selected, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean isPending() {
+		return pending != NO_MOVE;
+	}
+
+	/**
+	 * Returns the started move.
+	 * 
+	 * @return Packed move without destination.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long getPending() {
+		return pending;
+	}
+
+	/**
+	 * Drops the started move, when the cards are not moved.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void cancel() {
+		pending = NO_MOVE;
+	}
+
+	/**
+	 * Finishes the started move when the cards are dropped.
+	 * 
+	 * @param destination
+	 *            Destination pile.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void commit(int destination) {
+		if (isPending() == false) {
+			return;
+		}
+
+		add(pending | (destination & FIELD_MASK) << DESTINATION_SHIFT);
+		pending = NO_MOVE;
+	}
+
+	/**
+	 * Records a complete move.
+	 * 
+	 * @param source
+	 *            Source pile.
+	 * 
+	 * @param destination
+	 *            Destination pile.
+	 * 
+	 * @param numCards
+	 *            Number of cards.
+	 * 
+	 * @param numCardsInDiscardView
+	 *            Number of viewable cards in the discard pile before the move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void record(int source, int destination, int numCards,
+			int numCardsInDiscardView) {
+		add(pack(source, destination, numCards, numCardsInDiscardView));
+	}
+
+	/**
+	 * Adds a packed move after the last one and clears the redo history.
+	 * 
+	 * @param move
+	 *            Packed move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void add(long move) {
+		redoSize = 0;
+		made++;
+
+		if (size == moves.length) {
+			if (capacity > 0) {
+				first = (first + 1) % moves.length;
+				size--;
+			} else {
+				resize(moves.length * 2);
+			}
+		}
+
+		moves[(first + size) % moves.length] = move;
+		size++;
+	}
+
+	/**
+	 * Moves the history in a new buffer. Only the newest moves are kept if the
+	 * buffer is smaller.
+	 * 
+	 * @param length
+	 *            Size of the new buffer.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void resize(int length) {
+		int total = size + redoSize;
+		int skip = Math.max(0, size - length);
+
+		long[] buffer = new long[length];
+		for (int i = skip; i < total && i - skip < length; i++) {
+			buffer[i - skip] = moves[(first + i) % moves.length];
+		}
+
+		moves = buffer;
+		first = 0;
+		size -= skip;
+		redoSize = Math.min(redoSize, length - size);
+	}
+
+	/**
+	 * Sets the maximum number of moves. The oldest moves are forgotten if
+	 * there are more.
+	 * 
+	 * @param capacity
+	 *            Maximum number of moves or zero for no limit.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative capacity!");
+		}
+
+		this.capacity = capacity;
+		if (capacity > 0) {
+			resize(capacity);
+		} else if (moves.length < INITIAL_SIZE) {
+			resize(INITIAL_SIZE);
+		}
+	}
+
+	/**
+	 * Returns the maximum number of moves.
+	 * 
+	 * @return Maximum number of moves or zero for no limit.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Checks if there is a move to be undone.
+	 * 
+	 * @return True if there is a move, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean canUndo() {
+		return size > 0;
+	}
+
+	/**
+	 * Checks if there is a move to be redone.
+	 * 
+	 * @return True if there is a move, false otherwise.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	boolean canRedo() {
+		return redoSize > 0;
+	}
+
+	/**
+	 * Takes the last move for undo. The move is kept for redo.
+	 * 
+	 * @return Packed move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long undo() {
+		if (size == 0) {
+			throw new IllegalStateException("There is no move to be undone!");
+		}
+
+		size--;
+		redoSize++;
+
+		return moves[(first + size) % moves.length];
+	}
+
+	/**
+	 * Takes the last undone move for redo.
+	 * 
+	 * @return Packed move.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long redo() {
+		if (redoSize == 0) {
+			throw new IllegalStateException("There is no move to be redone!");
+		}
+
+		long move = moves[(first + size) % moves.length];
+		size++;
+		redoSize--;
+
+		return move;
+	}
+
+	/**
+	 * Returns the number of moves which can be undone.
+	 * 
+	 * @return Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the moves which can be undone, the oldest first.
+	 * 
+	 * @return Packed moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	long[] getMoves() {
+		long[] result = new long[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = moves[(first + i) % moves.length];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Replaces the history with moves which can be undone.
+	 * 
+	 * @param history
+	 *            Packed moves, the oldest first.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setMoves(long[] history) {
+		clear();
+		for (int i = 0; i < history.length; i++) {
+			add(history[i]);
+		}
+	}
+
+	/**
+	 * Returns the number of moves made since the history was cleared. Undone
+	 * moves and moves dropped from a limited history are counted too.
+	 * 
+	 * @return Number of moves.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	int getMovesMade() {
+		return made;
+	}
+
+	/**
+	 * Clears the history.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void clear() {
+		first = 0;
+		size = 0;
+		redoSize = 0;
+		pending = NO_MOVE;
+		made = 0;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: WinEstimate
+ * 
+ * Description: The WinEstimate class holds the result of Monte Carlo
+ * rollouts, the number of won games out of all played games, and gives the
+ * win rate with a Wilson score confidence interval.
+ * 
+ * @author Todor Balabanov
+ */
+class WinEstimate {
+
+	/**
+	 * Normal quantile of the 95% confidence level.
+	 */
+	static final double Z_95 = 1.959964;
+
+	/**
+	 * Number of won games.
+	 */
+	private final int wins;
+
+	/**
+	 * Number of played games.
+	 */
+	private final int games;
+
+	/**
+	 * Creates estimate.
+	 * 
+	 * @param wins
+	 *            Number of won games.
+	 * 
+	 * @param games
+	 *            Number of played games.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public WinEstimate(int wins, int games) {
+		this.wins = wins;
+		this.games = games;
+	}
+
+	/**
+	 * Returns the number of won games.
+	 * 
+	 * @return Won games.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int getWins() {
+		return wins;
+	}
+
+	/**
+	 * Returns the number of played games.
+	 * 
+	 * @return Played games.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	/**
+	 * Returns the share of the won games.
+	 * 
+	 * @return Win rate between 0 and 1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public double getRate() {
+		if (games == 0) {
+			return 0;
+		}
+
+		return (double) wins / games;
+	}
+
+	/**
+	 * Returns the lower bound of the 95% confidence interval.
+	 * 
+	 * @return Lower bound between 0 and 1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public double getLower() {
+		return getLower(Z_95);
+	}
+
+	/**
+	 * Returns the upper bound of the 95% confidence interval.
+	 * 
+	 * @return Upper bound between 0 and 1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public double getUpper() {
+		return getUpper(Z_95);
+	}
+
+	/**
+	 * Returns the lower bound of the Wilson score interval.
+	 * 
+	 * @param z
+	 *            Normal quantile of the confidence level.
+	 * 
+	 * @return Lower bound between 0 and 1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public double getLower(double z) {
+		if (games == 0) {
+			return 0;
+		}
+
+		return Math.max(0, center(z) - margin(z));
+	}
+
+	/**
+	 * Returns the upper bound of the Wilson score interval.
+	 * 
+	 * @param z
+	 *            Normal quantile of the confidence level.
+	 * 
+	 * @return Upper bound between 0 and 1.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	public double getUpper(double z) {
+		if (games == 0) {
+			return 1;
+		}
+
+		return Math.min(1, center(z) + margin(z));
+	}
+
+	/**
+	 * Center of the Wilson score interval.
+	 * 
+	 * @param z
+	 *            Normal quantile of the confidence level.
+	 * 
+	 * @return Interval center.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private double center(double z) {
+		return (getRate() + z * z / (2 * games)) / (1 + z * z / games);
+	}
+
+	/**
+	 * Half width of the Wilson score interval.
+	 * 
+	 * @param z
+	 *            Normal quantile of the confidence level.
+	 * 
+	 * @return Interval half width.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private double margin(double z) {
+		double rate = getRate();
+
+		return z
+				* Math.sqrt(rate * (1 - rate) / games + z * z
+						/ (4.0 * games * games)) / (1 + z * z / games);
+	}
+
+	/**
+	 * Text form of the estimate.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	@Override
+	public String toString() {
+		return String.format("%.1f%% (%.1f%% - %.1f%%) of %d games",
+				100 * getRate(), 100 * getLower(), 100 * getUpper(), games);
+	}
+}
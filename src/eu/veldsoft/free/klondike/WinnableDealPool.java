@@ -0,0 +1,443 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package eu.veldsoft.free.klondike;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Class: WinnableDealPool
+ * 
+ * Description: The WinnableDealPool class keeps deal numbers which are proven
+ * to be solvable, so a new winnable game starts without waiting for the
+ * solver. There is a bounded queue for each draw count and difficulty,
+ * because a deal may be solvable only with some of the settings. A
+ * background worker thread solves random deals and fills the queues which
+ * were asked for. The queues are written in a file with the persistence
+ * service, so the verified deals are not lost between runs.
+ * 
+ * @author Todor Balabanov
+ */
+class WinnableDealPool {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger
+			.getLogger(WinnableDealPool.class.getName());
+
+	/**
+	 * Default number of deals kept for each draw count and difficulty.
+	 */
+	static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Default number of positions checked for a single candidate deal.
+	 */
+	static final long DEFAULT_NODE_BUDGET = 1000000L;
+
+	/**
+	 * Number of queues, one for each draw count and difficulty.
+	 */
+	private static final int QUEUES = 2 * GameDifficulty.values().length;
+
+	/**
+	 * Shared pool of the game.
+	 */
+	private static WinnableDealPool instance = null;
+
+	/**
+	 * File of the queues.
+	 */
+	private final File file;
+
+	/**
+	 * Number of deals kept in each queue.
+	 */
+	private final int capacity;
+
+	/**
+	 * Solver of the candidate deals. It keeps a single transposition table
+	 * for all candidates.
+	 */
+	private final DealSolver solver;
+
+	/**
+	 * Verified deal numbers of each queue.
+	 */
+	private final List<LinkedList<Long>> queues = new ArrayList<LinkedList<Long>>();
+
+	/**
+	 * True for the queues which should be filled.
+	 */
+	private final boolean wanted[] = new boolean[QUEUES];
+
+	/**
+	 * Background worker or null if it is not started.
+	 */
+	private Thread worker = null;
+
+	/**
+	 * Returns the shared pool of the game. It is created with the first call
+	 * and its worker is started. The first call reads files, so it should not
+	 * be made from the user interface thread.
+	 * 
+	 * @return Deal pool.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static synchronized WinnableDealPool getInstance() {
+		if (instance == null) {
+			String fileLocation = System.getProperty("user.home")
+					+ System.getProperty("file.separator");
+
+			instance = new WinnableDealPool(new File(fileLocation
+					+ "frs-winnable.dat"), DEFAULT_CAPACITY,
+					DEFAULT_NODE_BUDGET);
+			instance.setCache(SolverCache.getInstance());
+			instance.start();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Creates pool and reads the saved deals. The worker is not started.
+	 * 
+	 * @param file
+	 *            File of the queues.
+	 * 
+	 * @param capacity
+	 *            Number of deals kept for each draw count and difficulty.
+	 * 
+	 * @param nodeBudget
+	 *            Number of positions checked for a single candidate deal.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	WinnableDealPool(File file, int capacity, long nodeBudget) {
+		this.file = file;
+		this.capacity = Math.max(1, capacity);
+		this.solver = new DealSolver(1, nodeBudget);
+
+		for (int i = 0; i < QUEUES; i++) {
+			queues.add(new LinkedList<Long>());
+		}
+
+		try {
+			load();
+		} catch (IOException ex) {
+			LOGGER.info("Winnable deals can not be read: " + ex + "!");
+		}
+	}
+
+	/**
+	 * Sets the cache of the solver results, so the candidate deals which
+	 * were checked in earlier runs are not solved again. It should be called
+	 * before the worker is started.
+	 * 
+	 * @param cache
+	 *            Solver cache or null for no cache.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	void setCache(SolverCache cache) {
+		solver.setCache(cache);
+	}
+
+	/**
+	 * Index of the queue of a draw count and difficulty.
+	 * 
+	 * @param drawCount
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Queue index.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private static int queue(int drawCount, GameDifficulty difficulty) {
+		return (drawCount == 3 ? GameDifficulty.values().length : 0)
+				+ difficulty.ordinal();
+	}
+
+	/**
+	 * Reads the saved deals. Each record is the draw count, the difficulty
+	 * value and the deal number.
+	 * 
+	 * @throws IOException
+	 *             If the file can not be read.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void load() throws IOException {
+		if (file.exists() == false) {
+			return;
+		}
+
+		DataInputStream input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			while (true) {
+				int drawCount = input.readByte();
+				int value = input.readByte();
+				long dealNumber = input.readLong();
+
+				for (GameDifficulty difficulty : GameDifficulty.values()) {
+					if (difficulty.getValue() == value) {
+						LinkedList<Long> deals = queues.get(queue(drawCount,
+								difficulty));
+
+						if (deals.size() < capacity) {
+							deals.add(Long.valueOf(dealNumber));
+						}
+					}
+				}
+			}
+		} catch (EOFException ex) {
+			/*
+			 * End of the records. A broken last record is skipped.
+			 */
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Writes the deals in the persistence thread. The deals are copied, so
+	 * the queues can change while the file is written.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private synchronized void save() {
+		final List<long[]> records = new ArrayList<long[]>();
+
+		for (int draw = 1; draw <= 3; draw += 2) {
+			for (GameDifficulty difficulty : GameDifficulty.values()) {
+				for (Long dealNumber : queues.get(queue(draw, difficulty))) {
+					records.add(new long[] { draw, difficulty.getValue(),
+							dealNumber.longValue() });
+				}
+			}
+		}
+
+		PersistenceService.submit(file.getPath(), new Runnable() {
+			public void run() {
+				try {
+					DataOutputStream output = new DataOutputStream(
+							new BufferedOutputStream(new FileOutputStream(file)));
+					try {
+						for (long record[] : records) {
+							output.writeByte((int) record[0]);
+							output.writeByte((int) record[1]);
+							output.writeLong(record[2]);
+						}
+					} finally {
+						output.close();
+					}
+				} catch (IOException ex) {
+					LOGGER.info("Winnable deals can not be written: " + ex
+							+ "!");
+				}
+			}
+		});
+	}
+
+	/**
+	 * Takes a verified deal. It never waits for the solver. The queue is
+	 * filled again in the background.
+	 * 
+	 * @param drawCount
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Deal number or null if there is no verified deal yet.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized Long take(int drawCount, GameDifficulty difficulty) {
+		int index = queue(drawCount, difficulty);
+		wanted[index] = true;
+		notifyAll();
+
+		if (queues.get(index).isEmpty() == true) {
+			return null;
+		}
+
+		Long dealNumber = queues.get(index).removeFirst();
+		save();
+
+		return dealNumber;
+	}
+
+	/**
+	 * Asks for the queue of a draw count and difficulty to be filled before
+	 * it is used.
+	 * 
+	 * @param drawCount
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void prefetch(int drawCount, GameDifficulty difficulty) {
+		wanted[queue(drawCount, difficulty)] = true;
+		notifyAll();
+	}
+
+	/**
+	 * Returns the number of verified deals of a draw count and difficulty.
+	 * 
+	 * @param drawCount
+	 *            Draw count, 1 or 3.
+	 * 
+	 * @param difficulty
+	 *            Game difficulty.
+	 * 
+	 * @return Number of deals.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized int size(int drawCount, GameDifficulty difficulty) {
+		return queues.get(queue(drawCount, difficulty)).size();
+	}
+
+	/**
+	 * Returns the wanted queue with the fewest deals, which is not full.
+	 * 
+	 * @return Queue index or -1 if there is nothing to fill.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private int neediest() {
+		int result = -1;
+
+		for (int i = 0; i < QUEUES; i++) {
+			if (wanted[i] == false || queues.get(i).size() >= capacity) {
+				continue;
+			}
+
+			if (result == -1 || queues.get(i).size() < queues.get(result).size()) {
+				result = i;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Solves random deals and fills the queues until it is interrupted.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private void fill() {
+		int numbers[] = new int[HeadlessBoard.DECK_SIZE];
+		HeadlessBoard board = new HeadlessBoard();
+
+		try {
+			while (Thread.currentThread().isInterrupted() == false) {
+				int index;
+				synchronized (this) {
+					while ((index = neediest()) == -1) {
+						wait();
+					}
+				}
+
+				int drawCount = index < QUEUES / 2 ? 1 : 3;
+				GameDifficulty difficulty = GameDifficulty.values()[index
+						% (QUEUES / 2)];
+
+				long dealNumber = Common.PRNG.nextLong();
+				Deck.shuffle(dealNumber, numbers);
+				board.setDrawCount(drawCount);
+				board.setDifficulty(difficulty);
+				board.deal(numbers);
+
+				if (solver.solve(board) != Solvability.SOLVABLE) {
+					continue;
+				}
+
+				synchronized (this) {
+					if (queues.get(index).size() < capacity) {
+						queues.get(index).add(Long.valueOf(dealNumber));
+						save();
+					}
+				}
+			}
+		} catch (InterruptedException ex) {
+			/*
+			 * The pool is stopped.
+			 */
+		}
+	}
+
+	/**
+	 * Starts the background worker. It runs with low priority, so it does not
+	 * slow down the game.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void start() {
+		if (worker != null) {
+			return;
+		}
+
+		worker = new Thread(new Runnable() {
+			public void run() {
+				fill();
+			}
+		}, "WinnableDealPool");
+		worker.setDaemon(true);
+		worker.setPriority(Thread.MIN_PRIORITY);
+		worker.start();
+	}
+
+	/**
+	 * Stops the background worker. The deal which is being solved is
+	 * finished first.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	synchronized void stop() {
+		if (worker == null) {
+			return;
+		}
+
+		worker.interrupt();
+		worker = null;
+		solver.shutdown();
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ This file is a part of Free Klondike
+
+ Copyright (C) 2010-2014 by Matt Stephen, Todor Balabanov, Konstantin Tsanov, Ventsislav Medarov, Vanya Gyaurova, Plamena Popova, Hristiana Kalcheva, Yana Genova
+
+ Free Klondike is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ Free Klondike is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with FreeKlondike.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package eu.veldsoft.free.klondike;
+
+/**
+ * Class: Zobrist
+ * 
+ * Description: The Zobrist class holds the random keys for 64-bit Zobrist
+ * hashing of board positions. There is a key for each card at each location
+ * of each pile. The hash of a position is the exclusive or of the keys of all
+ * cards on the board and the key of the deck throughs counter, so it can be
+ * updated with a single operation when a card is added or removed. The piles
+ * are numbered as in HeadlessBoard, so a SolitaireBoard and a HeadlessBoard
+ * with the same position have the same hash.
+ * 
+ * @author Todor Balabanov
+ */
+class Zobrist {
+
+	/**
+	 * Maximum value of the deck throughs counter which has its own key.
+	 */
+	private static final int MAX_THROUGHS = 16;
+
+	/**
+	 * Keys for all piles, locations and cards.
+	 */
+	private static final long[] CARDS = new long[HeadlessBoard.NUMBER_OF_PILES
+			* HeadlessBoard.DECK_SIZE * HeadlessBoard.DECK_SIZE];
+
+	/**
+	 * Keys for the deck throughs counter.
+	 */
+	private static final long[] THROUGHS = new long[MAX_THROUGHS];
+
+	/**
+	 * Initialize static data. The keys are always the same, so hash codes can
+	 * be stored and compared between runs.
+	 */
+	static {
+		long seed = 0x6A09E667F3BCC909L;
+
+		for (int i = 0; i < CARDS.length; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			CARDS[i] = mix(seed);
+		}
+
+		for (int i = 0; i < THROUGHS.length; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			THROUGHS[i] = mix(seed);
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Final mixing step of the SplitMix64 generator.
+	 * 
+	 * @param value
+	 *            Value to be mixed.
+	 * 
+	 * @return Mixed value.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long mix(long value) {
+		value = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ value >>> 27) * 0x94D049BB133111EBL;
+		return value ^ value >>> 31;
+	}
+
+	/**
+	 * Returns the key of a card at a location in a pile.
+	 * 
+	 * @param pile
+	 *            Pile index as in HeadlessBoard.
+	 * 
+	 * @param index
+	 *            Location within the pile, zero is the bottom.
+	 * 
+	 * @param card
+	 *            Card full number (1-52).
+	 * 
+	 * @return Key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long card(int pile, int index, int card) {
+		return CARDS[(pile * HeadlessBoard.DECK_SIZE + index)
+				* HeadlessBoard.DECK_SIZE + card - 1];
+	}
+
+	/**
+	 * Returns the key of the deck throughs counter.
+	 * 
+	 * @param throughs
+	 *            Number of times we've gone through the deck.
+	 * 
+	 * @return Key.
+	 * 
+	 * @author Todor Balabanov
+	 */
+	static long throughs(int throughs) {
+		return THROUGHS[throughs & (MAX_THROUGHS - 1)];
+	}
+}